@@ -0,0 +1,55 @@
+package com.scrib.common.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Stale-while-revalidate caching shared by note-service and search-service; imported by their
+ * application classes. A service that can read many keys at once (one Redis MGET) provides a
+ * {@link CacheMultiGet} bean, otherwise batch reads go one key at a time.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    @ConfigurationProperties("scrib.cache.stale")
+    public StaleCacheProperties staleCacheProperties() {
+        return new StaleCacheProperties();
+    }
+
+    @Bean(name = "cacheRefreshExecutor")
+    public ThreadPoolTaskExecutor cacheRefreshExecutor(StaleCacheProperties staleCacheProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(staleCacheProperties.getRefreshThreads());
+        executor.setMaxPoolSize(staleCacheProperties.getRefreshThreads());
+        executor.setQueueCapacity(staleCacheProperties.getRefreshQueueCapacity());
+        executor.setThreadNamePrefix("cache-refresh-");
+        return executor;
+    }
+
+    // Wraps whichever CacheManager Boot configured (Redis, or the in-memory one in 'local')
+    @Bean
+    public static BeanPostProcessor staleWhileRevalidateCacheManagerPostProcessor(
+            ObjectProvider<StaleCacheProperties> staleCacheProperties,
+            @Qualifier("cacheRefreshExecutor") ObjectProvider<ThreadPoolTaskExecutor> cacheRefreshExecutor,
+            ObjectProvider<CacheMultiGet> cacheMultiGet) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof StaleWhileRevalidateCacheManager)
+                        && staleCacheProperties.getObject().isEnabled()) {
+                    return new StaleWhileRevalidateCacheManager(cacheManager, staleCacheProperties.getObject(),
+                            cacheRefreshExecutor.getObject(),
+                            cacheMultiGet.getIfAvailable(CacheMultiGet::oneByOne));
+                }
+                return bean;
+            }
+        };
+    }
+}
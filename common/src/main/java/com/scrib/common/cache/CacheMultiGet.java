@@ -0,0 +1,26 @@
+package com.scrib.common.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Reads many keys of a cache at once; the store value of each key found, as cache.get(key).get() would return it
+public interface CacheMultiGet {
+
+    Map<Object, Object> getAll(Cache cache, Collection<?> keys);
+
+    static CacheMultiGet oneByOne() {
+        return (cache, keys) -> {
+            Map<Object, Object> found = new HashMap<>();
+            for (Object key : keys) {
+                Cache.ValueWrapper wrapper = cache.get(key);
+                if (wrapper != null) {
+                    found.put(key, wrapper.get());
+                }
+            }
+            return found;
+        };
+    }
+}
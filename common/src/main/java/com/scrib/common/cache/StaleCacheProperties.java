@@ -0,0 +1,84 @@
+package com.scrib.common.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class StaleCacheProperties {
+
+    private boolean enabled = true;
+
+    // Background refreshes of soft-expired entries; refreshes that don't fit in the queue are dropped
+    private int refreshThreads = 2;
+
+    private int refreshQueueCapacity = 200;
+
+    // Caches without a policy here are used as they are
+    private Map<String, Policy> caches = new LinkedHashMap<>();
+
+    public static class Policy {
+        // Served as fresh until this age
+        private Duration softTtl = Duration.ofSeconds(30);
+        // Served (and refreshed in the background) until this age, or on loader errors after invalidation
+        private Duration hardTtl = Duration.ofMinutes(10);
+        // Whether an evicted value may still stand in for a failed reload; off where eviction means "must not be seen"
+        private boolean keepEvicted = true;
+
+        public Duration getSoftTtl() {
+            return softTtl;
+        }
+
+        public void setSoftTtl(Duration softTtl) {
+            this.softTtl = softTtl;
+        }
+
+        public Duration getHardTtl() {
+            return hardTtl;
+        }
+
+        public void setHardTtl(Duration hardTtl) {
+            this.hardTtl = hardTtl;
+        }
+
+        public boolean isKeepEvicted() {
+            return keepEvicted;
+        }
+
+        public void setKeepEvicted(boolean keepEvicted) {
+            this.keepEvicted = keepEvicted;
+        }
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRefreshThreads() {
+        return refreshThreads;
+    }
+
+    public void setRefreshThreads(int refreshThreads) {
+        this.refreshThreads = refreshThreads;
+    }
+
+    public int getRefreshQueueCapacity() {
+        return refreshQueueCapacity;
+    }
+
+    public void setRefreshQueueCapacity(int refreshQueueCapacity) {
+        this.refreshQueueCapacity = refreshQueueCapacity;
+    }
+
+    public Map<String, Policy> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, Policy> caches) {
+        this.caches = caches;
+    }
+}
@@ -0,0 +1,280 @@
+package com.scrib.common.cache;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Cache decorator with stale-while-revalidate and stale-if-error semantics. Values are stored with
+ * the time they were loaded: younger than {@code softTtl} they are served as they are; between
+ * {@code softTtl} and {@code hardTtl} they are served while one background refresh per key reloads
+ * them. Evicting a key only marks its value invalid, so it is never served normally again but can
+ * still stand in, until {@code hardTtl}, when the reload fails (unless the policy turns
+ * {@code keepEvicted} off).
+ * <p>
+ * Concurrent misses for one key share a single load, and a load that an evict of its key overtakes
+ * is not stored. Empty results (null, or an empty {@code Optional} once unwrapped) are not cached, so
+ * "not found" is looked up again on the next call.
+ * <p>
+ * Loaders are only known to {@code @Cacheable(sync = true)} lookups; plain {@link #get(Object)}
+ * treats anything past {@code softTtl} as a miss. A stale value served to an HTTP request sets
+ * {@value #STALE_HEADER} on the response to the time the value was loaded.
+ */
+public class StaleWhileRevalidateCache implements Cache {
+
+    public static final String STALE_HEADER = "X-Scrib-Stale";
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleWhileRevalidateCache.class);
+
+    private final Cache delegate;
+    private final long softTtlMillis;
+    private final long hardTtlMillis;
+    private final boolean keepEvicted;
+    private final Executor refreshExecutor;
+    private final CacheMultiGet multiGet;
+    private final ConcurrentMap<Object, Load> loads = new ConcurrentHashMap<>();
+
+    public StaleWhileRevalidateCache(Cache delegate, StaleCacheProperties.Policy policy, Executor refreshExecutor,
+                                     CacheMultiGet multiGet) {
+        this.delegate = delegate;
+        this.softTtlMillis = policy.getSoftTtl().toMillis();
+        this.hardTtlMillis = policy.getHardTtl().toMillis();
+        this.keepEvicted = policy.isKeepEvicted();
+        this.refreshExecutor = refreshExecutor;
+        this.multiGet = multiGet;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Entry entry = entry(key);
+        if (entry == null || entry.invalidated || entry.age() >= softTtlMillis) {
+            return null;
+        }
+        return new SimpleValueWrapper(entry.value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        return wrapper == null ? null : (T) wrapper.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry entry = entry(key);
+        if (entry != null && !entry.invalidated && entry.age() < hardTtlMillis) {
+            if (entry.age() >= softTtlMillis) {
+                refreshInBackground(key, valueLoader);
+                markResponseStale(entry.storedAt);
+            }
+            return (T) entry.value;
+        }
+
+        try {
+            return (T) load(key, valueLoader);
+        } catch (Exception e) {
+            if (entry != null && entry.age() < hardTtlMillis) {
+                logger.warn("Serving stale {} entry for {}: {}", getName(), key, e.getMessage());
+                markResponseStale(entry.storedAt);
+                return (T) entry.value;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    // Fresh values only: without loaders, soft-expired entries are left for the caller to reload and put
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new HashMap<>();
+        try {
+            multiGet.getAll(delegate, keys).forEach((key, stored) -> {
+                if (stored instanceof Entry entry && !entry.invalidated && entry.age() < softTtlMillis) {
+                    found.put(key, entry.value);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Cache {} unavailable for {} keys: {}", getName(), keys.size(), e.getMessage());
+        }
+        return found;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, new Entry(value, System.currentTimeMillis(), false));
+    }
+
+    @Override
+    public void evict(Object key) {
+        Load load = loads.remove(key);
+        if (load != null) {
+            load.invalidate();
+        }
+        if (!keepEvicted) {
+            delegate.evict(key);
+            return;
+        }
+        Entry entry = entry(key);
+        if (entry != null && !entry.invalidated) {
+            delegate.put(key, new Entry(entry.value, entry.storedAt, true));
+        }
+    }
+
+    @Override
+    public void clear() {
+        loads.values().forEach(Load::invalidate);
+        loads.clear();
+        delegate.clear();
+    }
+
+    private Entry entry(Object key) {
+        try {
+            ValueWrapper wrapper = delegate.get(key);
+            // Values written before this cache was wrapped are treated as misses
+            return wrapper != null && wrapper.get() instanceof Entry entry ? entry : null;
+        } catch (RuntimeException e) {
+            logger.warn("Cache {} unavailable for {}: {}", getName(), key, e.getMessage());
+            return null;
+        }
+    }
+
+    // Misses that find a load of the key already running wait for its result instead of calling their own loader
+    private Object load(Object key, Callable<?> valueLoader) throws Exception {
+        Load load = new Load();
+        Load running = loads.putIfAbsent(key, load);
+        if (running == null) {
+            return run(key, load, valueLoader);
+        }
+        try {
+            return running.result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    // The loader continues the original method invocation, so it must run at most once
+    private void refreshInBackground(Object key, Callable<?> valueLoader) {
+        Load load = new Load();
+        if (loads.putIfAbsent(key, load) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    run(key, load, valueLoader);
+                } catch (Exception e) {
+                    logger.warn("Background refresh of {} entry {} failed: {}", getName(), key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            load.result.completeExceptionally(e);
+            loads.remove(key, load);
+        }
+    }
+
+    private Object run(Object key, Load load, Callable<?> valueLoader) throws Exception {
+        try {
+            Object value = valueLoader.call();
+            load.store(() -> {
+                if (value != null) {
+                    put(key, value);
+                } else {
+                    // Gone at the source: a stale copy must not keep standing in for it
+                    delegate.evict(key);
+                }
+            });
+            load.result.complete(value);
+            return value;
+        } catch (Throwable t) {
+            load.result.completeExceptionally(t);
+            throw t;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    // Keeps the oldest load time when one response is built from several stale values
+    private static void markResponseStale(long storedAt) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return;
+        }
+        HttpServletResponse response = servletAttributes.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        String storedAtHeader = DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(storedAt));
+        String existing = response.getHeader(STALE_HEADER);
+        if (existing == null || storedAtHeader.compareTo(existing) < 0) {
+            response.setHeader(STALE_HEADER, storedAtHeader);
+        }
+    }
+
+    // One running load of a key; evict and clear invalidate it so its result is not stored over theirs
+    private static final class Load {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private boolean invalidated;
+
+        private synchronized void invalidate() {
+            invalidated = true;
+        }
+
+        private synchronized void store(Runnable write) {
+            if (!invalidated) {
+                write.run();
+            }
+        }
+    }
+
+    private static final class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object value;
+        private final long storedAt;
+        private final boolean invalidated;
+
+        private Entry(Object value, long storedAt, boolean invalidated) {
+            this.value = value;
+            this.storedAt = storedAt;
+            this.invalidated = invalidated;
+        }
+
+        private long age() {
+            return System.currentTimeMillis() - storedAt;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.scrib.common.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+// Wraps the caches that have a policy in StaleCacheProperties; the rest are handed out unchanged
+public class StaleWhileRevalidateCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final StaleCacheProperties properties;
+    private final Executor refreshExecutor;
+    private final CacheMultiGet multiGet;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public StaleWhileRevalidateCacheManager(CacheManager delegate, StaleCacheProperties properties,
+                                            Executor refreshExecutor) {
+        this(delegate, properties, refreshExecutor, CacheMultiGet.oneByOne());
+    }
+
+    public StaleWhileRevalidateCacheManager(CacheManager delegate, StaleCacheProperties properties,
+                                            Executor refreshExecutor, CacheMultiGet multiGet) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.refreshExecutor = refreshExecutor;
+        this.multiGet = multiGet;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        StaleCacheProperties.Policy policy = properties.getCaches().get(name);
+        if (policy == null) {
+            return delegate.getCache(name);
+        }
+        Cache cache = caches.get(name);
+        if (cache == null) {
+            Cache target = delegate.getCache(name);
+            if (target == null) {
+                return null;
+            }
+            cache = caches.computeIfAbsent(name, key -> new StaleWhileRevalidateCache(
+                    target, policy, refreshExecutor, multiGet));
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
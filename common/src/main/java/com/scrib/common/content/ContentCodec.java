@@ -0,0 +1,130 @@
+package com.scrib.common.content;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encoding of note bodies in the content store. Bodies are addressed by the SHA-256 of their UTF-8
+ * bytes; bodies of at least {@link #MIN_COMPRESSED_BYTES} are deflated when that saves a tenth or
+ * more, everything else is stored as-is.
+ */
+public final class ContentCodec {
+
+    public static final String RAW = "RAW";
+    public static final String DEFLATE = "DEFLATE";
+
+    static final int MIN_COMPRESSED_BYTES = 1024;
+
+    private ContentCodec() {}
+
+    public static String hash(String content) {
+        return hash(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String hash(byte[] utf8) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(utf8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static Encoded encode(String content) {
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        String hash = hash(raw);
+        if (raw.length >= MIN_COMPRESSED_BYTES) {
+            byte[] deflated = deflate(raw);
+            if (deflated.length <= raw.length - raw.length / 10) {
+                return new Encoded(hash, DEFLATE, raw.length, deflated);
+            }
+        }
+        return new Encoded(hash, RAW, raw.length, raw);
+    }
+
+    public static String decode(String encoding, int rawLength, byte[] stored) {
+        if (RAW.equals(encoding)) {
+            return new String(stored, StandardCharsets.UTF_8);
+        }
+        if (DEFLATE.equals(encoding)) {
+            return new String(inflate(stored, rawLength), StandardCharsets.UTF_8);
+        }
+        throw new IllegalArgumentException("Unknown content encoding: " + encoding);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] deflated, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(raw, length, rawLength - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != rawLength) {
+                throw new IllegalStateException("Stored content is truncated: " + length + " of " + rawLength + " bytes");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Stored content is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public static final class Encoded {
+
+        private final String hash;
+        private final String encoding;
+        private final int rawLength;
+        private final byte[] bytes;
+
+        private Encoded(String hash, String encoding, int rawLength, byte[] bytes) {
+            this.hash = hash;
+            this.encoding = encoding;
+            this.rawLength = rawLength;
+            this.bytes = bytes;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        public int getRawLength() {
+            return rawLength;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.scrib.common.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers when each user last wrote so their own reads can be kept on the
+ * primary until replicas have had time to catch up. The next read usually lands
+ * on another instance (or service), so writes are also marked in
+ * {@link SharedWriteMarkers} when there are any; this instance's own writes are
+ * answered from memory.
+ */
+public class ReadYourWritesTracker {
+
+    private static final int PURGE_EVERY_WRITES = 1024;
+
+    private final long windowNanos;
+    private final Map<UUID, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final AtomicInteger writesSincePurge = new AtomicInteger();
+    private final Duration window;
+    private final SharedWriteMarkers sharedMarkers;
+
+    public ReadYourWritesTracker(Duration window) {
+        this(window, null);
+    }
+
+    public ReadYourWritesTracker(Duration window, SharedWriteMarkers sharedMarkers) {
+        this.window = window;
+        this.windowNanos = window.toNanos();
+        this.sharedMarkers = sharedMarkers;
+    }
+
+    public void recordWrite(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        lastWriteNanos.put(userId, System.nanoTime());
+        if (sharedMarkers != null) {
+            sharedMarkers.mark(userId, window);
+        }
+        if (writesSincePurge.incrementAndGet() >= PURGE_EVERY_WRITES) {
+            writesSincePurge.set(0);
+            purgeExpired();
+        }
+    }
+
+    public boolean requiresPrimary(UUID userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteNanos.get(userId);
+        if (writtenAt != null) {
+            if (System.nanoTime() - writtenAt < windowNanos) {
+                return true;
+            }
+            lastWriteNanos.remove(userId, writtenAt);
+        }
+        return sharedMarkers != null && sharedMarkers.isMarked(userId);
+    }
+
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        lastWriteNanos.entrySet().removeIf(entry -> now - entry.getValue() >= windowNanos);
+    }
+}
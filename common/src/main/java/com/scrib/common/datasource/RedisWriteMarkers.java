@@ -0,0 +1,44 @@
+package com.scrib.common.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * One short-lived Redis key per user that has just written. While Redis can't be asked, the user's
+ * reads are kept on the primary: slower, but never older than their own write.
+ */
+public class RedisWriteMarkers implements SharedWriteMarkers {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisWriteMarkers.class);
+
+    private static final String KEY_PREFIX = "scrib:recent-write:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisWriteMarkers(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void mark(UUID userId, Duration ttl) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + userId, "1", ttl);
+        } catch (RuntimeException e) {
+            logger.warn("Could not mark the write of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isMarked(UUID userId) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + userId));
+        } catch (RuntimeException e) {
+            logger.warn("Could not check recent writes of user {}: {}", userId, e.getMessage());
+            return true;
+        }
+    }
+}
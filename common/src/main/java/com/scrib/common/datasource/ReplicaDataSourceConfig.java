@@ -0,0 +1,116 @@
+package com.scrib.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replica routing shared by note-service and search-service; imported by their application
+ * classes. note-service records writes in the {@link ReadYourWritesTracker} and both services keep
+ * the writer's own reads on the primary. Replica pools are named after
+ * {@code scrib.datasource.pool-name-prefix} (the application name by default).
+ */
+@Configuration
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("scrib.datasource.replicas")
+    public ReplicaProperties replicaProperties() {
+        return new ReplicaProperties();
+    }
+
+    // With replicas on, a user's next read may reach any instance of either service, so writes are marked in Redis
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaProperties replicaProperties,
+                                                       ObjectProvider<StringRedisTemplate> redisTemplate) {
+        StringRedisTemplate redis = replicaProperties.isEnabled() ? redisTemplate.getIfAvailable() : null;
+        return new ReadYourWritesTracker(replicaProperties.getReadYourWritesWindow(),
+                redis != null ? new RedisWriteMarkers(redis) : null);
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "scrib.datasource.replicas", name = "enabled", havingValue = "true")
+    static class RoutingConfiguration {
+
+        @Value("${scrib.datasource.pool-name-prefix:${spring.application.name}}")
+        private String poolNamePrefix;
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+            return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean(destroyMethod = "close")
+        public ReplicaHealthMonitor replicaHealthMonitor(ReplicaProperties replicaProperties,
+                                                        DataSourceProperties dataSourceProperties,
+                                                        ObjectProvider<MeterRegistry> meterRegistry) {
+            List<ReplicaHealthMonitor.ReplicaState> replicas = new ArrayList<>();
+            int index = 0;
+            for (ReplicaProperties.Replica replica : replicaProperties.getInstances()) {
+                String name = poolNamePrefix + "-replica-" + index++;
+                HikariDataSource dataSource = new HikariDataSource();
+                dataSource.setPoolName(name);
+                dataSource.setJdbcUrl(replica.getUrl());
+                dataSource.setUsername(replica.getUsername() != null
+                        ? replica.getUsername() : dataSourceProperties.getUsername());
+                dataSource.setPassword(replica.getPassword() != null
+                        ? replica.getPassword() : dataSourceProperties.getPassword());
+                dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+                dataSource.setReadOnly(true);
+                dataSource.setAutoCommit(false);
+                // Replica pools are not beans, so wire them into the pool metrics by hand
+                meterRegistry.ifAvailable(registry ->
+                        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+                replicas.add(new ReplicaHealthMonitor.ReplicaState(name, dataSource));
+            }
+
+            ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicas,
+                    replicaProperties.getLagQuery(), replicaProperties.getMaxLag());
+            monitor.start(replicaProperties.getHealthCheckInterval());
+            return monitor;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaHealthMonitor replicaHealthMonitor) {
+            return new LazyConnectionDataSourceProxy(
+                    new ReplicaRoutingDataSource(primaryDataSource, replicaHealthMonitor));
+        }
+
+        @Bean
+        public HealthIndicator replicasHealthIndicator(ReplicaHealthMonitor replicaHealthMonitor) {
+            return () -> {
+                Map<String, Object> details = new LinkedHashMap<>();
+                for (ReplicaHealthMonitor.ReplicaState replica : replicaHealthMonitor.getReplicas()) {
+                    details.put(replica.getName(), Map.of(
+                            "inRotation", replica.isHealthy(),
+                            "lagMillis", replica.getLagMillis()));
+                }
+                // Reads fall back to the primary, so losing every replica degrades rather than fails
+                Health.Builder builder = replicaHealthMonitor.getHealthyReplicas().isEmpty()
+                        && !replicaHealthMonitor.getReplicas().isEmpty()
+                        ? Health.status("DEGRADED") : Health.up();
+                return builder.withDetails(details).build();
+            };
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.scrib.common.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically probes every replica for reachability and replication lag. Only replicas that
+ * answered the last probe within the lag budget are offered to the routing data source.
+ */
+public class ReplicaHealthMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final List<ReplicaState> replicas;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final ScheduledExecutorService scheduler;
+    private volatile List<ReplicaState> healthy = Collections.emptyList();
+
+    public ReplicaHealthMonitor(List<ReplicaState> replicas, String lagQuery, Duration maxLag) {
+        this.replicas = List.copyOf(replicas);
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLag.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(Duration interval) {
+        checkAll();
+        scheduler.scheduleWithFixedDelay(this::checkAll, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public List<ReplicaState> getHealthyReplicas() {
+        return healthy;
+    }
+
+    public List<ReplicaState> getReplicas() {
+        return replicas;
+    }
+
+    void checkAll() {
+        List<ReplicaState> nowHealthy = new ArrayList<>();
+        for (ReplicaState replica : replicas) {
+            boolean wasHealthy = replica.isHealthy();
+            check(replica);
+            if (replica.isHealthy()) {
+                nowHealthy.add(replica);
+            }
+            if (wasHealthy != replica.isHealthy()) {
+                log.warn("Replica {} is now {} (lag {} ms)", replica.getName(),
+                        replica.isHealthy() ? "in rotation" : "out of rotation", replica.getLagMillis());
+            }
+        }
+        healthy = List.copyOf(nowHealthy);
+    }
+
+    private void check(ReplicaState replica) {
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(2);
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                long lag = resultSet.next() ? Math.round(resultSet.getDouble(1)) : 0;
+                replica.update(lag <= maxLagMillis, lag);
+            }
+        } catch (Exception e) {
+            log.debug("Replica {} health check failed: {}", replica.getName(), e.getMessage());
+            replica.update(false, -1);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    public static class ReplicaState {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis = -1;
+
+        public ReplicaState(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void update(boolean healthy, long lagMillis) {
+            this.healthy = healthy;
+            this.lagMillis = lagMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+    }
+}
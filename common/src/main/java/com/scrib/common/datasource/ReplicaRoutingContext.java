@@ -0,0 +1,36 @@
+package com.scrib.common.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-thread override that pins the current read-only transaction to the primary.
+ * Must be set before the first statement runs, which works because the routing
+ * data source sits behind a {@code LazyConnectionDataSourceProxy}.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {}
+
+    public static void forcePrimaryForCurrentTransaction() {
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    FORCE_PRIMARY.remove();
+                }
+            });
+        }
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(FORCE_PRIMARY.get());
+    }
+
+    public static void clear() {
+        FORCE_PRIMARY.remove();
+    }
+}
@@ -0,0 +1,12 @@
+package com.scrib.common.datasource;
+
+import java.time.Duration;
+import java.util.UUID;
+
+// Last-write markers every instance can see, for reads that land on another instance than the write
+public interface SharedWriteMarkers {
+
+    void mark(UUID userId, Duration ttl);
+
+    boolean isMarked(UUID userId);
+}
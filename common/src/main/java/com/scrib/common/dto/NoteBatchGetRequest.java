@@ -0,0 +1,37 @@
+package com.scrib.common.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Body of POST /notes/batch-get: the caller's own notes are returned whatever their visibility, others only if public
+public class NoteBatchGetRequest {
+    private List<UUID> ids = new ArrayList<>();
+    
+    private UUID userId;
+
+    // Constructors
+    public NoteBatchGetRequest() {}
+
+    public NoteBatchGetRequest(List<UUID> ids, UUID userId) {
+        this.ids = ids;
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+    public List<UUID> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<UUID> ids) {
+        this.ids = ids;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+}
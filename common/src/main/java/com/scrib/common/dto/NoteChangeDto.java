@@ -0,0 +1,129 @@
+package com.scrib.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One entry of a note changes feed: the note's metadata as of its latest change, or a tombstone
+public class NoteChangeDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private UUID id;
+    
+    private UUID userId;
+    
+    private ChangeType type;
+    
+    private String title;
+    
+    private NoteDto.Visibility visibility;
+    
+    private String codeLanguage;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime updatedAt;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime deletedAt;
+
+    public enum ChangeType {
+        // Created after the client's last sync
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    // Constructors
+    public NoteChangeDto() {}
+
+    public NoteChangeDto(UUID id, UUID userId, ChangeType type, String title, NoteDto.Visibility visibility,
+                         String codeLanguage, LocalDateTime createdAt, LocalDateTime updatedAt,
+                         LocalDateTime deletedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.type = type;
+        this.title = title;
+        this.visibility = visibility;
+        this.codeLanguage = codeLanguage;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.deletedAt = deletedAt;
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public void setType(ChangeType type) {
+        this.type = type;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public NoteDto.Visibility getVisibility() {
+        return visibility;
+    }
+
+    public void setVisibility(NoteDto.Visibility visibility) {
+        this.visibility = visibility;
+    }
+
+    public String getCodeLanguage() {
+        return codeLanguage;
+    }
+
+    public void setCodeLanguage(String codeLanguage) {
+        this.codeLanguage = codeLanguage;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
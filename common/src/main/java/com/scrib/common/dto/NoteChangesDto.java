@@ -0,0 +1,49 @@
+package com.scrib.common.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+// A batch of the changes feed; pass nextToken as "since" to continue (or, when hasMore is false, on the next sync)
+public class NoteChangesDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private List<NoteChangeDto> changes;
+    
+    private String nextToken;
+    
+    private boolean hasMore;
+
+    // Constructors
+    public NoteChangesDto() {}
+
+    public NoteChangesDto(List<NoteChangeDto> changes, String nextToken, boolean hasMore) {
+        this.changes = changes;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<NoteChangeDto> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<NoteChangeDto> changes) {
+        this.changes = changes;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -1,10 +1,12 @@
 package com.scrib.common.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public class NoteDto implements Serializable {
@@ -15,6 +17,10 @@ public class NoteDto implements Serializable {
     @NotNull(message = "User ID is required")
     private UUID userId;
     
+    // Author's username on list and search responses
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String username;
+    
     @Size(max = 255, message = "Title must not exceed 255 characters")
     private String title;
     
@@ -34,6 +40,20 @@ public class NoteDto implements Serializable {
     
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime deletedAt;
+    
+    // Content metadata computed after each write; absent until then
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer contentLength;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer lineCount;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String detectedLanguage;
+    
+    // Search results only: escaped plain-text fragments with matches wrapped in <mark>
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> highlights;
 
     public enum Visibility {
         PUBLIC, PRIVATE
@@ -73,6 +93,14 @@ public class NoteDto implements Serializable {
         this.userId = userId;
     }
 
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -128,4 +156,36 @@ public class NoteDto implements Serializable {
     public void setDeletedAt(LocalDateTime deletedAt) {
         this.deletedAt = deletedAt;
     }
+
+    public Integer getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Integer contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public Integer getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(Integer lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public String getDetectedLanguage() {
+        return detectedLanguage;
+    }
+
+    public void setDetectedLanguage(String detectedLanguage) {
+        this.detectedLanguage = detectedLanguage;
+    }
+
+    public List<String> getHighlights() {
+        return highlights;
+    }
+
+    public void setHighlights(List<String> highlights) {
+        this.highlights = highlights;
+    }
 }
@@ -0,0 +1,111 @@
+package com.scrib.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class NoteRevisionDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private UUID noteId;
+    
+    private int revisionNumber;
+    
+    private String title;
+    
+    private String codeLanguage;
+    
+    private int contentLength;
+    
+    // Only set when a single revision is fetched
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String content;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+    
+    // Last auto-save folded into this revision
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public NoteRevisionDto() {}
+
+    public NoteRevisionDto(UUID noteId, int revisionNumber, String title, String codeLanguage,
+                           int contentLength, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.noteId = noteId;
+        this.revisionNumber = revisionNumber;
+        this.title = title;
+        this.codeLanguage = codeLanguage;
+        this.contentLength = contentLength;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public UUID getNoteId() {
+        return noteId;
+    }
+
+    public void setNoteId(UUID noteId) {
+        this.noteId = noteId;
+    }
+
+    public int getRevisionNumber() {
+        return revisionNumber;
+    }
+
+    public void setRevisionNumber(int revisionNumber) {
+        this.revisionNumber = revisionNumber;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getCodeLanguage() {
+        return codeLanguage;
+    }
+
+    public void setCodeLanguage(String codeLanguage) {
+        this.codeLanguage = codeLanguage;
+    }
+
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(int contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,5 +1,7 @@
 package com.scrib.common.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Size;
 import java.io.Serializable;
 
@@ -15,9 +17,30 @@ public class SearchRequest implements Serializable {
     
     private String username;
     
+    private Mode mode = Mode.DEFAULT;
+    
+    // Minimum trigram similarity for FUZZY mode (pg_trgm default is 0.3)
+    @DecimalMin(value = "0.05", message = "Similarity threshold must be at least 0.05")
+    @DecimalMax(value = "1.0", message = "Similarity threshold must not exceed 1.0")
+    private Double similarityThreshold;
+    
+    // Search results carry highlighted fragments; full content only when asked for
+    private boolean includeContent = false;
+    
     private int page = 0;
     private int size = 20;
 
+    public enum Mode {
+        // Case-insensitive match on title or content
+        DEFAULT,
+        // Literal substring match (wildcards escaped) for code fragments like "useEffect(" or "SELECT *"
+        SUBSTRING,
+        // Typo-tolerant trigram similarity match, ranked by similarity
+        FUZZY,
+        // Identifier-aware match (getUserById also matches "user id"), ranked by relevance
+        CODE
+    }
+
     // Constructors
     public SearchRequest() {}
 
@@ -64,6 +87,30 @@ public class SearchRequest implements Serializable {
         this.username = username;
     }
 
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Double getSimilarityThreshold() {
+        return similarityThreshold;
+    }
+
+    public void setSimilarityThreshold(Double similarityThreshold) {
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    public boolean isIncludeContent() {
+        return includeContent;
+    }
+
+    public void setIncludeContent(boolean includeContent) {
+        this.includeContent = includeContent;
+    }
+
     public int getPage() {
         return page;
     }
@@ -79,4 +126,20 @@ public class SearchRequest implements Serializable {
     public void setSize(int size) {
         this.size = size;
     }
+
+    // Used as the search cache key, so every field that changes the result must be included
+    @Override
+    public String toString() {
+        return "SearchRequest{" +
+                "query='" + query + '\'' +
+                ", visibility=" + visibility +
+                ", language='" + language + '\'' +
+                ", username='" + username + '\'' +
+                ", mode=" + mode +
+                ", similarityThreshold=" + similarityThreshold +
+                ", includeContent=" + includeContent +
+                ", page=" + page +
+                ", size=" + size +
+                '}';
+    }
 }
@@ -0,0 +1,64 @@
+package com.scrib.common.dto;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+public class SuggestionDto implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private Type type;
+    
+    private String text;
+    
+    // Set for TITLE suggestions only
+    private UUID noteId;
+    
+    private String codeLanguage;
+
+    public enum Type {
+        TITLE, LANGUAGE
+    }
+
+    // Constructors
+    public SuggestionDto() {}
+
+    public SuggestionDto(Type type, String text, UUID noteId, String codeLanguage) {
+        this.type = type;
+        this.text = text;
+        this.noteId = noteId;
+        this.codeLanguage = codeLanguage;
+    }
+
+    // Getters and Setters
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public UUID getNoteId() {
+        return noteId;
+    }
+
+    public void setNoteId(UUID noteId) {
+        this.noteId = noteId;
+    }
+
+    public String getCodeLanguage() {
+        return codeLanguage;
+    }
+
+    public void setCodeLanguage(String codeLanguage) {
+        this.codeLanguage = codeLanguage;
+    }
+}
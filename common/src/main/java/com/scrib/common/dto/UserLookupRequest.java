@@ -0,0 +1,37 @@
+package com.scrib.common.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Body of POST /users/lookup: users are resolved by id, by username, or both in one call
+public class UserLookupRequest {
+    private List<UUID> ids = new ArrayList<>();
+    
+    private List<String> usernames = new ArrayList<>();
+
+    // Constructors
+    public UserLookupRequest() {}
+
+    public UserLookupRequest(List<UUID> ids, List<String> usernames) {
+        this.ids = ids;
+        this.usernames = usernames;
+    }
+
+    // Getters and Setters
+    public List<UUID> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<UUID> ids) {
+        this.ids = ids;
+    }
+
+    public List<String> getUsernames() {
+        return usernames;
+    }
+
+    public void setUsernames(List<String> usernames) {
+        this.usernames = usernames;
+    }
+}
@@ -0,0 +1,59 @@
+package com.scrib.common.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Admits work by priority against a GradientLimit and feeds each finished request's latency back into it
+public class AdaptiveConcurrencyLimiter {
+
+    private final GradientLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AdaptiveConcurrencyLimiter(GradientLimit limit) {
+        this.limit = limit;
+    }
+
+    // null when the request should be shed
+    public Permit tryAcquire(RequestPriority priority) {
+        int current = inFlight.incrementAndGet();
+        if (current > limit.getLimit() * priority.getShare()) {
+            inFlight.decrementAndGet();
+            return null;
+        }
+        return new Permit(System.nanoTime());
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public final class Permit {
+
+        private final long startedAt;
+        private boolean released;
+
+        private Permit(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        public void release(boolean failed) {
+            if (released) {
+                return;
+            }
+            released = true;
+            int current = inFlight.getAndDecrement();
+            limit.onSample(System.nanoTime() - startedAt, current, failed);
+        }
+
+        // For work whose duration says nothing about load (e.g. a request that went async)
+        public void releaseWithoutSample() {
+            if (!released) {
+                released = true;
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.scrib.common.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Adaptive HTTP concurrency limit shared by note-service and search-service; imported by their
+ * application classes. Other traffic a service wants counted (note-service's STOMP saves) takes
+ * permits from the {@link AdaptiveConcurrencyLimiter} bean.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "scrib.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    @ConfigurationProperties("scrib.concurrency-limit")
+    public ConcurrencyLimitProperties concurrencyLimitProperties() {
+        return new ConcurrencyLimitProperties();
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter concurrencyLimiter(ConcurrencyLimitProperties properties,
+                                                        ObjectProvider<MeterRegistry> meterRegistry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties.newLimit());
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("scrib.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(registry);
+            Gauge.builder("scrib.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(registry);
+        });
+        return limiter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                                 ObjectMapper objectMapper,
+                                                                                 ConcurrencyLimitProperties properties) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limiter, objectMapper, properties.getRetryAfter()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
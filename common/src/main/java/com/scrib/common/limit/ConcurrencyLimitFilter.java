@@ -0,0 +1,87 @@
+package com.scrib.common.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scrib.common.dto.ApiResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Sheds HTTP requests the service can't serve in time, lowest {@link RequestPriority} first, with
+ * an immediate 503 and {@code Retry-After} instead of letting them queue for a database connection.
+ * SockJS traffic under {@code /ws} is counted but never shed; actuator endpoints are not limited.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ObjectMapper objectMapper, Duration retryAfter) {
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority(request));
+        if (permit == null) {
+            reject(response);
+            return;
+        }
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            if (request.isAsyncStarted()) {
+                permit.releaseWithoutSample();
+            } else {
+                permit.release(failed);
+            }
+        }
+    }
+
+    static RequestPriority priority(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/ws/") || path.equals("/ws")) {
+            return RequestPriority.CRITICAL;
+        }
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return RequestPriority.WRITE;
+        }
+        if (isOwnerScoped(path)) {
+            return RequestPriority.USER_READ;
+        }
+        return RequestPriority.PUBLIC_READ;
+    }
+
+    // By route only: a userId query parameter is caller-supplied and would let anonymous reads jump the queue
+    private static boolean isOwnerScoped(String path) {
+        return path.contains("/user/") || path.endsWith("/notes/changes") || path.contains("/revisions");
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Service is busy, please retry shortly"));
+    }
+}
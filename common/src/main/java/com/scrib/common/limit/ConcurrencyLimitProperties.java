@@ -0,0 +1,94 @@
+package com.scrib.common.limit;
+
+import java.time.Duration;
+
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 40;
+
+    private int minLimit = 8;
+
+    private int maxLimit = 200;
+
+    // Weight of each new estimate; lower reacts more slowly but flaps less
+    private double smoothing = 0.2;
+
+    // How much slower than the baseline recent latency may get before the limit starts to shrink
+    private double tolerance = 1.5;
+
+    // Limit is multiplied by this on every failed request
+    private double backoffRatio = 0.9;
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public GradientLimit newLimit() {
+        return new GradientLimit(initialLimit, minLimit, maxLimit, smoothing, tolerance, backoffRatio);
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,64 @@
+package com.scrib.common.limit;
+
+/**
+ * Concurrency limit that follows observed latency, in the spirit of Netflix's Gradient2. A fast
+ * moving average of response time is compared with a slow one (the baseline): while they agree the
+ * limit grows by about its square root per sample, and once recent latency rises past
+ * {@code tolerance} times the baseline the limit shrinks in proportion. Failed requests cut the
+ * limit multiplicatively (AIMD-style backoff).
+ */
+public class GradientLimit {
+
+    private static final double SHORT_WINDOW_SAMPLES = 10;
+    private static final double LONG_WINDOW_SAMPLES = 600;
+
+    private final double minLimit;
+    private final double maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit,
+                         double smoothing, double tolerance, double backoffRatio) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized void onSample(long rttNanos, int inFlight, boolean failed) {
+        if (failed) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return;
+        }
+        if (shortRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * 2 / (SHORT_WINDOW_SAMPLES + 1);
+        longRttNanos += (rttNanos - longRttNanos) * 2 / (LONG_WINDOW_SAMPLES + 1);
+        // After a long slow spell the baseline itself is inflated; let it come down faster
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        // Traffic well below the limit says nothing about capacity, so don't grow on it
+        if (gradient >= 1.0 && inFlight < limit / 2) {
+            return;
+        }
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + target * smoothing));
+    }
+}
@@ -0,0 +1,26 @@
+package com.scrib.common.limit;
+
+/**
+ * Admission classes, highest first. A class is admitted while the requests in flight stay below its
+ * share of the current limit, so as load rises the lowest classes are shed first.
+ */
+public enum RequestPriority {
+    // Note saves over WebSocket: always admitted, but counted
+    CRITICAL(Double.POSITIVE_INFINITY),
+    // Creates, updates and deletes
+    WRITE(1.0),
+    // Reads of one user's own data
+    USER_READ(0.8),
+    // Anonymous public feeds and searches
+    PUBLIC_READ(0.6);
+
+    private final double share;
+
+    RequestPriority(double share) {
+        this.share = share;
+    }
+
+    public double getShare() {
+        return share;
+    }
+}
@@ -0,0 +1,86 @@
+package com.scrib.common.shard;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+// Sorts merged shard results by a Sort over their bean properties, the way Postgres orders the same ORDER BY
+final class PropertyOrder {
+
+    private PropertyOrder() {}
+
+    static <T> List<T> sort(List<T> items, Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        // Property values are read once per item, not once per comparison
+        List<Keyed<T>> keyed = new ArrayList<>(items.size());
+        for (T item : items) {
+            BeanWrapperImpl bean = new BeanWrapperImpl(item);
+            Object[] keys = new Object[orders.size()];
+            for (int i = 0; i < keys.length; i++) {
+                Object value = bean.getPropertyValue(orders.get(i).getProperty());
+                keys[i] = orders.get(i).isIgnoreCase() && value instanceof String text
+                        ? text.toLowerCase(Locale.ROOT) : value;
+            }
+            keyed.add(new Keyed<>(item, keys));
+        }
+        keyed.sort(comparator(orders));
+
+        List<T> sorted = new ArrayList<>(keyed.size());
+        keyed.forEach(entry -> sorted.add(entry.item));
+        return sorted;
+    }
+
+    private static <T> Comparator<Keyed<T>> comparator(List<Sort.Order> orders) {
+        return (a, b) -> {
+            for (int i = 0; i < orders.size(); i++) {
+                int result = compare(a.keys[i], b.keys[i], orders.get(i));
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object a, Object b, Sort.Order order) {
+        if (a == null || b == null) {
+            if (a == b) {
+                return 0;
+            }
+            // Postgres sorts nulls as larger than any value unless told otherwise
+            boolean nullsFirst = switch (order.getNullHandling()) {
+                case NULLS_FIRST -> true;
+                case NULLS_LAST -> false;
+                default -> order.isDescending();
+            };
+            return (a == null) == nullsFirst ? -1 : 1;
+        }
+        int result = a instanceof UUID left && b instanceof UUID right
+                ? compareUnsigned(left, right)
+                : ((Comparable) a).compareTo(b);
+        return order.isAscending() ? result : -result;
+    }
+
+    // Postgres compares uuids bytewise; UUID.compareTo compares signed longs
+    private static int compareUnsigned(UUID a, UUID b) {
+        int result = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private static final class Keyed<T> {
+
+        private final T item;
+        private final Object[] keys;
+
+        private Keyed(T item, Object[] keys) {
+            this.item = item;
+            this.keys = keys;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.scrib.common.shard;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard this thread's transactions go to. Like {@code ReplicaRoutingContext} it has to be set
+ * before a transaction's first statement: the routing data source sits behind a
+ * {@code LazyConnectionDataSourceProxy}, and the connection stays on that shard until commit.
+ * Unset, transactions go to the home database.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {}
+
+    public static String current() {
+        return SHARD.get();
+    }
+
+    // For the rest of the current transaction (and any it suspends for); restored when it completes
+    public static void routeCurrentTransaction(String shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Shard routing needs an active transaction");
+        }
+        String previous = SHARD.get();
+        SHARD.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                restore(previous);
+            }
+        });
+    }
+
+    // Every transaction work starts goes to shard; a null shard leaves routing as it is
+    public static <T> T callOn(String shard, Supplier<T> work) {
+        if (shard == null) {
+            return work.get();
+        }
+        String previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runOn(String shard, Runnable work) {
+        callOn(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private static void restore(String previous) {
+        if (previous == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(previous);
+        }
+    }
+}
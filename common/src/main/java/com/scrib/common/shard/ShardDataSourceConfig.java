@@ -0,0 +1,118 @@
+package com.scrib.common.shard;
+
+import com.scrib.common.datasource.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Shard routing shared by the services that hold notes; imported by their application classes. Pools
+ * and query threads are named after {@code scrib.datasource.pool-name-prefix} (the application name
+ * by default), so each service's pools stay apart in the pool metrics.
+ */
+@Configuration
+public class ShardDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("scrib.datasource.shards")
+    public ShardProperties shardProperties() {
+        return new ShardProperties();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "scrib.datasource.shards", name = "enabled", havingValue = "false",
+                           matchIfMissing = true)
+    public ShardRouter shardRouter() {
+        return ShardRouter.unsharded();
+    }
+
+    // Notes split by user across the databases in scrib.datasource.shards; users stay in the home database
+    @Configuration
+    @ConditionalOnProperty(prefix = "scrib.datasource.shards", name = "enabled", havingValue = "true")
+    static class RoutingConfiguration {
+
+        @Value("${scrib.datasource.pool-name-prefix:${spring.application.name}}")
+        private String poolNamePrefix;
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource homeDataSource(DataSourceProperties dataSourceProperties,
+                                               ReplicaProperties replicaProperties) {
+            if (replicaProperties.isEnabled()) {
+                throw new IllegalStateException(
+                        "scrib.datasource.shards and scrib.datasource.replicas cannot both be enabled");
+            }
+            return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean
+        public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource homeDataSource,
+                                                             ShardProperties shardProperties,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+            Map<String, DataSource> shards = new LinkedHashMap<>();
+            for (ShardProperties.Shard shard : shardProperties.getInstances()) {
+                if (shard.getUrl() == null) {
+                    shards.put(shard.getName(), homeDataSource);
+                    continue;
+                }
+                HikariDataSource dataSource = new HikariDataSource();
+                dataSource.setPoolName(poolNamePrefix + "-shard-" + shard.getName());
+                dataSource.setJdbcUrl(shard.getUrl());
+                dataSource.setUsername(shard.getUsername() != null
+                        ? shard.getUsername() : dataSourceProperties.getUsername());
+                dataSource.setPassword(shard.getPassword() != null
+                        ? shard.getPassword() : dataSourceProperties.getPassword());
+                dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+                dataSource.setAutoCommit(false);
+                // Shard pools are not beans, so wire them into the pool metrics by hand
+                meterRegistry.ifAvailable(registry ->
+                        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+                shards.put(shard.getName(), dataSource);
+            }
+            return new ShardRoutingDataSource(shards, homeDataSource);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        }
+
+        // Scatter-gather queries; when every thread is busy the caller runs its shard's query itself
+        @Bean(name = "shardQueryExecutor")
+        public ThreadPoolTaskExecutor shardQueryExecutor(ShardProperties shardProperties) {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(shardProperties.getQueryThreads());
+            executor.setMaxPoolSize(shardProperties.getQueryThreads());
+            executor.setQueueCapacity(0);
+            executor.setThreadNamePrefix(poolNamePrefix + "-shard-query-");
+            executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+            return executor;
+        }
+
+        @Bean
+        public ShardRouter shardRouter(ShardProperties shardProperties, PlatformTransactionManager transactionManager,
+                                       @Qualifier("shardQueryExecutor") ThreadPoolTaskExecutor shardQueryExecutor) {
+            return new ShardRouter(shardProperties.newShardMap(), transactionManager, shardQueryExecutor,
+                    shardProperties.getMaxMergeWindow());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.scrib.common.shard;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Which shard holds a user's notes: the user id hashes into one of a fixed number of buckets, and
+ * every bucket is owned by exactly one shard. Rebalancing moves bucket ranges between shards; the
+ * hash and the bucket count stay fixed, or every user would move at once.
+ */
+public class ShardMap {
+
+    private final String[] owners;
+    private final List<String> shards;
+
+    public ShardMap(int buckets, List<String> names, List<String> ranges) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Shard bucket count must be positive");
+        }
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        owners = new String[buckets];
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Shard " + i + " has no name");
+            }
+            if (names.indexOf(name) != i) {
+                throw new IllegalArgumentException("Shard " + name + " is listed twice");
+            }
+            assign(name, ranges.get(i));
+        }
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (owners[bucket] == null) {
+                throw new IllegalArgumentException("Shard bucket " + bucket + " is not assigned to any shard");
+            }
+        }
+        this.shards = List.copyOf(names);
+    }
+
+    private void assign(String name, String ranges) {
+        if (ranges == null || ranges.isBlank()) {
+            throw new IllegalArgumentException("Shard " + name + " owns no buckets");
+        }
+        for (String range : ranges.split(",")) {
+            String[] bounds = range.trim().split("-");
+            int from;
+            int to;
+            try {
+                from = Integer.parseInt(bounds[0].trim());
+                to = bounds.length == 1 ? from : Integer.parseInt(bounds[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid bucket range '" + range + "' for shard " + name);
+            }
+            if (bounds.length > 2 || from < 0 || to >= owners.length || from > to) {
+                throw new IllegalArgumentException("Invalid bucket range '" + range + "' for shard " + name);
+            }
+            for (int bucket = from; bucket <= to; bucket++) {
+                if (owners[bucket] != null) {
+                    throw new IllegalArgumentException("Shard bucket " + bucket + " is assigned to both "
+                            + owners[bucket] + " and " + name);
+                }
+                owners[bucket] = name;
+            }
+        }
+    }
+
+    public String shardOf(UUID userId) {
+        return owners[bucketOf(userId, owners.length)];
+    }
+
+    public List<String> getShards() {
+        return shards;
+    }
+
+    // Murmur3's 64-bit finalizer over both halves of the id
+    static int bucketOf(UUID userId, int buckets) {
+        long hash = userId.getMostSignificantBits() ^ userId.getLeastSignificantBits();
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) Math.floorMod(hash, (long) buckets);
+    }
+}
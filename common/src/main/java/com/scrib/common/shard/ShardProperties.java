@@ -0,0 +1,129 @@
+package com.scrib.common.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ShardProperties {
+
+    private boolean enabled = false;
+
+    // User ids hash into this many buckets; shards own ranges of them. Never change it on live data
+    private int buckets = 1024;
+
+    private List<Shard> instances = new ArrayList<>();
+
+    // Scatter-gather pages end here: each shard returns up to offset + size rows for the merge
+    private int maxMergeWindow = 5000;
+
+    private int queryThreads = 16;
+
+    public static class Shard {
+        private String name;
+        // Bucket ranges, e.g. "0-511" or "0-255,768-1023"
+        private String buckets;
+        // Unset: spring.datasource, the home database that also holds users
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 20;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getBuckets() {
+            return buckets;
+        }
+
+        public void setBuckets(String buckets) {
+            this.buckets = buckets;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+
+    public ShardMap newShardMap() {
+        List<String> names = new ArrayList<>();
+        List<String> ranges = new ArrayList<>();
+        for (Shard shard : instances) {
+            names.add(shard.getName());
+            ranges.add(shard.getBuckets());
+        }
+        return new ShardMap(buckets, names, ranges);
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(int buckets) {
+        this.buckets = buckets;
+    }
+
+    public List<Shard> getInstances() {
+        return instances;
+    }
+
+    public void setInstances(List<Shard> instances) {
+        this.instances = instances;
+    }
+
+    public int getMaxMergeWindow() {
+        return maxMergeWindow;
+    }
+
+    public void setMaxMergeWindow(int maxMergeWindow) {
+        this.maxMergeWindow = maxMergeWindow;
+    }
+
+    public int getQueryThreads() {
+        return queryThreads;
+    }
+
+    public void setQueryThreads(int queryThreads) {
+        this.queryThreads = queryThreads;
+    }
+}
@@ -0,0 +1,199 @@
+package com.scrib.common.shard;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Puts note queries on the right shard. Work scoped to one user is routed to that user's shard;
+ * queries over everyone's notes (public feed, search, lookups by note id alone) run on every shard
+ * in parallel, each in a read-only transaction of its own, and their results are merged. Unsharded,
+ * every method runs its query once, in the caller's transaction.
+ */
+public class ShardRouter {
+
+    private final ShardMap shardMap;
+    private final TransactionTemplate shardTransaction;
+    private final Executor executor;
+    private final int maxMergeWindow;
+
+    private ShardRouter() {
+        this.shardMap = null;
+        this.shardTransaction = null;
+        this.executor = null;
+        this.maxMergeWindow = Integer.MAX_VALUE;
+    }
+
+    public ShardRouter(ShardMap shardMap, PlatformTransactionManager transactionManager, Executor executor,
+                       int maxMergeWindow) {
+        this.shardMap = shardMap;
+        this.executor = executor;
+        this.maxMergeWindow = maxMergeWindow;
+        this.shardTransaction = new TransactionTemplate(transactionManager);
+        shardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        shardTransaction.setReadOnly(true);
+    }
+
+    public static ShardRouter unsharded() {
+        return new ShardRouter();
+    }
+
+    public boolean isSharded() {
+        return shardMap != null;
+    }
+
+    // Before the caller's first statement, like ReplicaRoutingContext.forcePrimaryForCurrentTransaction
+    public void routeTo(UUID userId) {
+        if (shardMap != null && userId != null) {
+            ShardContext.routeCurrentTransaction(shardMap.shardOf(userId));
+        }
+    }
+
+    // Scheduled jobs: runs work once per shard, one shard after another
+    public void forEachShard(Runnable work) {
+        if (shardMap == null) {
+            work.run();
+            return;
+        }
+        for (String shard : shardMap.getShards()) {
+            ShardContext.runOn(shard, work);
+        }
+    }
+
+    // One result per shard; a failing shard fails the whole call rather than leave its notes out
+    public <T> List<T> onEveryShard(Supplier<T> query) {
+        if (shardMap == null) {
+            List<T> single = new ArrayList<>(1);
+            single.add(query.get());
+            return single;
+        }
+        List<CompletableFuture<T>> pending = new ArrayList<>();
+        for (String shard : shardMap.getShards()) {
+            pending.add(onShard(shard, query));
+        }
+        return joinAll(pending);
+    }
+
+    // Rows whose owners are known (e.g. notes by id with their userId): one query per shard that owns
+    // any of them, given only that shard's keys, so no other shard is asked
+    public <K, T> List<T> onOwnerShards(Collection<K> keys, Function<K, UUID> owner,
+                                        Function<List<K>, List<T>> query) {
+        if (shardMap == null) {
+            return query.apply(new ArrayList<>(keys));
+        }
+        Map<String, List<K>> byShard = new LinkedHashMap<>();
+        for (K key : keys) {
+            byShard.computeIfAbsent(shardMap.shardOf(owner.apply(key)), shard -> new ArrayList<>()).add(key);
+        }
+        List<CompletableFuture<List<T>>> pending = new ArrayList<>();
+        byShard.forEach((shard, shardKeys) -> pending.add(onShard(shard, () -> query.apply(shardKeys))));
+        List<T> results = new ArrayList<>();
+        joinAll(pending).forEach(results::addAll);
+        return results;
+    }
+
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> query) {
+        for (Optional<T> result : onEveryShard(query)) {
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * A page over every shard. Each shard returns its first {@code offset + size} rows in the
+     * page's order ({@code defaultOrder} when it has none, then id as a tie-break), and the page is
+     * cut from their merge; the total is the sum of the shards' totals.
+     */
+    public <T> Page<T> mergedPage(Pageable pageable, Sort defaultOrder, Function<Pageable, Page<T>> query) {
+        if (shardMap == null) {
+            return query.apply(pageable);
+        }
+        Sort order = pageable.getSort().isSorted() ? pageable.getSort() : defaultOrder;
+        if (order.getOrderFor("id") == null) {
+            order = order.and(Sort.by("id"));
+        }
+        Pageable top = topRows(pageable, order);
+        List<Page<T>> pages = onEveryShard(() -> query.apply(top));
+
+        List<T> merged = new ArrayList<>();
+        pages.forEach(page -> merged.addAll(page.getContent()));
+        return slice(PropertyOrder.sort(merged, order), pageable, pages);
+    }
+
+    // For rows ranked by a score they don't carry (fuzzy search): the shards' rankings are interleaved
+    public <T> Page<T> interleavedPage(Pageable pageable, Function<Pageable, Page<T>> query) {
+        if (shardMap == null) {
+            return query.apply(pageable);
+        }
+        Pageable top = topRows(pageable, pageable.getSort());
+        List<Page<T>> pages = onEveryShard(() -> query.apply(top));
+
+        List<T> interleaved = new ArrayList<>();
+        for (int rank = 0; rank < top.getPageSize(); rank++) {
+            for (Page<T> page : pages) {
+                if (rank < page.getNumberOfElements()) {
+                    interleaved.add(page.getContent().get(rank));
+                }
+            }
+        }
+        return slice(interleaved, pageable, pages);
+    }
+
+    private <T> CompletableFuture<T> onShard(String shard, Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> ShardContext.callOn(shard,
+                () -> shardTransaction.execute(status -> query.get())), executor);
+    }
+
+    private static <T> List<T> joinAll(List<CompletableFuture<T>> pending) {
+        List<T> results = new ArrayList<>(pending.size());
+        try {
+            for (CompletableFuture<T> result : pending) {
+                results.add(result.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private Pageable topRows(Pageable pageable, Sort order) {
+        long window = pageable.getOffset() + pageable.getPageSize();
+        if (window > maxMergeWindow) {
+            throw new IllegalArgumentException("Only the first " + maxMergeWindow + " results can be paged through");
+        }
+        return PageRequest.of(0, (int) window, order);
+    }
+
+    private static <T> Page<T> slice(List<T> rows, Pageable pageable, List<Page<T>> pages) {
+        long total = 0;
+        for (Page<T> page : pages) {
+            total += page.getTotalElements();
+        }
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), rows.size());
+        return new PageImpl<>(new ArrayList<>(rows.subList(from, to)), pageable, total);
+    }
+}
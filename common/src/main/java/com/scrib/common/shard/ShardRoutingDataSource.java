@@ -0,0 +1,43 @@
+package com.scrib.common.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends each transaction to the shard in {@link ShardContext}, and unrouted ones (startup schema
+ * validation, anything not scoped to a user) to the home database. Wrap it in a
+ * {@code LazyConnectionDataSourceProxy} so the shard is known when the connection is taken.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final Map<String, DataSource> shards;
+    private final DataSource home;
+
+    public ShardRoutingDataSource(Map<String, DataSource> shards, DataSource home) {
+        this.shards = shards;
+        this.home = home;
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(home);
+        // A shard name missing from the map is a configuration error, not a reason to write to home
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    // Closes the shard pools; the home pool is a bean of its own
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards.values()) {
+            if (shard != home && shard instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.scrib.common.text;
+
+import java.util.Set;
+
+/**
+ * Single-pass HTML to plain text conversion for note bodies produced by the rich text editor.
+ * Tags are dropped, block-level tags become line breaks (so code in {@code <pre>} keeps its lines),
+ * {@code <script>}/{@code <style>} bodies are skipped and common entities are decoded.
+ */
+public final class HtmlText {
+
+    private static final Set<String> BLOCK_TAGS = Set.of(
+            "p", "div", "br", "pre", "li", "ul", "ol", "tr", "table", "blockquote",
+            "h1", "h2", "h3", "h4", "h5", "h6", "hr", "section", "article");
+
+    private static final Set<String> SKIPPED_TAGS = Set.of("script", "style");
+
+    private HtmlText() {}
+
+    public static String toPlainText(String html) {
+        if (html == null || html.isEmpty()) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(html.length());
+        int length = html.length();
+        int i = 0;
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '<') {
+                int close = html.indexOf('>', i + 1);
+                if (close < 0) {
+                    out.append(html, i, length);
+                    break;
+                }
+                String tag = tagName(html, i + 1, close);
+                if (SKIPPED_TAGS.contains(tag)) {
+                    int end = html.toLowerCase().indexOf("</" + tag, close);
+                    i = end < 0 ? length : html.indexOf('>', end) + 1;
+                    if (i <= 0) {
+                        i = length;
+                    }
+                    continue;
+                }
+                if (BLOCK_TAGS.contains(tag)) {
+                    appendLineBreak(out);
+                }
+                i = close + 1;
+            } else if (c == '&') {
+                int semicolon = html.indexOf(';', i + 1);
+                if (semicolon > 0 && semicolon - i <= 10) {
+                    String decoded = decodeEntity(html.substring(i + 1, semicolon));
+                    if (decoded != null) {
+                        out.append(decoded);
+                        i = semicolon + 1;
+                        continue;
+                    }
+                }
+                out.append(c);
+                i++;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString().strip();
+    }
+
+    // Lower-cased tag name without the leading '/' of closing tags
+    private static String tagName(String html, int start, int end) {
+        int i = start;
+        if (i < end && html.charAt(i) == '/') {
+            i++;
+        }
+        int nameStart = i;
+        while (i < end && Character.isLetterOrDigit(html.charAt(i))) {
+            i++;
+        }
+        return html.substring(nameStart, i).toLowerCase();
+    }
+
+    private static void appendLineBreak(StringBuilder out) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) != '\n') {
+            out.append('\n');
+        }
+    }
+
+    private static String decodeEntity(String entity) {
+        switch (entity) {
+            case "lt": return "<";
+            case "gt": return ">";
+            case "amp": return "&";
+            case "quot": return "\"";
+            case "apos":
+            case "#39": return "'";
+            case "nbsp": return " ";
+            default:
+                break;
+        }
+        if (entity.startsWith("#")) {
+            try {
+                int codePoint = entity.startsWith("#x") || entity.startsWith("#X")
+                        ? Integer.parseInt(entity.substring(2), 16)
+                        : Integer.parseInt(entity.substring(1));
+                return new String(Character.toChars(codePoint));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
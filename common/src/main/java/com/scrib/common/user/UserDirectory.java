@@ -0,0 +1,74 @@
+package com.scrib.common.user;
+
+import com.scrib.common.dto.NoteDto;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * LRU of user id to username, used to put author names on pages of notes. Usernames never change,
+ * so entries are never invalidated, only dropped when the map is full; a page costs at most one
+ * {@code users} query, for the authors not seen before. Runs in the caller's transaction.
+ */
+public class UserDirectory {
+
+    private static final String SELECT_USERNAMES = "SELECT id, username FROM users WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Map<UUID, String> usernames;
+
+    public UserDirectory(NamedParameterJdbcTemplate jdbcTemplate, int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.usernames = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    // Unknown ids are simply absent from the result
+    public Map<UUID, String> usernames(Collection<UUID> userIds) {
+        Map<UUID, String> found = new HashMap<>();
+        Set<UUID> missing = new LinkedHashSet<>();
+        synchronized (usernames) {
+            for (UUID userId : userIds) {
+                String username = usernames.get(userId);
+                if (username != null) {
+                    found.put(userId, username);
+                } else if (userId != null) {
+                    missing.add(userId);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        Map<UUID, String> loaded = new HashMap<>();
+        jdbcTemplate.query(SELECT_USERNAMES, Map.of("ids", missing), rs -> {
+            loaded.put(rs.getObject("id", UUID.class), rs.getString("username"));
+        });
+        synchronized (usernames) {
+            usernames.putAll(loaded);
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    public void fillUsernames(Collection<NoteDto> notes) {
+        if (notes.isEmpty()) {
+            return;
+        }
+        Set<UUID> userIds = new LinkedHashSet<>();
+        notes.forEach(note -> userIds.add(note.getUserId()));
+        Map<UUID, String> found = usernames(userIds);
+        notes.forEach(note -> note.setUsername(found.get(note.getUserId())));
+    }
+}
@@ -0,0 +1,27 @@
+package com.scrib.common.user;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Author name lookups shared by note-service and search-service; imported by their application
+ * classes. The LRU holds at most {@code scrib.authors.max-entries} users.
+ */
+@Configuration
+public class UserDirectoryConfig {
+
+    // With sharding on, users live only in the home database, whichever shard the caller is routed to
+    @Bean
+    public UserDirectory userDirectory(NamedParameterJdbcTemplate jdbcTemplate,
+                                       @Qualifier("homeDataSource") ObjectProvider<DataSource> homeDataSource,
+                                       @Value("${scrib.authors.max-entries:100000}") int maxEntries) {
+        DataSource home = homeDataSource.getIfAvailable();
+        return new UserDirectory(home != null ? new NamedParameterJdbcTemplate(home) : jdbcTemplate, maxEntries);
+    }
+}
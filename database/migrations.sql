@@ -249,6 +249,354 @@ BEGIN
 END;
 $$ LANGUAGE plpgsql;
 
+-- ==============================================
+-- MIGRATION 011: Add Note Content Enrichment Columns
+-- ==============================================
+
+-- Derived from content by note-service after each write (enriched_at NULL = pending)
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS plain_text TEXT;
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS content_length INTEGER;
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS line_count INTEGER;
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS detected_language VARCHAR(50);
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS enriched_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_notes_content_length ON notes(content_length);
+CREATE INDEX IF NOT EXISTS idx_notes_content_hash ON notes(content_hash);
+CREATE INDEX IF NOT EXISTS idx_notes_effective_language ON notes(COALESCE(code_language, detected_language));
+CREATE INDEX IF NOT EXISTS idx_notes_pending_enrichment ON notes(updated_at) WHERE enriched_at IS NULL AND deleted_at IS NULL;
+
+-- Only user-visible columns bump updated_at and user activity, so writing enrichment results does not
+-- look like an edit. Existing rows are backfilled by note-service's enrichment sweep.
+DROP TRIGGER IF EXISTS update_notes_updated_at ON notes;
+CREATE TRIGGER update_notes_updated_at
+    BEFORE UPDATE OF title, content, visibility, code_language, deleted_at ON notes
+    FOR EACH ROW
+    EXECUTE FUNCTION update_updated_at_column();
+
+DROP TRIGGER IF EXISTS update_user_activity_on_note_change ON notes;
+CREATE TRIGGER update_user_activity_on_note_change
+    AFTER INSERT OR UPDATE OF title, content, visibility, code_language, deleted_at ON notes
+    FOR EACH ROW
+    EXECUTE FUNCTION update_user_activity();
+
+-- ==============================================
+-- MIGRATION 012: Add Content-Addressed Note Body Store
+-- ==============================================
+
+-- One row per distinct note body, keyed by the SHA-256 of its text. note-service writes bodies here
+-- (deflated when that pays off) and points notes.content_hash at them; notes.content is only kept for
+-- rows written before this migration until note-service's content-store migration job moves them.
+CREATE TABLE IF NOT EXISTS note_contents (
+    hash VARCHAR(64) PRIMARY KEY,
+    encoding VARCHAR(16) NOT NULL,
+    raw_length INTEGER NOT NULL,
+    body BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_used_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_note_contents_size CHECK (raw_length <= 10485760) -- 10MB, as chk_notes_content_size
+);
+
+-- Bodies are already compressed; keep Postgres from trying again
+ALTER TABLE note_contents ALTER COLUMN body SET STORAGE EXTERNAL;
+
+CREATE INDEX IF NOT EXISTS idx_note_contents_last_used_at ON note_contents(last_used_at);
+
+-- Hashes written by enrichment (migration 011) have no stored body yet; the migration job sets them again
+UPDATE notes SET content_hash = NULL WHERE content IS NOT NULL;
+
+ALTER TABLE notes DROP CONSTRAINT IF EXISTS fk_notes_content_hash;
+ALTER TABLE notes ADD CONSTRAINT fk_notes_content_hash
+    FOREIGN KEY (content_hash) REFERENCES note_contents(hash);
+
+CREATE INDEX IF NOT EXISTS idx_notes_inline_content ON notes(id) WHERE content IS NOT NULL;
+
+-- Substring search reads plain_text, so the body indexes on notes.content go
+DROP INDEX IF EXISTS idx_notes_content_gin;
+DROP INDEX IF EXISTS idx_notes_content_trgm;
+CREATE INDEX IF NOT EXISTS idx_notes_plain_text_trgm ON notes USING gin(plain_text gin_trgm_ops);
+
+-- Moving a body into the store is not an edit: the job sets scrib.suppress_touch for its transaction
+CREATE OR REPLACE FUNCTION update_updated_at_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('scrib.suppress_touch', true) = 'on' THEN
+        RETURN NEW;
+    END IF;
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION update_user_activity()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('scrib.suppress_touch', true) = 'on' THEN
+        RETURN NEW;
+    END IF;
+    UPDATE users 
+    SET last_activity_at = CURRENT_TIMESTAMP 
+    WHERE id = NEW.user_id;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+-- An edit now changes content_hash rather than content
+DROP TRIGGER IF EXISTS update_notes_updated_at ON notes;
+CREATE TRIGGER update_notes_updated_at
+    BEFORE UPDATE OF title, content, content_hash, visibility, code_language, deleted_at ON notes
+    FOR EACH ROW
+    EXECUTE FUNCTION update_updated_at_column();
+
+DROP TRIGGER IF EXISTS update_user_activity_on_note_change ON notes;
+CREATE TRIGGER update_user_activity_on_note_change
+    AFTER INSERT OR UPDATE OF title, content, content_hash, visibility, code_language, deleted_at ON notes
+    FOR EACH ROW
+    EXECUTE FUNCTION update_user_activity();
+
+-- The views and search_notes() read notes.content, which is NULL once a body moves to note_contents
+-- (where it may be compressed, so SQL can't read it). They expose and search plain_text instead, which
+-- enrichment keeps for every note; inline bodies still count until enrichment has run.
+DROP VIEW IF EXISTS active_notes;
+CREATE VIEW active_notes AS
+SELECT 
+    n.id,
+    n.user_id,
+    u.username,
+    n.title,
+    n.plain_text,
+    n.visibility,
+    n.code_language,
+    n.created_at,
+    n.updated_at
+FROM notes n
+JOIN users u ON n.user_id = u.id
+WHERE n.deleted_at IS NULL;
+
+DROP VIEW IF EXISTS public_notes;
+CREATE VIEW public_notes AS
+SELECT 
+    n.id,
+    n.user_id,
+    u.username,
+    n.title,
+    n.plain_text,
+    n.code_language,
+    n.created_at,
+    n.updated_at
+FROM notes n
+JOIN users u ON n.user_id = u.id
+WHERE n.deleted_at IS NULL 
+  AND n.visibility = 'PUBLIC';
+
+-- Created by schema.sql installs
+DROP VIEW IF EXISTS user_notes;
+CREATE VIEW user_notes AS
+SELECT 
+    n.id,
+    n.user_id,
+    u.username,
+    n.title,
+    n.plain_text,
+    n.visibility,
+    n.code_language,
+    n.created_at,
+    n.updated_at
+FROM notes n
+JOIN users u ON n.user_id = u.id
+WHERE n.deleted_at IS NULL;
+
+DROP FUNCTION IF EXISTS search_notes(TEXT, UUID, VARCHAR, VARCHAR, INTEGER, INTEGER);
+DROP FUNCTION IF EXISTS search_notes(TEXT, UUID, visibility_enum, VARCHAR, INTEGER, INTEGER);
+CREATE OR REPLACE FUNCTION search_notes(
+    search_query TEXT DEFAULT NULL,
+    user_filter UUID DEFAULT NULL,
+    visibility_filter visibility_enum DEFAULT NULL,
+    language_filter VARCHAR(50) DEFAULT NULL,
+    page_offset INTEGER DEFAULT 0,
+    page_size INTEGER DEFAULT 20
+)
+RETURNS TABLE (
+    id UUID,
+    user_id UUID,
+    username VARCHAR(50),
+    title VARCHAR(255),
+    plain_text TEXT,
+    visibility visibility_enum,
+    code_language VARCHAR(50),
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    rank REAL
+) AS $$
+BEGIN
+    RETURN QUERY
+    SELECT 
+        n.id,
+        n.user_id,
+        u.username,
+        n.title,
+        n.plain_text,
+        n.visibility,
+        n.code_language,
+        n.created_at,
+        n.updated_at,
+        CASE 
+            WHEN search_query IS NOT NULL THEN 
+                ts_rank(
+                    to_tsvector('english', COALESCE(n.title, '') || ' ' || COALESCE(n.plain_text, n.content, '')),
+                    plainto_tsquery('english', search_query)
+                )
+            ELSE 0
+        END as rank
+    FROM notes n
+    JOIN users u ON n.user_id = u.id
+    WHERE n.deleted_at IS NULL
+      AND (user_filter IS NULL OR n.user_id = user_filter)
+      AND (visibility_filter IS NULL OR n.visibility = visibility_filter)
+      AND (language_filter IS NULL OR n.code_language = language_filter)
+      AND (search_query IS NULL OR 
+           to_tsvector('english', COALESCE(n.title, '') || ' ' || COALESCE(n.plain_text, n.content, '')) 
+           @@ plainto_tsquery('english', search_query))
+    ORDER BY 
+        CASE WHEN search_query IS NOT NULL THEN rank END DESC,
+        n.updated_at DESC
+    LIMIT page_size
+    OFFSET page_offset;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ==============================================
+-- MIGRATION 013: Add Note Revision History
+-- ==============================================
+
+-- Written by note-service on every save: periodic snapshots (sharing bodies with notes through
+-- note_contents) and prefix/suffix deltas between them. Notes without revisions get a baseline
+-- snapshot on their next edit.
+CREATE TABLE IF NOT EXISTS note_revisions (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    note_id UUID NOT NULL,
+    revision_number INTEGER NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    base_revision INTEGER NOT NULL,
+    chain_length INTEGER NOT NULL,
+    chain_chars INTEGER NOT NULL,
+    title VARCHAR(255),
+    code_language VARCHAR(50),
+    content_length INTEGER NOT NULL,
+    -- SNAPSHOT: full body in note_contents
+    content_hash VARCHAR(64),
+    -- DELTA: keep prefix_length chars of the previous revision, then inserted, then its last suffix_length chars
+    prefix_length INTEGER,
+    suffix_length INTEGER,
+    inserted TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_note_revisions_note_id FOREIGN KEY (note_id) REFERENCES notes(id) ON DELETE CASCADE,
+    CONSTRAINT fk_note_revisions_content_hash FOREIGN KEY (content_hash) REFERENCES note_contents(hash),
+    CONSTRAINT uk_note_revisions_note_revision UNIQUE (note_id, revision_number),
+    CONSTRAINT chk_note_revisions_kind CHECK (
+        (kind = 'SNAPSHOT' AND content_hash IS NOT NULL) OR
+        (kind = 'DELTA' AND prefix_length IS NOT NULL AND suffix_length IS NOT NULL AND inserted IS NOT NULL))
+);
+
+-- note_contents GC must keep bodies still referenced by snapshots
+CREATE INDEX IF NOT EXISTS idx_note_revisions_content_hash ON note_revisions(content_hash) WHERE content_hash IS NOT NULL;
+
+-- ==============================================
+-- MIGRATION 014: Add Note Events Outbox
+-- ==============================================
+
+-- Written by note-service in the same transaction as each note change and relayed to the
+-- scrib:note-events Redis stream. No FK to notes: events must outlive hard deletes until relayed.
+CREATE TABLE IF NOT EXISTS note_events (
+    id BIGSERIAL PRIMARY KEY,
+    note_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    occurred_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_note_events_unpublished ON note_events(id) WHERE published_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_note_events_published_at ON note_events(published_at) WHERE published_at IS NOT NULL;
+
+-- ==============================================
+-- MIGRATION 015: Make the User Activity Trigger Optional
+-- ==============================================
+
+-- update_user_activity_on_note_change row-locks the author's users row on every note write. Sessions
+-- that set scrib.user_activity_trigger = 'off' (note-service does, through its JDBC URL) skip it;
+-- user-service then updates last_activity_at in batches from the note-events stream.
+CREATE OR REPLACE FUNCTION update_user_activity()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('scrib.suppress_touch', true) = 'on'
+       OR current_setting('scrib.user_activity_trigger', true) = 'off' THEN
+        RETURN NEW;
+    END IF;
+    UPDATE users 
+    SET last_activity_at = CURRENT_TIMESTAMP 
+    WHERE id = NEW.user_id;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+-- ==============================================
+-- MIGRATION 016: Add Note Changes Feed Index
+-- ==============================================
+
+-- GET /notes/changes walks one user's notes in (updated_at, id) order from a cursor. Not partial:
+-- soft-deleted rows must stay in it so clients receive them as tombstones.
+CREATE INDEX IF NOT EXISTS idx_notes_user_changes ON notes(user_id, updated_at, id);
+
+-- ==============================================
+-- MIGRATION 017: Add Notes Archive
+-- ==============================================
+
+-- note-service moves soft-deleted notes past their retention window (and, when configured, notes
+-- untouched for a long time) out of notes in small batches, so the hot heap and its GIN/trigram
+-- indexes only hold live rows. Same columns as notes; live rows are moved back on access.
+CREATE TABLE IF NOT EXISTS notes_archive (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    title VARCHAR(255),
+    content TEXT,
+    visibility visibility_enum NOT NULL,
+    code_language VARCHAR(50),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    deleted_at TIMESTAMP,
+    plain_text TEXT,
+    content_length INTEGER,
+    line_count INTEGER,
+    detected_language VARCHAR(50),
+    enriched_at TIMESTAMP,
+    content_hash VARCHAR(64),
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- Set when a live note is moved back; the emptied row then keeps it from being archived again too soon
+    restored_at TIMESTAMP,
+    CONSTRAINT fk_notes_archive_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Restore-on-access looks up a user's archived live notes, content GC checks content_hash, and the
+-- changes feed checks whether tombstones a client has not seen yet were archived
+CREATE INDEX IF NOT EXISTS idx_notes_archive_user_live ON notes_archive(user_id) WHERE deleted_at IS NULL AND restored_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_notes_archive_content_hash ON notes_archive(content_hash);
+CREATE INDEX IF NOT EXISTS idx_notes_archive_user_tombstones ON notes_archive(user_id, updated_at) WHERE deleted_at IS NOT NULL;
+
+-- Revisions of an archived live note stay in note_revisions, so they can no longer cascade from
+-- notes. note-service deletes the revisions of soft-deleted notes when it archives them, and its
+-- archive job sweeps revisions whose note is in neither table (e.g. after a user was deleted).
+ALTER TABLE note_revisions DROP CONSTRAINT IF EXISTS fk_note_revisions_note_id;
+
+-- ==============================================
+-- MIGRATION 018: Add Public Feed Index
+-- ==============================================
+
+-- The public feed is ordered by (created_at DESC, id); pages past search-service's in-memory timeline
+-- seek from its last note with a keyset condition on the same pair.
+CREATE INDEX IF NOT EXISTS idx_notes_public_feed ON notes(created_at DESC, id) WHERE visibility = 'PUBLIC' AND deleted_at IS NULL;
+
 -- ==============================================
 -- MIGRATION COMPLETION
 -- ==============================================
@@ -43,18 +43,103 @@ CREATE TABLE IF NOT EXISTS users (
     last_activity_at TIMESTAMP
 );
 
+-- Note bodies, content-addressed by SHA-256 and shared by every note with the same text
+CREATE TABLE IF NOT EXISTS note_contents (
+    hash VARCHAR(64) PRIMARY KEY,
+    encoding VARCHAR(16) NOT NULL,
+    raw_length INTEGER NOT NULL,
+    body BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_used_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_note_contents_size CHECK (raw_length <= 10485760)
+);
+
+-- Bodies are already compressed by note-service
+ALTER TABLE note_contents ALTER COLUMN body SET STORAGE EXTERNAL;
+
 -- Notes table
 CREATE TABLE IF NOT EXISTS notes (
     id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
     user_id UUID NOT NULL,
     title VARCHAR(255),
+    -- Inline body of rows written before note_contents; moved out by note-service
     content TEXT,
     visibility visibility_enum NOT NULL DEFAULT 'PRIVATE',
     code_language VARCHAR(50),
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     deleted_at TIMESTAMP,
-    CONSTRAINT fk_notes_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    -- Derived from content by note-service (enriched_at NULL = pending)
+    plain_text TEXT,
+    content_length INTEGER,
+    line_count INTEGER,
+    detected_language VARCHAR(50),
+    enriched_at TIMESTAMP,
+    -- Body in note_contents
+    content_hash VARCHAR(64),
+    CONSTRAINT fk_notes_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_notes_content_hash FOREIGN KEY (content_hash) REFERENCES note_contents(hash)
+);
+
+-- Note revision history: snapshots in note_contents plus prefix/suffix deltas between them
+CREATE TABLE IF NOT EXISTS note_revisions (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    note_id UUID NOT NULL,
+    revision_number INTEGER NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    base_revision INTEGER NOT NULL,
+    chain_length INTEGER NOT NULL,
+    chain_chars INTEGER NOT NULL,
+    title VARCHAR(255),
+    code_language VARCHAR(50),
+    content_length INTEGER NOT NULL,
+    -- SNAPSHOT: full body in note_contents
+    content_hash VARCHAR(64),
+    -- DELTA: keep prefix_length chars of the previous revision, then inserted, then its last suffix_length chars
+    prefix_length INTEGER,
+    suffix_length INTEGER,
+    inserted TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- No FK to notes: revisions of archived notes stay here; the note archive job sweeps orphans
+    CONSTRAINT fk_note_revisions_content_hash FOREIGN KEY (content_hash) REFERENCES note_contents(hash),
+    CONSTRAINT uk_note_revisions_note_revision UNIQUE (note_id, revision_number),
+    CONSTRAINT chk_note_revisions_kind CHECK (
+        (kind = 'SNAPSHOT' AND content_hash IS NOT NULL) OR
+        (kind = 'DELTA' AND prefix_length IS NOT NULL AND suffix_length IS NOT NULL AND inserted IS NOT NULL))
+);
+
+-- Soft-deleted and cold notes moved out of notes by note-service; live rows move back on access
+CREATE TABLE IF NOT EXISTS notes_archive (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    title VARCHAR(255),
+    content TEXT,
+    visibility visibility_enum NOT NULL,
+    code_language VARCHAR(50),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    deleted_at TIMESTAMP,
+    plain_text TEXT,
+    content_length INTEGER,
+    line_count INTEGER,
+    detected_language VARCHAR(50),
+    enriched_at TIMESTAMP,
+    content_hash VARCHAR(64),
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- Set when a live note is moved back; the emptied row then keeps it from being archived again too soon
+    restored_at TIMESTAMP,
+    CONSTRAINT fk_notes_archive_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Outbox of note changes, relayed to the scrib:note-events Redis stream by note-service
+CREATE TABLE IF NOT EXISTS note_events (
+    id BIGSERIAL PRIMARY KEY,
+    note_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    occurred_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP
 );
 
 -- ==============================================
@@ -80,36 +165,67 @@ CREATE INDEX IF NOT EXISTS idx_notes_user_created ON notes(user_id, created_at D
 CREATE INDEX IF NOT EXISTS idx_notes_language_visibility ON notes(code_language, visibility);
 CREATE INDEX IF NOT EXISTS idx_notes_user_visibility ON notes(user_id, visibility);
 CREATE INDEX IF NOT EXISTS idx_notes_active_notes ON notes(deleted_at) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_notes_content_length ON notes(content_length);
+CREATE INDEX IF NOT EXISTS idx_notes_content_hash ON notes(content_hash);
+CREATE INDEX IF NOT EXISTS idx_notes_effective_language ON notes(COALESCE(code_language, detected_language));
+CREATE INDEX IF NOT EXISTS idx_notes_pending_enrichment ON notes(updated_at) WHERE enriched_at IS NULL AND deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_notes_inline_content ON notes(id) WHERE content IS NOT NULL;
+-- Changes feed cursor; includes soft-deleted rows (tombstones)
+CREATE INDEX IF NOT EXISTS idx_notes_user_changes ON notes(user_id, updated_at, id);
+-- Public feed order, and the keyset for pages past search-service's in-memory timeline
+CREATE INDEX IF NOT EXISTS idx_notes_public_feed ON notes(created_at DESC, id) WHERE visibility = 'PUBLIC' AND deleted_at IS NULL;
+
+-- Notes archive indexes
+CREATE INDEX IF NOT EXISTS idx_notes_archive_user_live ON notes_archive(user_id) WHERE deleted_at IS NULL AND restored_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_notes_archive_content_hash ON notes_archive(content_hash);
+CREATE INDEX IF NOT EXISTS idx_notes_archive_user_tombstones ON notes_archive(user_id, updated_at) WHERE deleted_at IS NOT NULL;
+
+-- Content store indexes
+CREATE INDEX IF NOT EXISTS idx_note_contents_last_used_at ON note_contents(last_used_at);
+
+-- Note revisions indexes
+CREATE INDEX IF NOT EXISTS idx_note_revisions_content_hash ON note_revisions(content_hash) WHERE content_hash IS NOT NULL;
+
+-- Note events indexes
+CREATE INDEX IF NOT EXISTS idx_note_events_unpublished ON note_events(id) WHERE published_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_note_events_published_at ON note_events(published_at) WHERE published_at IS NOT NULL;
 
 -- Full-text search indexes
 CREATE INDEX IF NOT EXISTS idx_notes_title_gin ON notes USING gin(to_tsvector('english', title));
-CREATE INDEX IF NOT EXISTS idx_notes_content_gin ON notes USING gin(to_tsvector('english', content));
 CREATE INDEX IF NOT EXISTS idx_notes_title_trgm ON notes USING gin(title gin_trgm_ops);
-CREATE INDEX IF NOT EXISTS idx_notes_content_trgm ON notes USING gin(content gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_notes_plain_text_trgm ON notes USING gin(plain_text gin_trgm_ops);
 
 -- ==============================================
 -- FUNCTIONS AND TRIGGERS
 -- ==============================================
 
--- Function to update the updated_at timestamp
+-- Function to update the updated_at timestamp (skipped while scrib.suppress_touch is on)
 CREATE OR REPLACE FUNCTION update_updated_at_column()
 RETURNS TRIGGER AS $$
 BEGIN
+    IF current_setting('scrib.suppress_touch', true) = 'on' THEN
+        RETURN NEW;
+    END IF;
     NEW.updated_at = CURRENT_TIMESTAMP;
     RETURN NEW;
 END;
 $$ language 'plpgsql';
 
--- Trigger to automatically update updated_at on notes table
+-- Trigger to automatically update updated_at on notes table (derived columns don't count as edits)
 CREATE TRIGGER update_notes_updated_at 
-    BEFORE UPDATE ON notes 
+    BEFORE UPDATE OF title, content, content_hash, visibility, code_language, deleted_at ON notes 
     FOR EACH ROW 
     EXECUTE FUNCTION update_updated_at_column();
 
--- Function to update user last activity
+-- Function to update user last activity (skipped while scrib.suppress_touch is on, or in sessions
+-- with scrib.user_activity_trigger = 'off' whose writes user-service records from note events)
 CREATE OR REPLACE FUNCTION update_user_activity()
 RETURNS TRIGGER AS $$
 BEGIN
+    IF current_setting('scrib.suppress_touch', true) = 'on'
+       OR current_setting('scrib.user_activity_trigger', true) = 'off' THEN
+        RETURN NEW;
+    END IF;
     UPDATE users 
     SET last_activity_at = CURRENT_TIMESTAMP 
     WHERE id = NEW.user_id;
@@ -119,7 +235,7 @@ $$ language 'plpgsql';
 
 -- Trigger to update user activity when note is created/updated
 CREATE TRIGGER update_user_activity_on_note_change
-    AFTER INSERT OR UPDATE ON notes
+    AFTER INSERT OR UPDATE OF title, content, content_hash, visibility, code_language, deleted_at ON notes
     FOR EACH ROW
     EXECUTE FUNCTION update_user_activity();
 
@@ -127,6 +243,7 @@ CREATE TRIGGER update_user_activity_on_note_change
 -- VIEWS
 -- ==============================================
 
+-- Bodies live in note_contents (possibly compressed), so the views carry the stripped plain_text
 -- View for active (non-deleted) notes
 CREATE OR REPLACE VIEW active_notes AS
 SELECT 
@@ -134,7 +251,7 @@ SELECT
     n.user_id,
     u.username,
     n.title,
-    n.content,
+    n.plain_text,
     n.visibility,
     n.code_language,
     n.created_at,
@@ -150,7 +267,7 @@ SELECT
     n.user_id,
     u.username,
     n.title,
-    n.content,
+    n.plain_text,
     n.code_language,
     n.created_at,
     n.updated_at
@@ -166,7 +283,7 @@ SELECT
     n.user_id,
     u.username,
     n.title,
-    n.content,
+    n.plain_text,
     n.visibility,
     n.code_language,
     n.created_at,
@@ -179,7 +296,7 @@ WHERE n.deleted_at IS NULL;
 -- STORED PROCEDURES
 -- ==============================================
 
--- Function to search notes with full-text search
+-- Function to search notes with full-text search, over plain_text (inline content until enriched)
 CREATE OR REPLACE FUNCTION search_notes(
     search_query TEXT DEFAULT NULL,
     user_filter UUID DEFAULT NULL,
@@ -193,7 +310,7 @@ RETURNS TABLE (
     user_id UUID,
     username VARCHAR(50),
     title VARCHAR(255),
-    content TEXT,
+    plain_text TEXT,
     visibility visibility_enum,
     code_language VARCHAR(50),
     created_at TIMESTAMP,
@@ -207,7 +324,7 @@ BEGIN
         n.user_id,
         u.username,
         n.title,
-        n.content,
+        n.plain_text,
         n.visibility,
         n.code_language,
         n.created_at,
@@ -215,7 +332,7 @@ BEGIN
         CASE 
             WHEN search_query IS NOT NULL THEN 
                 ts_rank(
-                    to_tsvector('english', COALESCE(n.title, '') || ' ' || COALESCE(n.content, '')),
+                    to_tsvector('english', COALESCE(n.title, '') || ' ' || COALESCE(n.plain_text, n.content, '')),
                     plainto_tsquery('english', search_query)
                 )
             ELSE 0
@@ -227,7 +344,7 @@ BEGIN
       AND (visibility_filter IS NULL OR n.visibility = visibility_filter)
       AND (language_filter IS NULL OR n.code_language = language_filter)
       AND (search_query IS NULL OR 
-           to_tsvector('english', COALESCE(n.title, '') || ' ' || COALESCE(n.content, '')) 
+           to_tsvector('english', COALESCE(n.title, '') || ' ' || COALESCE(n.plain_text, n.content, '')) 
            @@ plainto_tsquery('english', search_query))
     ORDER BY 
         CASE WHEN search_query IS NOT NULL THEN rank END DESC,
@@ -1,48 +1,97 @@
 package com.scrib.gatewayservice.config;
 
+import com.scrib.gatewayservice.filter.InFlightLimitFilter;
+import com.scrib.gatewayservice.filter.StickySessionFilter;
+import com.scrib.gatewayservice.resilience.GatewayResilienceProperties;
+import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.Buildable;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.cloud.gateway.route.builder.UriSpec;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+
 @Configuration
 public class GatewayConfig {
 
+    // Upstream statuses that count against a backend's circuit breaker (application 500s do not)
+    private static final Set<String> BACKEND_FAILURE_STATUSES = Set.of("502", "503", "504");
+
+    // Backends are resolved per request by the load balancer (see LoadBalancerConfig); each backend's
+    // routes share its timeouts, in-flight limit and circuit breaker (scrib.gateway.resilience)
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
+    public RouteLocator customRouteLocator(RouteLocatorBuilder builder, StickySessionFilter stickySessionFilter,
+                                           InFlightLimitFilter inFlightLimitFilter,
+                                           GatewayResilienceProperties resilienceProperties) {
+        BackendPolicies policies = new BackendPolicies(inFlightLimitFilter, resilienceProperties);
         return builder.routes()
                 // User Service routes
-                .route("user-service-exact", r -> r
-                        .path("/api/users")
-                        .filters(f -> f.rewritePath("/api/users", "/users"))
-                        .uri("http://localhost:9201"))
-                .route("user-service", r -> r
-                        .path("/api/users/**")
-                        .filters(f -> f.rewritePath("/api/users/(?<remaining>.*)", "/users/${remaining}"))
-                        .uri("http://localhost:9201"))
+                .route("user-service-exact", r -> policies.route(r.path("/api/users"), "user-service",
+                        f -> f.rewritePath("/api/users", "/users")))
+                .route("user-service", r -> policies.route(r.path("/api/users/**"), "user-service",
+                        f -> f.rewritePath("/api/users/(?<remaining>.*)", "/users/${remaining}")))
                 
                 // Note Service routes
-                .route("note-service-exact", r -> r
-                        .path("/api/notes")
-                        .filters(f -> f.rewritePath("/api/notes", "/notes"))
-                        .uri("http://localhost:9202"))
-                .route("note-service", r -> r
-                        .path("/api/notes/**")
-                        .filters(f -> f.rewritePath("/api/notes/(?<remaining>.*)", "/notes/${remaining}"))
-                        .uri("http://localhost:9202"))
+                .route("note-service-exact", r -> policies.route(r.path("/api/notes"), "note-service",
+                        f -> f.rewritePath("/api/notes", "/notes")))
+                .route("note-service", r -> policies.route(r.path("/api/notes/**"), "note-service",
+                        f -> f.rewritePath("/api/notes/(?<remaining>.*)", "/notes/${remaining}")))
                 
-                // WebSocket routes
+                // WebSocket routes: SockJS spreads one session over several requests, so keep them on one instance.
+                // Sessions are long-lived, so no response timeout or circuit breaker here
                 .route("note-websocket", r -> r
                         .path("/ws/**")
-                        .uri("http://localhost:9202"))
+                        .filters(f -> f.filter(stickySessionFilter.apply(webSocketSession())))
+                        .uri("lb://note-service"))
                 
                 // Search Service routes
-                .route("search-service", r -> r
-                        .path("/api/search/**")
-                        .filters(f -> f.rewritePath("/api/search/(?<remaining>.*)", "/search/${remaining}"))
-                        .uri("http://localhost:9203"))
+                .route("search-service", r -> policies.route(r.path("/api/search/**"), "search-service",
+                        f -> f.rewritePath("/api/search/(?<remaining>.*)", "/search/${remaining}")))
                 
                 .build();
     }
 
+    private static StickySessionFilter.Config webSocketSession() {
+        StickySessionFilter.Config config = new StickySessionFilter.Config();
+        config.setPath("/ws");
+        return config;
+    }
+
+    private static final class BackendPolicies {
+
+        private final InFlightLimitFilter inFlightLimitFilter;
+        private final GatewayResilienceProperties resilienceProperties;
+
+        private BackendPolicies(InFlightLimitFilter inFlightLimitFilter,
+                                GatewayResilienceProperties resilienceProperties) {
+            this.inFlightLimitFilter = inFlightLimitFilter;
+            this.resilienceProperties = resilienceProperties;
+        }
+
+        // Bulkhead first, so requests it turns away never count against the circuit breaker
+        Buildable<Route> route(UriSpec route, String serviceId, Function<GatewayFilterSpec, GatewayFilterSpec> rewrite) {
+            GatewayResilienceProperties.Policy policy = resilienceProperties.policy(serviceId);
+            InFlightLimitFilter.Config bulkhead = new InFlightLimitFilter.Config();
+            bulkhead.setName(serviceId);
+            bulkhead.setMaxInFlight(policy.getMaxInFlight());
+            return route
+                    .metadata(CONNECT_TIMEOUT_ATTR, (int) policy.getConnectTimeout().toMillis())
+                    .metadata(RESPONSE_TIMEOUT_ATTR, policy.getResponseTimeout().toMillis())
+                    .filters(f -> rewrite.apply(f)
+                            .filter(inFlightLimitFilter.apply(bulkhead))
+                            .circuitBreaker(breaker -> breaker
+                                    .setName(serviceId)
+                                    .setFallbackUri("forward:/fallback/" + serviceId)
+                                    .setStatusCodes(BACKEND_FAILURE_STATUSES)))
+                    .uri("lb://" + serviceId);
+        }
+    }
+
 }
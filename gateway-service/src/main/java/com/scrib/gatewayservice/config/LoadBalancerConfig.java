@@ -0,0 +1,20 @@
+package com.scrib.gatewayservice.config;
+
+import com.scrib.gatewayservice.loadbalancer.GatewayDiscoveryProperties;
+import com.scrib.gatewayservice.loadbalancer.ScribLoadBalancerConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Every lb:// route gets the health-checked, load-aware balancer from ScribLoadBalancerConfiguration
+@Configuration
+@LoadBalancerClients(defaultConfiguration = ScribLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    @ConfigurationProperties("scrib.gateway.discovery")
+    public GatewayDiscoveryProperties gatewayDiscoveryProperties() {
+        return new GatewayDiscoveryProperties();
+    }
+}
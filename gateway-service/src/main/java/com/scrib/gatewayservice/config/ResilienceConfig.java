@@ -0,0 +1,50 @@
+package com.scrib.gatewayservice.config;
+
+import com.scrib.gatewayservice.resilience.GatewayResilienceProperties;
+import com.scrib.gatewayservice.resilience.LastGoodResponseCache;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    @ConfigurationProperties("scrib.gateway.resilience")
+    public GatewayResilienceProperties gatewayResilienceProperties() {
+        return new GatewayResilienceProperties();
+    }
+
+    @Bean
+    public LastGoodResponseCache lastGoodResponseCache(GatewayResilienceProperties resilienceProperties) {
+        GatewayResilienceProperties.Fallback fallback = resilienceProperties.getFallback();
+        return new LastGoodResponseCache(fallback.getMaxBytes(), fallback.getMaxEntryBytes());
+    }
+
+    // One breaker per backend, named by service id; its time limit sits just above the route's response timeout
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> circuitBreakerCustomizer(
+            GatewayResilienceProperties resilienceProperties) {
+        return factory -> resilienceProperties.getServices().forEach((serviceId, policy) -> factory.configure(
+                builder -> builder
+                        .circuitBreakerConfig(CircuitBreakerConfig.custom()
+                                .slidingWindowSize(policy.getSlidingWindowSize())
+                                .minimumNumberOfCalls(policy.getMinimumCalls())
+                                .failureRateThreshold(policy.getFailureRateThreshold())
+                                .slowCallRateThreshold(policy.getFailureRateThreshold())
+                                .slowCallDurationThreshold(policy.getSlowCallThreshold())
+                                .waitDurationInOpenState(policy.getOpenDuration())
+                                .permittedNumberOfCallsInHalfOpenState(5)
+                                .build())
+                        .timeLimiterConfig(TimeLimiterConfig.custom()
+                                .timeoutDuration(policy.getResponseTimeout().plus(Duration.ofMillis(500)))
+                                .build()),
+                serviceId));
+    }
+}
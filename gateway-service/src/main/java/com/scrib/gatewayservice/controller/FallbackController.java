@@ -0,0 +1,53 @@
+package com.scrib.gatewayservice.controller;
+
+import com.scrib.gatewayservice.resilience.LastGoodResponseCache;
+import com.scrib.gatewayservice.resilience.LastGoodResponseFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Target of the routes' circuit breaker fallbacks, reached when a backend call times out, fails or
+ * meets an open circuit. Cacheable public GETs get their last good response (marked with
+ * {@code X-Scrib-Stale}); everything else gets a fast 503.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+    
+    @Autowired
+    private LastGoodResponseCache cache;
+    
+    @RequestMapping("/{service}")
+    public ResponseEntity<?> fallback(@PathVariable("service") String service, ServerWebExchange exchange) {
+        String key = exchange.getAttribute(LastGoodResponseFilter.CACHE_KEY_ATTR);
+        LastGoodResponseCache.CachedResponse cached = key != null ? cache.get(key) : null;
+        if (cached != null) {
+            exchange.getAttributes().put(LastGoodResponseFilter.SERVED_STALE_ATTR, Boolean.TRUE);
+            return ResponseEntity.ok()
+                    .contentType(cached.getContentType() != null ? cached.getContentType() : MediaType.APPLICATION_JSON)
+                    .header("X-Scrib-Stale", DateTimeFormatter.ISO_INSTANT.format(cached.getStoredAt()))
+                    .body(cached.getBody());
+        }
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        body.put("message", service + " is temporarily unavailable, please retry shortly");
+        body.put("timestamp", LocalDateTime.now().withNano(0).toString());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,64 @@
+package com.scrib.gatewayservice.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead: caps the requests in flight to one backend. Beyond the cap requests are refused with
+ * 503 at once rather than queueing for connections, so a slow backend holds a bounded share of the
+ * gateway and the other routes keep flowing.
+ */
+@Component
+public class InFlightLimitFilter extends AbstractGatewayFilterFactory<InFlightLimitFilter.Config> {
+    
+    // One counter per bulkhead name, shared by every route that uses it
+    private final ConcurrentMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    
+    public InFlightLimitFilter() {
+        super(Config.class);
+    }
+    
+    @Override
+    public GatewayFilter apply(Config config) {
+        AtomicInteger counter = inFlight.computeIfAbsent(config.getName(), name -> new AtomicInteger());
+        return (exchange, chain) -> {
+            if (counter.incrementAndGet() > config.getMaxInFlight()) {
+                counter.decrementAndGet();
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                response.getHeaders().add(HttpHeaders.RETRY_AFTER, "1");
+                return response.setComplete();
+            }
+            return chain.filter(exchange).doFinally(signal -> counter.decrementAndGet());
+        };
+    }
+    
+    public static class Config {
+        private String name;
+        private int maxInFlight = 200;
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+        
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.scrib.gatewayservice.filter;
+
+import com.scrib.gatewayservice.loadbalancer.InstanceLoadTracker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Pins a client to the backend instance that served it by setting a cookie the load balancer
+ * honours (see LeastLoadedLoadBalancer). The cookie is scoped to the route's path, so only that
+ * route's requests are pinned.
+ */
+@Component
+public class StickySessionFilter extends AbstractGatewayFilterFactory<StickySessionFilter.Config> {
+    
+    @Value("${scrib.gateway.load-balancer.sticky-cookie:SCRIB_INSTANCE}")
+    private String cookieName;
+    
+    public StickySessionFilter() {
+        super(Config.class);
+    }
+    
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            exchange.getResponse().beforeCommit(() -> {
+                Response<ServiceInstance> chosen = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+                if (chosen != null && chosen.hasServer()) {
+                    String stickyId = InstanceLoadTracker.stickyId(chosen.getServer());
+                    HttpCookie current = exchange.getRequest().getCookies().getFirst(cookieName);
+                    // Re-issued when the pinned instance went away and the request landed elsewhere
+                    if (current == null || !stickyId.equals(current.getValue())) {
+                        exchange.getResponse().addCookie(ResponseCookie.from(cookieName, stickyId)
+                                .path(config.getPath())
+                                .httpOnly(true)
+                                .build());
+                    }
+                }
+                return Mono.empty();
+            });
+            return chain.filter(exchange);
+        };
+    }
+    
+    public static class Config {
+        private String path = "/";
+        
+        public String getPath() {
+            return path;
+        }
+        
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+}
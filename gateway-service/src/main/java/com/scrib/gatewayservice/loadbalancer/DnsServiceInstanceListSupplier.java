@@ -0,0 +1,68 @@
+package com.scrib.gatewayservice.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Instances are every address a DNS name resolves to: a headless Service in Kubernetes (one record
+ * per ready pod) or a scaled service in docker compose. Re-resolved every refresh interval; when a
+ * lookup fails the previous list is kept.
+ */
+public class DnsServiceInstanceListSupplier implements ServiceInstanceListSupplier {
+
+    private static final Logger logger = LoggerFactory.getLogger(DnsServiceInstanceListSupplier.class);
+
+    private final String serviceId;
+    private final String hostname;
+    private final int port;
+    private final Flux<List<ServiceInstance>> instances;
+
+    public DnsServiceInstanceListSupplier(String serviceId, String hostname, int port, Duration refreshInterval) {
+        this.serviceId = serviceId;
+        this.hostname = hostname;
+        this.port = port;
+        this.instances = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromCallable(this::resolve)
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .onErrorResume(UnknownHostException.class, e -> {
+                            logger.warn("Could not resolve {} for {}: {}", hostname, serviceId, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .distinctUntilChanged()
+                .replay(1)
+                .refCount();
+    }
+
+    @Override
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return instances;
+    }
+
+    private List<ServiceInstance> resolve() throws UnknownHostException {
+        return Arrays.stream(InetAddress.getAllByName(hostname))
+                .map(InetAddress::getHostAddress)
+                .sorted(Comparator.naturalOrder())
+                .map(address -> (ServiceInstance) new DefaultServiceInstance(
+                        serviceId + "-" + address, serviceId, address, port, false))
+                .toList();
+    }
+}
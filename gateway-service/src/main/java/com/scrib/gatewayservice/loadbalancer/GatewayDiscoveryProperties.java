@@ -0,0 +1,74 @@
+package com.scrib.gatewayservice.loadbalancer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Where the gateway finds backend instances ({@code scrib.gateway.discovery}). In {@code static} mode
+ * they come from {@code spring.cloud.discovery.client.simple.instances}; in {@code dns} mode from
+ * resolving {@code name-template} (with {@code %s} replaced by the service id) to all its addresses.
+ */
+public class GatewayDiscoveryProperties {
+
+    public enum Mode {
+        STATIC, DNS
+    }
+
+    private Mode mode = Mode.STATIC;
+    private Dns dns = new Dns();
+
+    // Getters and Setters
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Dns getDns() {
+        return dns;
+    }
+
+    public void setDns(Dns dns) {
+        this.dns = dns;
+    }
+
+    public static class Dns {
+
+        private String nameTemplate = "%s";
+        private Duration refreshInterval = Duration.ofSeconds(10);
+        // Service id -> port the instances listen on
+        private Map<String, Integer> ports = new LinkedHashMap<>();
+
+        public String hostname(String serviceId) {
+            return String.format(nameTemplate, serviceId);
+        }
+
+        // Getters and Setters
+        public String getNameTemplate() {
+            return nameTemplate;
+        }
+
+        public void setNameTemplate(String nameTemplate) {
+            this.nameTemplate = nameTemplate;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Map<String, Integer> getPorts() {
+            return ports;
+        }
+
+        public void setPorts(Map<String, Integer> ports) {
+            this.ports = ports;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.scrib.gatewayservice.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-flight requests and a peak-sensitive moving average of response time per backend instance,
+ * as seen from this gateway. Latency spikes are taken at once and fade over {@code decay-time}; an
+ * instance that stops getting traffic also fades back towards zero so it is tried again.
+ * <p>
+ * Entries of instances that have had nothing in flight for {@link #IDLE_DECAY_PERIODS} decay times
+ * are dropped (their latency has faded out anyway), so pod IPs that rollouts retire don't pile up.
+ */
+@Component
+public class InstanceLoadTracker {
+
+    private static final int IDLE_DECAY_PERIODS = 6;
+
+    private final ConcurrentMap<String, InstanceLoad> loads = new ConcurrentHashMap<>();
+    // At most one sweep per decay time, run by whichever request comes first
+    private final AtomicLong nextSweepAt = new AtomicLong(System.nanoTime());
+
+    @Value("${scrib.gateway.load-balancer.decay-time:10s}")
+    private Duration decayTime;
+
+    @Value("${scrib.gateway.load-balancer.failure-penalty:1s}")
+    private Duration failurePenalty;
+
+    public static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    // Opaque per-instance id handed to clients in the sticky-session cookie
+    public static String stickyId(ServiceInstance instance) {
+        return Integer.toHexString(key(instance).hashCode());
+    }
+
+    public void started(ServiceInstance instance) {
+        long now = System.nanoTime();
+        // Atomic with the sweep's removal, so a request never lands on an entry being dropped
+        loads.compute(key(instance), (key, load) -> {
+            InstanceLoad current = load != null ? load : new InstanceLoad();
+            current.inFlight.incrementAndGet();
+            current.activeAt = now;
+            return current;
+        });
+        sweepIdle(now);
+    }
+
+    // latencyNanos < 0 when the exchange has no meaningful latency (e.g. a WebSocket session)
+    public void finished(ServiceInstance instance, long latencyNanos, boolean failed) {
+        InstanceLoad load = loads.get(key(instance));
+        if (load == null) {
+            return;
+        }
+        load.inFlight.decrementAndGet();
+        if (failed) {
+            load.record(Math.max(latencyNanos, failurePenalty.toNanos()), decayTime.toNanos());
+        } else if (latencyNanos >= 0) {
+            load.record(latencyNanos, decayTime.toNanos());
+        }
+    }
+
+    // Expected wait for one more request: latency times the queue it would join; lower is better
+    public double cost(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        if (load == null) {
+            return 0;
+        }
+        return load.latency(decayTime.toNanos()) * (load.inFlight.get() + 1);
+    }
+
+    public int inFlight(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        return load == null ? 0 : load.inFlight.get();
+    }
+
+    private void sweepIdle(long now) {
+        long next = nextSweepAt.get();
+        if (now - next < 0 || !nextSweepAt.compareAndSet(next, now + decayTime.toNanos())) {
+            return;
+        }
+        long idleNanos = decayTime.toNanos() * IDLE_DECAY_PERIODS;
+        for (String key : loads.keySet()) {
+            loads.computeIfPresent(key, (k, load) ->
+                    load.inFlight.get() == 0 && now - load.lastActiveAt() > idleNanos ? null : load);
+        }
+    }
+
+    private static final class InstanceLoad {
+
+        private static final double MIN_LATENCY_NANOS = 1_000_000;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long activeAt = System.nanoTime();
+        private boolean sampled;
+        private double latencyNanos;
+        private long updatedAt;
+
+        synchronized void record(long sampleNanos, long decayNanos) {
+            long now = System.nanoTime();
+            if (!sampled || sampleNanos > latencyNanos) {
+                latencyNanos = sampleNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - updatedAt) / decayNanos);
+                latencyNanos = latencyNanos * weight + sampleNanos * (1 - weight);
+            }
+            sampled = true;
+            updatedAt = now;
+        }
+
+        // Last request start or latency sample
+        synchronized long lastActiveAt() {
+            return sampled && updatedAt - activeAt > 0 ? updatedAt : activeAt;
+        }
+
+        // Floor of 1ms so in-flight requests still count before the first sample
+        synchronized double latency(long decayNanos) {
+            if (!sampled) {
+                return MIN_LATENCY_NANOS;
+            }
+            double idleWeight = Math.exp(-(double) (System.nanoTime() - updatedAt) / decayNanos);
+            return Math.max(latencyNanos * idleWeight, MIN_LATENCY_NANOS);
+        }
+    }
+}
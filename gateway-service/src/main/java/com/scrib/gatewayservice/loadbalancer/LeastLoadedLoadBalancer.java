@@ -0,0 +1,90 @@
+package com.scrib.gatewayservice.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks two healthy instances at random and sends the request to the one with the lower expected
+ * wait (latency x in-flight, see {@link InstanceLoadTracker}). Comparing two random candidates rather
+ * than always taking the global minimum keeps every gateway from piling onto the same instance.
+ * Requests carrying the sticky-session cookie go back to their instance while it is healthy.
+ */
+public class LeastLoadedLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeastLoadedLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final String serviceId;
+    private final InstanceLoadTracker loadTracker;
+    private final String stickyCookie;
+
+    public LeastLoadedLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> suppliers, String serviceId,
+                                   InstanceLoadTracker loadTracker, String stickyCookie) {
+        this.suppliers = suppliers;
+        this.serviceId = serviceId;
+        this.loadTracker = loadTracker;
+        this.stickyCookie = stickyCookie;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> choose(instances, request));
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances, Request request) {
+        if (instances.isEmpty()) {
+            logger.warn("No healthy instances of {}", serviceId);
+            return new EmptyResponse();
+        }
+        ServiceInstance sticky = stickyInstance(instances, request);
+        if (sticky != null) {
+            return new DefaultResponse(sticky);
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(loadTracker.cost(a) <= loadTracker.cost(b) ? a : b);
+    }
+
+    private ServiceInstance stickyInstance(List<ServiceInstance> instances, Request request) {
+        if (!(request.getContext() instanceof RequestDataContext context)
+                || context.getClientRequest() == null
+                || context.getClientRequest().getCookies() == null) {
+            return null;
+        }
+        String stickyId = context.getClientRequest().getCookies().getFirst(stickyCookie);
+        if (stickyId == null) {
+            return null;
+        }
+        for (ServiceInstance instance : instances) {
+            if (stickyId.equals(InstanceLoadTracker.stickyId(instance))) {
+                return instance;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.scrib.gatewayservice.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplierBuilder;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load balancer beans, created in each service's own child context by
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)}. Deliberately not a
+ * {@code @Configuration}, so component scanning never registers these beans globally.
+ */
+public class ScribLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                   Environment environment,
+                                                                   GatewayDiscoveryProperties discoveryProperties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        ServiceInstanceListSupplierBuilder builder = ServiceInstanceListSupplier.builder();
+        if (discoveryProperties.getMode() == GatewayDiscoveryProperties.Mode.DNS) {
+            GatewayDiscoveryProperties.Dns dns = discoveryProperties.getDns();
+            Integer port = dns.getPorts().get(serviceId);
+            if (port == null) {
+                throw new IllegalStateException("No scrib.gateway.discovery.dns.ports entry for " + serviceId);
+            }
+            builder.withBase(new DnsServiceInstanceListSupplier(serviceId, dns.hostname(serviceId), port,
+                    dns.getRefreshInterval()));
+        } else {
+            builder.withDiscoveryClient();
+        }
+        // Instances failing spring.cloud.loadbalancer.health-check are left out until they pass again
+        return builder.withHealthChecks().build(context);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(
+            Environment environment, LoadBalancerClientFactory clientFactory, InstanceLoadTracker loadTracker,
+            @Value("${scrib.gateway.load-balancer.sticky-cookie:SCRIB_INSTANCE}") String stickyCookie) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LeastLoadedLoadBalancer(clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, loadTracker, stickyCookie);
+    }
+}
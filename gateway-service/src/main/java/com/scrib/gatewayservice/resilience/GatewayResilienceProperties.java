@@ -0,0 +1,150 @@
+package com.scrib.gatewayservice.resilience;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-backend resilience policies ({@code scrib.gateway.resilience}), keyed by service id. Every
+ * route to a backend shares its policy: one circuit breaker, one in-flight limit, one timeout.
+ */
+public class GatewayResilienceProperties {
+
+    private Map<String, Policy> services = new LinkedHashMap<>();
+    private Fallback fallback = new Fallback();
+
+    public Policy policy(String serviceId) {
+        return services.getOrDefault(serviceId, new Policy());
+    }
+
+    // Getters and Setters
+    public Map<String, Policy> getServices() {
+        return services;
+    }
+
+    public void setServices(Map<String, Policy> services) {
+        this.services = services;
+    }
+
+    public Fallback getFallback() {
+        return fallback;
+    }
+
+    public void setFallback(Fallback fallback) {
+        this.fallback = fallback;
+    }
+
+    public static class Policy {
+
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        private int maxInFlight = 200;
+        // Circuit breaker: opens when failure-rate-threshold percent of the last sliding-window-size
+        // calls failed or were slower than slow-call-threshold, and probes again after open-duration
+        private int slidingWindowSize = 50;
+        private int minimumCalls = 20;
+        private float failureRateThreshold = 50;
+        private Duration slowCallThreshold = Duration.ofSeconds(2);
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        // Getters and Setters
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getSlowCallThreshold() {
+            return slowCallThreshold;
+        }
+
+        public void setSlowCallThreshold(Duration slowCallThreshold) {
+            this.slowCallThreshold = slowCallThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+    }
+
+    public static class Fallback {
+
+        // Public GETs whose last successful response is kept to answer while the backend is failing
+        private List<String> cacheablePaths = new ArrayList<>();
+        private long maxBytes = 32 * 1024 * 1024;
+        private int maxEntryBytes = 512 * 1024;
+
+        // Getters and Setters
+        public List<String> getCacheablePaths() {
+            return cacheablePaths;
+        }
+
+        public void setCacheablePaths(List<String> cacheablePaths) {
+            this.cacheablePaths = cacheablePaths;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public int getMaxEntryBytes() {
+            return maxEntryBytes;
+        }
+
+        public void setMaxEntryBytes(int maxEntryBytes) {
+            this.maxEntryBytes = maxEntryBytes;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.scrib.gatewayservice.resilience;
+
+import org.springframework.http.MediaType;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// LRU of the latest 200 response per public GET URL, bounded by total body bytes
+public class LastGoodResponseCache {
+
+    private final Map<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private long totalBytes;
+
+    public LastGoodResponseCache(long maxBytes, int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public synchronized void put(String key, MediaType contentType, byte[] body) {
+        if (body.length > maxEntryBytes) {
+            return;
+        }
+        CachedResponse previous = entries.put(key, new CachedResponse(contentType, body, Instant.now()));
+        if (previous != null) {
+            totalBytes -= previous.body.length;
+        }
+        totalBytes += body.length;
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().body.length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+    public static final class CachedResponse {
+        private final MediaType contentType;
+        private final byte[] body;
+        private final Instant storedAt;
+
+        private CachedResponse(MediaType contentType, byte[] body, Instant storedAt) {
+            this.contentType = contentType;
+            this.body = body;
+            this.storedAt = storedAt;
+        }
+
+        public MediaType getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public Instant getStoredAt() {
+            return storedAt;
+        }
+    }
+}
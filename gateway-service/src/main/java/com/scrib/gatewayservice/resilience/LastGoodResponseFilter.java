@@ -0,0 +1,91 @@
+package com.scrib.gatewayservice.resilience;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Remembers the last successful response of each cacheable public GET
+ * ({@code scrib.gateway.resilience.fallback.cacheable-paths}) so the circuit breaker fallback can
+ * serve it while the backend is failing. Requests naming a user are never cached.
+ */
+@Component
+public class LastGoodResponseFilter implements GlobalFilter, Ordered {
+
+    // Set on cacheable requests; read by FallbackController after the request was re-routed
+    public static final String CACHE_KEY_ATTR = LastGoodResponseFilter.class.getName() + ".cacheKey";
+    // Set when the response is itself a cached copy, which must not be stored again as fresh
+    public static final String SERVED_STALE_ATTR = LastGoodResponseFilter.class.getName() + ".servedStale";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private LastGoodResponseCache cache;
+
+    @Autowired
+    private GatewayResilienceProperties resilienceProperties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!isCacheable(request)) {
+            return chain.filter(exchange);
+        }
+        String key = request.getURI().getRawPath()
+                + (request.getURI().getRawQuery() != null ? "?" + request.getURI().getRawQuery() : "");
+        exchange.getAttributes().put(CACHE_KEY_ATTR, key);
+
+        ServerHttpResponse response = exchange.getResponse();
+        ServerHttpResponseDecorator recording = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (getStatusCode() != HttpStatus.OK || exchange.getAttribute(SERVED_STALE_ATTR) != null) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(body).flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    cache.put(key, getHeaders().getContentType(), bytes);
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+        return chain.filter(exchange.mutate().response(recording).build());
+    }
+
+    private boolean isCacheable(ServerHttpRequest request) {
+        if (request.getMethod() != HttpMethod.GET
+                || request.getQueryParams().containsKey("userId")
+                || request.getHeaders().containsKey("Authorization")) {
+            return false;
+        }
+        String path = request.getURI().getPath();
+        for (String pattern : resilienceProperties.getFallback().getCacheablePaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Must wrap the response before NettyWriteResponseFilter writes the backend's body into it
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
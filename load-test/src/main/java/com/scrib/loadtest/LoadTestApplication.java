@@ -0,0 +1,168 @@
+package com.scrib.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scrib.loadtest.benchmark.ContentStoreBenchmark;
+import com.scrib.loadtest.client.ScribClient;
+import com.scrib.loadtest.metrics.LoadTestReport;
+import com.scrib.loadtest.metrics.MetricsRegistry;
+import com.scrib.loadtest.scenario.AutoSaveBurstScenario;
+import com.scrib.loadtest.scenario.FeedBrowsingScenario;
+import com.scrib.loadtest.scenario.Scenario;
+import com.scrib.loadtest.scenario.SearchScenario;
+import com.scrib.loadtest.scenario.UserSignupScenario;
+import com.scrib.loadtest.scenario.VirtualUser;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load driver. Each scenario gets a fixed number of virtual users that loop
+ * until the test duration elapses; samples taken during warmup are discarded.
+ *
+ * <pre>
+ * java -jar load-test/target/load-test-1.0.0.jar \
+ *     --base-url=http://localhost:9200 --duration=60s --warmup=10s \
+ *     --scenarios=feed:8,search:4,autosave:2,signup:1 --report=target/load-test-report.json
+ * </pre>
+ *
+ * <p>{@code content-benchmark} as the first argument runs {@link ContentStoreBenchmark} instead.
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("content-benchmark")) {
+            ContentStoreBenchmark.run(parseOptions(Arrays.copyOfRange(args, 1, args.length)));
+            return;
+        }
+        Map<String, String> options = parseOptions(args);
+        URI baseUri = URI.create(options.getOrDefault("base-url", "http://localhost:9200"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "60s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        Duration timeout = parseDuration(options.getOrDefault("timeout", "10s"));
+        Duration thinkTime = parseDuration(options.getOrDefault("think-time", "0ms"));
+        int seedNotes = Integer.parseInt(options.getOrDefault("seed-notes", "5"));
+        int burstSize = Integer.parseInt(options.getOrDefault("burst-size", "10"));
+        Map<String, Integer> scenarioThreads = parseScenarios(
+                options.getOrDefault("scenarios", "feed:8,search:4,autosave:2,signup:1"));
+
+        Map<String, Scenario> available = new HashMap<>();
+        for (Scenario scenario : List.of(new FeedBrowsingScenario(), new SearchScenario(),
+                new AutoSaveBurstScenario(burstSize), new UserSignupScenario())) {
+            available.put(scenario.name(), scenario);
+        }
+
+        MetricsRegistry metrics = new MetricsRegistry();
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        ScribClient client = new ScribClient(httpClient, baseUri, objectMapper, metrics, timeout);
+
+        int totalThreads = scenarioThreads.values().stream().mapToInt(Integer::intValue).sum();
+        ExecutorService executor = Executors.newFixedThreadPool(totalThreads);
+        long deadline = System.nanoTime() + warmup.toNanos() + duration.toNanos();
+        List<Future<?>> workers = new ArrayList<>();
+        long seed = 0;
+
+        System.out.printf("Driving %s with %d virtual users for %s (+%s warmup)%n",
+                baseUri, totalThreads, duration, warmup);
+        for (Map.Entry<String, Integer> entry : scenarioThreads.entrySet()) {
+            Scenario scenario = available.get(entry.getKey());
+            if (scenario == null) {
+                throw new IllegalArgumentException("Unknown scenario: " + entry.getKey()
+                        + " (available: " + available.keySet() + ")");
+            }
+            for (int i = 0; i < entry.getValue(); i++) {
+                long userSeed = ++seed;
+                workers.add(executor.submit(() -> runVirtualUser(scenario, client, userSeed, timeout,
+                        thinkTime, seedNotes, deadline)));
+            }
+        }
+
+        Thread.sleep(warmup.toMillis());
+        metrics.startMeasuring();
+        long measureStart = System.nanoTime();
+
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        LoadTestReport report = new LoadTestReport(metrics.snapshot(),
+                Duration.ofNanos(System.nanoTime() - measureStart));
+        report.print(System.out);
+        if (options.containsKey("report")) {
+            report.writeJson(Path.of(options.get("report")));
+        }
+    }
+
+    private static void runVirtualUser(Scenario scenario, ScribClient client, long seed, Duration timeout,
+                                       Duration thinkTime, int seedNotes, long deadline) {
+        try (VirtualUser user = new VirtualUser(client, seed, timeout)) {
+            user.setUp(seedNotes);
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                scenario.iterate(user);
+                if (!thinkTime.isZero()) {
+                    Thread.sleep(thinkTime.toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.printf("Virtual user for scenario %s stopped: %s%n", scenario.name(), e.getMessage());
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int split = arg.indexOf('=');
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> parseScenarios(String spec) {
+        Map<String, Integer> scenarios = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] nameAndThreads = part.trim().split(":");
+            int threads = nameAndThreads.length > 1 ? Integer.parseInt(nameAndThreads[1]) : 1;
+            if (threads > 0) {
+                scenarios.put(nameAndThreads[0], threads);
+            }
+        }
+        return scenarios;
+    }
+
+    static Duration parseDuration(String value) {
+        String trimmed = value.trim().toLowerCase();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(trimmed));
+    }
+}
@@ -0,0 +1,245 @@
+package com.scrib.loadtest.benchmark;
+
+import com.scrib.common.content.ContentCodec;
+import com.scrib.loadtest.metrics.LatencyRecorder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Compares keeping note bodies inline in {@code notes.content} with the content-addressed,
+ * compressed {@code note_contents} store, over a synthetic corpus in which a share of notes are
+ * forks or template copies of others.
+ *
+ * <p>Without {@code --jdbc-url} only the in-process numbers (dedup ratio, compression ratio,
+ * encode/decode latency) are reported. With it, both layouts are loaded into throwaway
+ * {@code bench_*} tables and their on-disk size and metadata-only vs full-read latency compared.
+ *
+ * <pre>
+ * java -jar load-test/target/load-test-1.0.0.jar content-benchmark \
+ *     --notes=20000 --duplicate-ratio=0.3 --reads=2000 \
+ *     --jdbc-url=jdbc:postgresql://localhost:5432/scrib_db --jdbc-user=scrib_user --jdbc-password=scrib_password
+ * </pre>
+ */
+public class ContentStoreBenchmark {
+
+    private static final String[] SNIPPETS = {
+            "<pre><code class=\"language-java\">public class Service {\n    @Autowired\n    private Repository repository;\n\n"
+                    + "    public Optional&lt;Entity&gt; find(UUID id) {\n        return repository.findById(id);\n    }\n}</code></pre>",
+            "<pre><code class=\"language-python\">def handler(event, context):\n    for record in event['Records']:\n"
+                    + "        process(record['body'])\n    return {'status': 200}</code></pre>",
+            "<pre><code class=\"language-sql\">SELECT n.id, n.title FROM notes n WHERE n.deleted_at IS NULL\n"
+                    + "ORDER BY n.updated_at DESC LIMIT 20;</code></pre>",
+            "<p>Meeting notes: discussed the rollout plan, agreed to ship behind a flag and watch the error rate.</p>",
+            "<ul><li>Check connection pool saturation</li><li>Review slow query log</li><li>Update runbook</li></ul>"
+    };
+
+    private final Random random = new Random(42);
+
+    public static void run(Map<String, String> options) throws Exception {
+        new ContentStoreBenchmark().execute(options);
+    }
+
+    private void execute(Map<String, String> options) throws Exception {
+        int noteCount = Integer.parseInt(options.getOrDefault("notes", "20000"));
+        double duplicateRatio = Double.parseDouble(options.getOrDefault("duplicate-ratio", "0.3"));
+        int reads = Integer.parseInt(options.getOrDefault("reads", "2000"));
+
+        List<String> corpus = generateCorpus(noteCount, duplicateRatio);
+        Map<String, ContentCodec.Encoded> store = new LinkedHashMap<>();
+        LatencyRecorder encodeLatency = new LatencyRecorder("encode");
+        LatencyRecorder decodeLatency = new LatencyRecorder("decode");
+        long rawBytes = 0;
+        for (String content : corpus) {
+            rawBytes += content.getBytes(StandardCharsets.UTF_8).length;
+            long start = System.nanoTime();
+            ContentCodec.Encoded encoded = ContentCodec.encode(content);
+            encodeLatency.recordNanos(System.nanoTime() - start);
+            store.putIfAbsent(encoded.getHash(), encoded);
+        }
+        long distinctRawBytes = 0;
+        long storedBytes = 0;
+        int deflated = 0;
+        for (ContentCodec.Encoded encoded : store.values()) {
+            distinctRawBytes += encoded.getRawLength();
+            storedBytes += encoded.getBytes().length;
+            if (ContentCodec.DEFLATE.equals(encoded.getEncoding())) {
+                deflated++;
+            }
+            long start = System.nanoTime();
+            ContentCodec.decode(encoded.getEncoding(), encoded.getRawLength(), encoded.getBytes());
+            decodeLatency.recordNanos(System.nanoTime() - start);
+        }
+
+        System.out.printf("Corpus: %d notes, %d distinct bodies (%.1f%% deduplicated), %d deflated%n",
+                corpus.size(), store.size(), 100.0 * (corpus.size() - store.size()) / corpus.size(), deflated);
+        System.out.printf("Bytes: %,d inline -> %,d distinct -> %,d stored (%.2fx overall)%n",
+                rawBytes, distinctRawBytes, storedBytes, (double) rawBytes / Math.max(1, storedBytes));
+        printLatency(encodeLatency);
+        printLatency(decodeLatency);
+
+        if (options.containsKey("jdbc-url")) {
+            try (Connection connection = DriverManager.getConnection(options.get("jdbc-url"),
+                    options.getOrDefault("jdbc-user", "scrib_user"),
+                    options.getOrDefault("jdbc-password", "scrib_password"))) {
+                compareInPostgres(connection, corpus, store, reads);
+            }
+        }
+    }
+
+    // Roughly: half code notes, half prose, with duplicateRatio of them copied from an earlier note
+    private List<String> generateCorpus(int noteCount, double duplicateRatio) {
+        List<String> corpus = new ArrayList<>(noteCount);
+        for (int i = 0; i < noteCount; i++) {
+            if (!corpus.isEmpty() && random.nextDouble() < duplicateRatio) {
+                corpus.add(corpus.get(random.nextInt(corpus.size())));
+                continue;
+            }
+            StringBuilder body = new StringBuilder("<h1>Note ").append(i).append("</h1>");
+            int blocks = 1 + random.nextInt(random.nextInt(10) < 8 ? 4 : 60);
+            for (int b = 0; b < blocks; b++) {
+                body.append(SNIPPETS[random.nextInt(SNIPPETS.length)]);
+                body.append("<p>").append(Long.toHexString(random.nextLong())).append("</p>");
+            }
+            corpus.add(body.toString());
+        }
+        return corpus;
+    }
+
+    private void compareInPostgres(Connection connection, List<String> corpus,
+                                   Map<String, ContentCodec.Encoded> store, int reads) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_inline_notes, bench_store_notes, bench_note_contents");
+            statement.execute("CREATE TABLE bench_inline_notes (id UUID PRIMARY KEY, title VARCHAR(255), "
+                    + "content TEXT, updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+            statement.execute("CREATE TABLE bench_note_contents (hash VARCHAR(64) PRIMARY KEY, "
+                    + "encoding VARCHAR(16) NOT NULL, raw_length INTEGER NOT NULL, body BYTEA NOT NULL)");
+            statement.execute("ALTER TABLE bench_note_contents ALTER COLUMN body SET STORAGE EXTERNAL");
+            statement.execute("CREATE TABLE bench_store_notes (id UUID PRIMARY KEY, title VARCHAR(255), "
+                    + "content_hash VARCHAR(64) REFERENCES bench_note_contents(hash), "
+                    + "updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        }
+        connection.commit();
+
+        List<UUID> ids = new ArrayList<>(corpus.size());
+        try (PreparedStatement inline = connection.prepareStatement(
+                     "INSERT INTO bench_inline_notes (id, title, content) VALUES (?, ?, ?)");
+             PreparedStatement contents = connection.prepareStatement(
+                     "INSERT INTO bench_note_contents (hash, encoding, raw_length, body) VALUES (?, ?, ?, ?)");
+             PreparedStatement stored = connection.prepareStatement(
+                     "INSERT INTO bench_store_notes (id, title, content_hash) VALUES (?, ?, ?)")) {
+            for (ContentCodec.Encoded encoded : store.values()) {
+                contents.setString(1, encoded.getHash());
+                contents.setString(2, encoded.getEncoding());
+                contents.setInt(3, encoded.getRawLength());
+                contents.setBytes(4, encoded.getBytes());
+                contents.addBatch();
+            }
+            contents.executeBatch();
+            for (int i = 0; i < corpus.size(); i++) {
+                UUID id = UUID.randomUUID();
+                String hash = ContentCodec.hash(corpus.get(i));
+                ids.add(id);
+                inline.setObject(1, id);
+                inline.setString(2, "Note " + i);
+                inline.setString(3, corpus.get(i));
+                inline.addBatch();
+                stored.setObject(1, id);
+                stored.setString(2, "Note " + i);
+                stored.setString(3, hash);
+                stored.addBatch();
+                if (i % 500 == 499) {
+                    inline.executeBatch();
+                    stored.executeBatch();
+                }
+            }
+            inline.executeBatch();
+            stored.executeBatch();
+        }
+        connection.commit();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE bench_inline_notes");
+            statement.execute("ANALYZE bench_store_notes");
+            statement.execute("ANALYZE bench_note_contents");
+        }
+        connection.commit();
+
+        long inlineSize = relationSize(connection, "bench_inline_notes");
+        long storeSize = relationSize(connection, "bench_store_notes") + relationSize(connection, "bench_note_contents");
+        System.out.printf("On disk: inline %,d bytes, content store %,d bytes (%.2fx)%n",
+                inlineSize, storeSize, (double) inlineSize / Math.max(1, storeSize));
+
+        String metadataSql = "SELECT id, title, updated_at FROM %s ORDER BY updated_at DESC, id LIMIT 20 OFFSET ?";
+        timeReads(connection, "inline metadata page", String.format(metadataSql, "bench_inline_notes"), reads,
+                statement -> statement.setInt(1, random.nextInt(Math.max(1, ids.size() - 20))),
+                resultSet -> resultSet.getString(2));
+        timeReads(connection, "store metadata page", String.format(metadataSql, "bench_store_notes"), reads,
+                statement -> statement.setInt(1, random.nextInt(Math.max(1, ids.size() - 20))),
+                resultSet -> resultSet.getString(2));
+        timeReads(connection, "inline full read", "SELECT title, content FROM bench_inline_notes WHERE id = ?", reads,
+                statement -> statement.setObject(1, ids.get(random.nextInt(ids.size()))),
+                resultSet -> resultSet.getString(2));
+        timeReads(connection, "store full read", "SELECT n.title, c.encoding, c.raw_length, c.body "
+                        + "FROM bench_store_notes n JOIN bench_note_contents c ON c.hash = n.content_hash WHERE n.id = ?",
+                reads,
+                statement -> statement.setObject(1, ids.get(random.nextInt(ids.size()))),
+                resultSet -> ContentCodec.decode(resultSet.getString(2), resultSet.getInt(3), resultSet.getBytes(4)));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE bench_inline_notes, bench_store_notes, bench_note_contents");
+        }
+        connection.commit();
+    }
+
+    private long relationSize(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_total_relation_size(?::regclass)")) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private void timeReads(Connection connection, String name, String sql, int reads,
+                           SqlConsumer<PreparedStatement> binder, SqlConsumer<ResultSet> reader) throws SQLException {
+        LatencyRecorder recorder = new LatencyRecorder(name);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < reads; i++) {
+                binder.accept(statement);
+                long start = System.nanoTime();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        reader.accept(resultSet);
+                    }
+                }
+                recorder.recordNanos(System.nanoTime() - start);
+            }
+        }
+        connection.commit();
+        printLatency(recorder);
+    }
+
+    private static void printLatency(LatencyRecorder recorder) {
+        System.out.printf("%-22s n=%-7d p50=%6dus p95=%6dus p99=%6dus max=%6dus%n",
+                recorder.getOperation(), recorder.getSuccessCount(), recorder.percentileMicros(50),
+                recorder.percentileMicros(95), recorder.percentileMicros(99), recorder.getMaxMicros());
+    }
+
+    @FunctionalInterface
+    private interface SqlConsumer<T> {
+        void accept(T value) throws SQLException;
+    }
+}
@@ -0,0 +1,105 @@
+package com.scrib.loadtest.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scrib.loadtest.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Thin JSON-over-HTTP client that times every call against the gateway and records
+ * it under an operation name. Returns the {@code data} node of the ApiResponse, or null on failure.
+ */
+public class ScribClient {
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final ObjectMapper objectMapper;
+    private final MetricsRegistry metrics;
+    private final Duration requestTimeout;
+
+    public ScribClient(HttpClient httpClient, URI baseUri, ObjectMapper objectMapper,
+                       MetricsRegistry metrics, Duration requestTimeout) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.requestTimeout = requestTimeout;
+    }
+
+    public JsonNode get(String operation, String path) {
+        HttpRequest request = newRequest(path).GET().build();
+        return send(operation, request);
+    }
+
+    public JsonNode post(String operation, String path, Object body) {
+        return send(operation, newRequest(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(body)))
+                .build());
+    }
+
+    public JsonNode put(String operation, String path, Object body) {
+        return send(operation, newRequest(path)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(toJson(body)))
+                .build());
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    private HttpRequest.Builder newRequest(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json");
+    }
+
+    private JsonNode send(String operation, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            long elapsed = System.nanoTime() - start;
+            if (response.statusCode() >= 400) {
+                metrics.recordError(operation);
+                return null;
+            }
+            metrics.recordNanos(operation, elapsed);
+            JsonNode body = objectMapper.readTree(response.body());
+            return body.path("data");
+        } catch (IOException e) {
+            metrics.recordError(operation);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.recordError(operation);
+            return null;
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to serialize request body", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.scrib.loadtest.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal STOMP 1.2 client over the raw SockJS websocket transport ({@code /ws/websocket}).
+ * Only what the auto-save scenario needs: CONNECT, SUBSCRIBE and SEND, plus
+ * correlation of {@code /topic/note.saved} broadcasts back to the note that was saved.
+ */
+public class StompSession implements WebSocket.Listener, AutoCloseable {
+
+    private static final char FRAME_END = '\0';
+
+    private final ObjectMapper objectMapper;
+    private final CompletableFuture<Void> connected = new CompletableFuture<>();
+    private final Map<UUID, CompletableFuture<JsonNode>> pendingSaves = new ConcurrentHashMap<>();
+    private final StringBuilder inbound = new StringBuilder();
+    private WebSocket webSocket;
+
+    private StompSession(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public static StompSession connect(HttpClient httpClient, URI baseUri, ObjectMapper objectMapper,
+                                       Duration timeout) throws Exception {
+        String scheme = "https".equals(baseUri.getScheme()) ? "wss" : "ws";
+        URI wsUri = new URI(scheme, null, baseUri.getHost(), baseUri.getPort(), "/ws/websocket", null, null);
+
+        StompSession session = new StompSession(objectMapper);
+        session.webSocket = httpClient.newWebSocketBuilder()
+                .connectTimeout(timeout)
+                .buildAsync(wsUri, session)
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        session.sendFrame("CONNECT\naccept-version:1.2\nhost:" + baseUri.getHost() + "\nheart-beat:0,0\n\n");
+        session.connected.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        session.sendFrame("SUBSCRIBE\nid:sub-0\ndestination:/topic/note.saved\n\n");
+        return session;
+    }
+
+    public void send(String destination, Object payload) throws IOException {
+        String body = objectMapper.writeValueAsString(payload);
+        sendFrame("SEND\ndestination:" + destination + "\ncontent-type:application/json\n\n" + body);
+    }
+
+    public CompletableFuture<JsonNode> expectSaved(UUID noteId) {
+        return pendingSaves.computeIfAbsent(noteId, id -> new CompletableFuture<>());
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        synchronized (inbound) {
+            inbound.append(data);
+            int end;
+            while ((end = inbound.indexOf(String.valueOf(FRAME_END))) >= 0) {
+                String frame = inbound.substring(0, end);
+                inbound.delete(0, end + 1);
+                handleFrame(frame);
+            }
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        failAll(new IOException("WebSocket closed: " + statusCode + " " + reason));
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        failAll(error);
+    }
+
+    @Override
+    public void close() {
+        if (webSocket != null && !webSocket.isOutputClosed()) {
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+        }
+    }
+
+    private void handleFrame(String frame) {
+        // Heartbeat newlines may precede a frame
+        String trimmed = frame.stripLeading();
+        if (trimmed.startsWith("CONNECTED")) {
+            connected.complete(null);
+        } else if (trimmed.startsWith("ERROR")) {
+            failAll(new IOException("STOMP error frame: " + trimmed));
+        } else if (trimmed.startsWith("MESSAGE")) {
+            int bodyStart = trimmed.indexOf("\n\n");
+            if (bodyStart < 0) {
+                return;
+            }
+            try {
+                JsonNode note = objectMapper.readTree(trimmed.substring(bodyStart + 2));
+                String id = note.path("id").asText(null);
+                if (id != null) {
+                    CompletableFuture<JsonNode> pending = pendingSaves.remove(UUID.fromString(id));
+                    if (pending != null) {
+                        pending.complete(note);
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // Broadcasts from other sessions that we cannot parse are not ours to track
+            }
+        }
+    }
+
+    private void sendFrame(String frame) {
+        webSocket.sendText(frame + FRAME_END, true).join();
+    }
+
+    private void failAll(Throwable error) {
+        connected.completeExceptionally(error);
+        pendingSaves.values().forEach(future -> future.completeExceptionally(error));
+        pendingSaves.clear();
+    }
+}
@@ -0,0 +1,91 @@
+package com.scrib.loadtest.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear microsecond buckets (~1.5% precision),
+ * so recording stays cheap even when dozens of driver threads hit the same operation.
+ */
+public class LatencyRecorder {
+
+    private static final int LINEAR_LIMIT = 128;
+    private static final int SUB_BUCKETS = 64;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - 7 + 1) * SUB_BUCKETS;
+
+    private final String operation;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public LatencyRecorder(String operation) {
+        this.operation = operation;
+    }
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        counts.incrementAndGet(indexFor(micros));
+        successes.increment();
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getSuccessCount() {
+        return successes.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public long percentileMicros(double percentile) {
+        long total = successes.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(valueAt(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    static int indexFor(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = magnitude - 6;
+        int subBucket = (int) (micros >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (magnitude - 7) * SUB_BUCKETS + subBucket;
+    }
+
+    static long valueAt(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int magnitude = offset / SUB_BUCKETS + 7;
+        int shift = magnitude - 6;
+        long lowerBound = (long) (offset % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) / 2;
+    }
+}
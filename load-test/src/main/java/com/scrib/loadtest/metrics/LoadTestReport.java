@@ -0,0 +1,71 @@
+package com.scrib.loadtest.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LoadTestReport {
+
+    private final List<LatencyRecorder> recorders;
+    private final Duration measuredDuration;
+
+    public LoadTestReport(List<LatencyRecorder> recorders, Duration measuredDuration) {
+        this.recorders = recorders;
+        this.measuredDuration = measuredDuration;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = Math.max(1, measuredDuration.toMillis()) / 1000.0;
+        out.printf("%nScrib load test - measured over %.1fs%n", seconds);
+        out.printf("%-28s %9s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "ok", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (LatencyRecorder recorder : recorders) {
+            long total = recorder.getSuccessCount() + recorder.getErrorCount();
+            out.printf("%-28s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    recorder.getOperation(),
+                    recorder.getSuccessCount(),
+                    recorder.getErrorCount(),
+                    total / seconds,
+                    toMillis(recorder.percentileMicros(50)),
+                    toMillis(recorder.percentileMicros(95)),
+                    toMillis(recorder.percentileMicros(99)),
+                    toMillis(recorder.getMaxMicros()));
+        }
+    }
+
+    public void writeJson(Path path) throws IOException {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (LatencyRecorder recorder : recorders) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("operation", recorder.getOperation());
+            entry.put("ok", recorder.getSuccessCount());
+            entry.put("errors", recorder.getErrorCount());
+            entry.put("p50Ms", toMillis(recorder.percentileMicros(50)));
+            entry.put("p95Ms", toMillis(recorder.percentileMicros(95)));
+            entry.put("p99Ms", toMillis(recorder.percentileMicros(99)));
+            entry.put("maxMs", toMillis(recorder.getMaxMicros()));
+            operations.add(entry);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("measuredSeconds", measuredDuration.toMillis() / 1000.0);
+        report.put("operations", operations);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.scrib.loadtest.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class MetricsRegistry {
+
+    private final ConcurrentMap<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+
+    public void startMeasuring() {
+        // Drop everything recorded during warmup so the report only covers steady state
+        recorders.clear();
+        measuring = true;
+    }
+
+    public void recordNanos(String operation, long nanos) {
+        if (measuring) {
+            recorder(operation).recordNanos(nanos);
+        }
+    }
+
+    public void recordError(String operation) {
+        if (measuring) {
+            recorder(operation).recordError();
+        }
+    }
+
+    public List<LatencyRecorder> snapshot() {
+        List<LatencyRecorder> result = new ArrayList<>(recorders.values());
+        result.sort(Comparator.comparing(LatencyRecorder::getOperation));
+        return result;
+    }
+
+    private LatencyRecorder recorder(String operation) {
+        return recorders.computeIfAbsent(operation, LatencyRecorder::new);
+    }
+}
@@ -0,0 +1,51 @@
+package com.scrib.loadtest.scenario;
+
+import com.scrib.loadtest.client.StompSession;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simulates an editor typing: a burst of {@code /app/note.auto-save} frames followed by an
+ * explicit {@code /app/note.save}, timed until the save is broadcast back on {@code /topic/note.saved}.
+ */
+public class AutoSaveBurstScenario implements Scenario {
+
+    private static final String OPERATION = "stomp.autosave-burst";
+
+    private final int burstSize;
+    private final AtomicInteger revision = new AtomicInteger();
+
+    public AutoSaveBurstScenario(int burstSize) {
+        this.burstSize = burstSize;
+    }
+
+    @Override
+    public String name() {
+        return "autosave";
+    }
+
+    @Override
+    public void iterate(VirtualUser user) throws Exception {
+        UUID noteId = user.randomNoteId();
+        if (noteId == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            StompSession session = user.stompSession();
+            CompletableFuture<?> saved = session.expectSaved(noteId);
+            for (int i = 0; i < burstSize; i++) {
+                session.send("/app/note.auto-save", user.noteBody(noteId, revision.incrementAndGet()));
+            }
+            session.send("/app/note.save", user.noteBody(noteId, revision.incrementAndGet()));
+            saved.get(user.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            user.getClient().getMetrics().recordNanos(OPERATION, System.nanoTime() - start);
+        } catch (Exception e) {
+            user.getClient().getMetrics().recordError(OPERATION);
+        }
+    }
+}
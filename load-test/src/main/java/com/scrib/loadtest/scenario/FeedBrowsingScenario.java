@@ -0,0 +1,29 @@
+package com.scrib.loadtest.scenario;
+
+import com.scrib.loadtest.client.ScribClient;
+
+/**
+ * Anonymous and signed-in feed reads: first pages dominate, with an occasional deep page
+ * and a note detail view, mirroring what the web client does on the home screen.
+ */
+public class FeedBrowsingScenario implements Scenario {
+
+    @Override
+    public String name() {
+        return "feed";
+    }
+
+    @Override
+    public void iterate(VirtualUser user) {
+        ScribClient client = user.getClient();
+        int page = user.getRandom().nextInt(10) == 0 ? 5 + user.getRandom().nextInt(20) : user.getRandom().nextInt(3);
+
+        client.get("feed.public-notes", "/api/notes?page=" + page + "&size=20");
+        client.get("feed.search-public", "/api/search/notes/public?page=" + page + "&size=20");
+        client.get("feed.user-notes", "/api/notes?userId=" + user.getUserId() + "&page=0&size=20");
+
+        if (user.randomNoteId() != null) {
+            client.get("feed.note-detail", "/api/notes/" + user.randomNoteId() + "?userId=" + user.getUserId());
+        }
+    }
+}
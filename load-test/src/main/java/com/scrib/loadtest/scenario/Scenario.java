@@ -0,0 +1,8 @@
+package com.scrib.loadtest.scenario;
+
+public interface Scenario {
+
+    String name();
+
+    void iterate(VirtualUser user) throws Exception;
+}
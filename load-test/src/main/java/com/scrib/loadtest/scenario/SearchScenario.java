@@ -0,0 +1,30 @@
+package com.scrib.loadtest.scenario;
+
+import com.scrib.loadtest.client.ScribClient;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+public class SearchScenario implements Scenario {
+
+    private static final String[] QUERIES = {
+            "java", "python", "getUserById", "load test", "function", "revision", "SELECT", "useEffect("
+    };
+
+    @Override
+    public String name() {
+        return "search";
+    }
+
+    @Override
+    public void iterate(VirtualUser user) {
+        ScribClient client = user.getClient();
+        String query = URLEncoder.encode(QUERIES[user.getRandom().nextInt(QUERIES.length)], StandardCharsets.UTF_8);
+
+        client.get("search.notes", "/api/search/notes?query=" + query);
+        client.get("search.user-notes", "/api/search/notes/user/" + user.getUserId() + "?query=" + query);
+        if (user.getRandom().nextInt(5) == 0) {
+            client.get("search.languages", "/api/search/languages");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.scrib.loadtest.scenario;
+
+import com.scrib.loadtest.client.ScribClient;
+
+import java.util.Map;
+
+/**
+ * Signup form behaviour: availability polled once per keystroke, then the create call.
+ */
+public class UserSignupScenario implements Scenario {
+
+    @Override
+    public String name() {
+        return "signup";
+    }
+
+    @Override
+    public void iterate(VirtualUser user) {
+        ScribClient client = user.getClient();
+        String username = user.randomUsername();
+
+        for (int length = 3; length <= username.length(); length += 3) {
+            client.get("signup.username-exists", "/api/users/" + username.substring(0, length) + "/exists");
+        }
+        client.post("signup.create-user", "/api/users", Map.of("username", username));
+    }
+}
@@ -0,0 +1,105 @@
+package com.scrib.loadtest.scenario;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.scrib.loadtest.client.ScribClient;
+import com.scrib.loadtest.client.StompSession;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * One driver thread's identity: a registered user with a handful of seeded notes,
+ * and a lazily opened STOMP session for the auto-save scenario.
+ */
+public class VirtualUser implements AutoCloseable {
+
+    private static final String[] LANGUAGES = {"java", "javascript", "python", "sql", "go"};
+
+    private final ScribClient client;
+    private final Random random;
+    private final Duration timeout;
+    private final List<UUID> noteIds = new ArrayList<>();
+    private UUID userId;
+    private StompSession stompSession;
+
+    public VirtualUser(ScribClient client, long seed, Duration timeout) {
+        this.client = client;
+        this.random = new Random(seed);
+        this.timeout = timeout;
+    }
+
+    public void setUp(int seedNotes) {
+        JsonNode user = client.post("setup.create-user", "/api/users",
+                Map.of("username", randomUsername()));
+        if (user == null || user.path("id").isMissingNode()) {
+            throw new IllegalStateException("Could not register load test user");
+        }
+        userId = UUID.fromString(user.path("id").asText());
+
+        for (int i = 0; i < seedNotes; i++) {
+            JsonNode note = client.post("setup.create-note", "/api/notes", noteBody(null, i));
+            if (note != null && note.hasNonNull("id")) {
+                noteIds.add(UUID.fromString(note.path("id").asText()));
+            }
+        }
+    }
+
+    public Map<String, Object> noteBody(UUID noteId, int revision) {
+        String language = LANGUAGES[random.nextInt(LANGUAGES.length)];
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (noteId != null) {
+            body.put("id", noteId);
+        }
+        body.put("userId", userId);
+        body.put("title", "Load test note " + language + " " + revision);
+        body.put("content", "<p>Revision " + revision + " of a load test note.</p>"
+                + "<pre><code class=\"language-" + language + "\">function getUserById(id) {\n  return id;\n}</code></pre>");
+        body.put("visibility", random.nextInt(4) == 0 ? "PRIVATE" : "PUBLIC");
+        body.put("codeLanguage", language);
+        return body;
+    }
+
+    public StompSession stompSession() throws Exception {
+        if (stompSession == null) {
+            stompSession = StompSession.connect(client.getHttpClient(), client.getBaseUri(),
+                    client.getObjectMapper(), timeout);
+        }
+        return stompSession;
+    }
+
+    public String randomUsername() {
+        return "lt_" + Long.toHexString(random.nextLong() & Long.MAX_VALUE);
+    }
+
+    public UUID randomNoteId() {
+        return noteIds.isEmpty() ? null : noteIds.get(random.nextInt(noteIds.size()));
+    }
+
+    public ScribClient getClient() {
+        return client;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    @Override
+    public void close() {
+        if (stompSession != null) {
+            stompSession.close();
+        }
+    }
+}
@@ -1,15 +1,27 @@
 package com.scrib.noteservice;
 
+import com.scrib.common.cache.CacheConfig;
+import com.scrib.common.datasource.ReplicaDataSourceConfig;
+import com.scrib.common.limit.ConcurrencyLimitConfig;
+import com.scrib.common.shard.ShardDataSourceConfig;
+import com.scrib.common.user.UserDirectoryConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing
-@EnableCaching
+// Cache lookups wrap the transaction, so hits never open one and background refreshes start their own
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @EnableAsync
+@EnableScheduling
+@Import({CacheConfig.class, ConcurrencyLimitConfig.class, ReplicaDataSourceConfig.class, ShardDataSourceConfig.class,
+        UserDirectoryConfig.class})
 public class NoteServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(NoteServiceApplication.class, args);
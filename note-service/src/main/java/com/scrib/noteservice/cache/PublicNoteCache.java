@@ -0,0 +1,57 @@
+package com.scrib.noteservice.cache;
+
+import com.scrib.common.cache.StaleWhileRevalidateCache;
+import com.scrib.common.dto.NoteDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bulk access to the {@code publicNotes} cache that {@code NoteService.getPublicNoteById} fills one
+ * note at a time. Only notes that are public are ever put here, so a hit can be served to anyone.
+ */
+@Component
+public class PublicNoteCache {
+    
+    public static final String NAME = "publicNotes";
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    // Cached notes among the ids; misses (and cached "not found" answers) are left out
+    public Map<UUID, NoteDto> getAll(Collection<UUID> ids) {
+        Cache cache = cacheManager.getCache(NAME);
+        Map<UUID, NoteDto> found = new HashMap<>();
+        if (cache == null || ids.isEmpty()) {
+            return found;
+        }
+        if (cache instanceof StaleWhileRevalidateCache staleCache) {
+            staleCache.getAll(ids).forEach((id, value) -> {
+                if (value instanceof NoteDto note) {
+                    found.put((UUID) id, note);
+                }
+            });
+            return found;
+        }
+        for (UUID id : ids) {
+            NoteDto note = cache.get(id, NoteDto.class);
+            if (note != null) {
+                found.put(id, note);
+            }
+        }
+        return found;
+    }
+    
+    public void put(NoteDto note) {
+        Cache cache = cacheManager.getCache(NAME);
+        if (cache != null) {
+            cache.put(note.getId(), note);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.scrib.noteservice.cache;
+
+import com.scrib.common.cache.CacheMultiGet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One MGET for a batch of {@link RedisCache} keys, built and decoded the same way RedisCache does
+ * for single keys (prefix, key conversion and serializers from its configuration). Any other cache
+ * is read one key at a time. Picked up by the shared cache configuration for batch reads.
+ */
+@Component
+public class RedisCacheMultiGet implements CacheMultiGet {
+
+    // What RedisCache stores for a cached null
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    @Override
+    public Map<Object, Object> getAll(Cache cache, Collection<?> keys) {
+        if (!(cache instanceof RedisCache redisCache)) {
+            return CacheMultiGet.oneByOne().getAll(cache, keys);
+        }
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+
+        RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+        List<Object> keyList = new ArrayList<>(keys);
+        byte[][] rawKeys = new byte[keyList.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = rawKey(redisCache, config, keyList.get(i));
+        }
+
+        List<byte[]> rawValues;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            rawValues = connection.stringCommands().mGet(rawKeys);
+        }
+        Map<Object, Object> found = new HashMap<>();
+        for (int i = 0; rawValues != null && i < rawValues.size(); i++) {
+            byte[] rawValue = rawValues.get(i);
+            if (rawValue == null || Arrays.equals(rawValue, BINARY_NULL_VALUE)) {
+                continue;
+            }
+            Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(rawValue));
+            if (value != null && !(value instanceof NullValue)) {
+                found.put(keyList.get(i), value);
+            }
+        }
+        return found;
+    }
+
+    private static byte[] rawKey(RedisCache cache, RedisCacheConfiguration config, Object key) {
+        String converted = key instanceof String string ? string
+                : config.getConversionService().convert(key, String.class);
+        String cacheKey = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + converted : converted;
+        ByteBuffer buffer = config.getKeySerializationPair().write(cacheKey);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
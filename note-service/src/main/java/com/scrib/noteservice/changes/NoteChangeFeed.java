@@ -0,0 +1,112 @@
+package com.scrib.noteservice.changes;
+
+import com.scrib.common.datasource.ReadYourWritesTracker;
+import com.scrib.common.datasource.ReplicaRoutingContext;
+import com.scrib.common.dto.NoteChangeDto;
+import com.scrib.common.dto.NoteChangesDto;
+import com.scrib.common.dto.NoteDto;
+import com.scrib.common.shard.ShardRouter;
+import com.scrib.noteservice.entity.Note;
+import com.scrib.noteservice.lifecycle.NoteArchive;
+import com.scrib.noteservice.repository.NoteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A user's note changes in {@code (updated_at, id)} order, soft-deleted notes included as
+ * tombstones, read in bounded batches after an opaque sync token.
+ * <p>
+ * {@code updated_at} is stamped when a transaction writes, not when it commits, so rows younger
+ * than {@code settle-window} are held back: a slower transaction could still commit a change that
+ * sorts before them, and a client whose token had already passed it would never see it.
+ * <p>
+ * Tombstones are archived with their notes after {@code scrib.notes.archive.deleted-retention}; a
+ * token from before one of them is rejected, and the client starts over with a full sync.
+ */
+@Service
+public class NoteChangeFeed {
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    
+    @Autowired
+    private NoteArchive noteArchive;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Value("${scrib.notes.changes.default-batch-size:100}")
+    private int defaultBatchSize;
+    
+    @Value("${scrib.notes.changes.max-batch-size:500}")
+    private int maxBatchSize;
+    
+    @Value("${scrib.notes.changes.settle-window:2s}")
+    private Duration settleWindow;
+    
+    @Transactional(readOnly = true)
+    public NoteChangesDto changesSince(UUID userId, String token, Integer limit) {
+        SyncToken since = SyncToken.decode(token);
+        int batchSize = limit == null ? defaultBatchSize : Math.max(1, Math.min(limit, maxBatchSize));
+        shardRouter.routeTo(userId);
+        if (readYourWritesTracker.requiresPrimary(userId)) {
+            ReplicaRoutingContext.forcePrimaryForCurrentTransaction();
+        }
+        if (since == SyncToken.START) {
+            // A full sync lists every live note, archived ones included
+            noteArchive.restoreNotesOf(userId);
+        } else if (noteRepository.existsArchivedDeletionSince(userId, since.getUpdatedAt())) {
+            throw new IllegalArgumentException("Sync token expired; start a full sync");
+        }
+        
+        // One extra row tells whether another batch is already waiting
+        List<Note> notes = noteRepository.findChangesSince(userId, since.getUpdatedAt(), since.getId(),
+                LocalDateTime.now().minus(settleWindow), PageRequest.of(0, batchSize + 1));
+        boolean hasMore = notes.size() > batchSize;
+        if (hasMore) {
+            notes = notes.subList(0, batchSize);
+        }
+        
+        List<NoteChangeDto> changes = new ArrayList<>(notes.size());
+        for (Note note : notes) {
+            changes.add(toChange(note, since));
+        }
+        SyncToken next = notes.isEmpty() ? since
+                : new SyncToken(notes.get(notes.size() - 1).getUpdatedAt(), notes.get(notes.size() - 1).getId());
+        return new NoteChangesDto(changes, next.encode(), hasMore);
+    }
+    
+    private NoteChangeDto toChange(Note note, SyncToken since) {
+        NoteChangeDto.ChangeType type;
+        if (note.getDeletedAt() != null) {
+            type = NoteChangeDto.ChangeType.DELETED;
+        } else if (note.getCreatedAt().isAfter(since.getUpdatedAt())) {
+            type = NoteChangeDto.ChangeType.CREATED;
+        } else {
+            type = NoteChangeDto.ChangeType.UPDATED;
+        }
+        return new NoteChangeDto(
+                note.getId(),
+                note.getUserId(),
+                type,
+                note.getTitle(),
+                NoteDto.Visibility.valueOf(note.getVisibility().name()),
+                note.getCodeLanguage(),
+                note.getCreatedAt(),
+                note.getUpdatedAt(),
+                note.getDeletedAt()
+        );
+    }
+}
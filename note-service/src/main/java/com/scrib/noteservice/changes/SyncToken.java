@@ -0,0 +1,58 @@
+package com.scrib.noteservice.changes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+// Opaque cursor into the changes feed: the (updated_at, id) of the last change a client has seen
+class SyncToken {
+
+    private static final String VERSION = "v1";
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    // Before every change: a client without a token starts here
+    static final SyncToken START = new SyncToken(LocalDateTime.of(1970, 1, 1, 0, 0), MIN_ID);
+
+    private final LocalDateTime updatedAt;
+    private final UUID id;
+
+    SyncToken(LocalDateTime updatedAt, UUID id) {
+        this.updatedAt = updatedAt;
+        this.id = id;
+    }
+
+    static SyncToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            long micros = Long.parseLong(parts[1]);
+            LocalDateTime updatedAt = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                    (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+            return new SyncToken(updatedAt, UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+
+    String encode() {
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        String raw = VERSION + ":" + micros + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,29 @@
+package com.scrib.noteservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+    
+    // Small fixed pool so enrichment never competes with request traffic for note-write-pool connections.
+    // When the backlog is full the task is dropped: the row keeps enriched_at NULL and the sweep picks it up.
+    @Bean(name = "noteEnrichmentExecutor")
+    public ThreadPoolTaskExecutor noteEnrichmentExecutor(
+            @Value("${scrib.notes.enrichment.threads:2}") int threads,
+            @Value("${scrib.notes.enrichment.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("note-enrichment-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -0,0 +1,51 @@
+package com.scrib.noteservice.config;
+
+import com.scrib.common.limit.AdaptiveConcurrencyLimiter;
+import com.scrib.common.limit.RequestPriority;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+import java.util.Set;
+
+@Configuration
+@ConditionalOnProperty(prefix = "scrib.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WebSocketConcurrencyLimitConfig {
+
+    private static final Set<String> SAVE_DESTINATIONS = Set.of("/app/note.save", "/app/note.auto-save");
+
+    // STOMP saves arrive over an open session, past the servlet filter; they are never shed, but their
+    // time on the inbound channel counts towards the limit so HTTP reads back off while saves are slow
+    @Bean
+    public ExecutorChannelInterceptor webSocketSaveLimitInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        ThreadLocal<AdaptiveConcurrencyLimiter.Permit> permits = new ThreadLocal<>();
+        return new ExecutorChannelInterceptor() {
+            @Override
+            public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+                if (handler instanceof SimpAnnotationMethodMessageHandler
+                        && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE
+                        && SAVE_DESTINATIONS.contains(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+                    permits.set(limiter.tryAcquire(RequestPriority.CRITICAL));
+                }
+                return message;
+            }
+
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                            Exception ex) {
+                AdaptiveConcurrencyLimiter.Permit permit = permits.get();
+                if (permit != null) {
+                    permits.remove();
+                    permit.release(ex != null);
+                }
+            }
+        };
+    }
+}
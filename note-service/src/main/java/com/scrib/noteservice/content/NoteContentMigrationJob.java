@@ -0,0 +1,110 @@
+package com.scrib.noteservice.content;
+
+import com.scrib.common.shard.ShardRouter;
+import com.scrib.noteservice.entity.NoteContent;
+import com.scrib.noteservice.repository.NoteContentRepository;
+import com.scrib.noteservice.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves bodies of rows written before the content store from {@code notes.content} into
+ * {@code note_contents}, a small batch per run, and deletes bodies no note has referenced for a
+ * while. Moving a body is not an edit: {@code scrib.suppress_touch} keeps the notes triggers from
+ * bumping {@code updated_at} and user activity.
+ */
+@Component
+public class NoteContentMigrationJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NoteContentMigrationJob.class);
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private NoteContentRepository noteContentRepository;
+    
+    @Autowired
+    private NoteContentStore noteContentStore;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Value("${scrib.notes.content-store.migration-batch-size:200}")
+    private int migrationBatchSize;
+    
+    // Unreferenced bodies are kept this long, so a body dropped by one note and re-used by another survives
+    @Value("${scrib.notes.content-store.gc-grace-period:P1D}")
+    private Duration gcGracePeriod;
+    
+    @Value("${scrib.notes.content-store.gc-batch-size:1000}")
+    private int gcBatchSize;
+    
+    @Scheduled(fixedDelayString = "${scrib.notes.content-store.migration-interval:30000}",
+               initialDelayString = "${scrib.notes.content-store.migration-interval:30000}")
+    public void migrateInlineContent() {
+        shardRouter.forEachShard(this::migrateBatch);
+    }
+    
+    private void migrateBatch() {
+        List<UUID> pending = noteRepository.findIdsWithInlineContent(migrationBatchSize);
+        if (pending.isEmpty()) {
+            return;
+        }
+        int moved = 0;
+        for (UUID noteId : pending) {
+            try {
+                Boolean done = transactionTemplate.execute(status -> moveToStore(noteId));
+                if (Boolean.TRUE.equals(done)) {
+                    moved++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Moving content of note {} to the content store failed: {}", noteId, e.getMessage());
+            }
+        }
+        logger.info("Content store migration: moved {} of {} inline note bodies", moved, pending.size());
+    }
+    
+    private boolean moveToStore(UUID noteId) {
+        return noteRepository.findById(noteId)
+                .filter(note -> note.getLegacyContent() != null)
+                .map(note -> {
+                    NoteContent body = noteContentStore.store(note.getLegacyContent());
+                    noteRepository.suppressTouchTriggers();
+                    return noteRepository.moveContentToStore(noteId, note.getUpdatedAt(), body.getHash()) == 1;
+                })
+                .orElse(false);
+    }
+    
+    @Scheduled(cron = "${scrib.notes.content-store.gc-cron:0 17 3 * * *}")
+    public void deleteUnreferencedContent() {
+        shardRouter.forEachShard(this::deleteUnreferencedBatches);
+    }
+    
+    private void deleteUnreferencedBatches() {
+        LocalDateTime unusedSince = LocalDateTime.now().minus(gcGracePeriod);
+        int deleted;
+        int total = 0;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    noteContentRepository.deleteUnreferenced(unusedSince, gcBatchSize));
+            total += deleted;
+        } while (deleted == gcBatchSize);
+        if (total > 0) {
+            logger.info("Content store GC: deleted {} unreferenced note bodies", total);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.scrib.noteservice.content;
+
+import com.scrib.common.content.ContentCodec;
+import com.scrib.noteservice.entity.NoteContent;
+import com.scrib.noteservice.repository.NoteContentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Service
+public class NoteContentStore {
+    
+    private static final Duration TOUCH_INTERVAL = Duration.ofHours(1);
+    
+    @Autowired
+    private NoteContentRepository noteContentRepository;
+    
+    /**
+     * Stores the body under its hash (unless an identical body is already stored) and returns an
+     * uninitialized reference to it for {@code Note.replaceContent}. Runs in the caller's
+     * transaction so the note and its body commit together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public NoteContent store(String content) {
+        ContentCodec.Encoded encoded = ContentCodec.encode(content != null ? content : "");
+        LocalDateTime now = LocalDateTime.now();
+        if (noteContentRepository.insertIfAbsent(encoded.getHash(), encoded.getEncoding(),
+                encoded.getRawLength(), encoded.getBytes(), now) == 0) {
+            noteContentRepository.touch(encoded.getHash(), now, now.minus(TOUCH_INTERVAL));
+        }
+        return noteContentRepository.getReferenceById(encoded.getHash());
+    }
+    
+    public static String hash(String content) {
+        return ContentCodec.hash(content != null ? content : "");
+    }
+}
@@ -1,17 +1,24 @@
 package com.scrib.noteservice.controller;
 
 import com.scrib.common.dto.ApiResponse;
+import com.scrib.common.dto.NoteBatchGetRequest;
+import com.scrib.common.dto.NoteChangesDto;
 import com.scrib.common.dto.NoteDto;
+import com.scrib.common.dto.NoteRevisionDto;
+import com.scrib.noteservice.changes.NoteChangeFeed;
 import com.scrib.noteservice.entity.Note;
+import com.scrib.noteservice.etag.NoteETags;
 import com.scrib.noteservice.service.NoteService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +31,9 @@ public class NoteController {
     @Autowired
     private NoteService noteService;
     
+    @Autowired
+    private NoteChangeFeed noteChangeFeed;
+    
     @PostMapping
     public ResponseEntity<ApiResponse<NoteDto>> createNote(@Valid @RequestBody NoteDto noteDto) {
         try {
@@ -62,7 +72,16 @@ public class NoteController {
     
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<NoteDto>> getNote(@PathVariable UUID id,
-                                                      @RequestParam(required = false) UUID userId) {
+                                                      @RequestParam(required = false) UUID userId,
+                                                      WebRequest request) {
+        // Pollers revalidate with If-None-Match; unchanged notes get a 304 without the body being loaded
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> eTag = noteService.getNoteETag(id, userId);
+            if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+                return null;
+            }
+        }
+        
         Optional<NoteDto> note;
         
         if (userId != null) {
@@ -77,28 +96,88 @@ public class NoteController {
             note = noteService.getPublicNoteById(id);
         }
         
-        return note.map(n -> ResponseEntity.ok(ApiResponse.success(n)))
+        return note.map(n -> ResponseEntity.ok().eTag(NoteETags.of(n)).body(ApiResponse.success(n)))
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    // Many notes in one call (open tabs, linked notes); ids that getNote would not return are omitted
+    @PostMapping("/batch-get")
+    public ResponseEntity<ApiResponse<List<NoteDto>>> batchGetNotes(@RequestBody NoteBatchGetRequest request) {
+        try {
+            List<NoteDto> notes = noteService.getNotesByIds(
+                    request.getIds() != null ? request.getIds() : List.of(), request.getUserId());
+            return ResponseEntity.ok(ApiResponse.success(notes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{id}/revisions")
+    public ResponseEntity<ApiResponse<Page<NoteRevisionDto>>> getRevisions(
+            @PathVariable UUID id,
+            @RequestParam UUID userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Page<NoteRevisionDto> revisions = noteService.getRevisions(id, userId, PageRequest.of(page, size));
+            return ResponseEntity.ok(ApiResponse.success(revisions));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{id}/revisions/{revision}")
+    public ResponseEntity<ApiResponse<NoteRevisionDto>> getRevision(@PathVariable UUID id,
+                                                                   @PathVariable int revision,
+                                                                   @RequestParam UUID userId) {
+        try {
+            return noteService.getRevision(id, userId, revision)
+                    .map(r -> ResponseEntity.ok(ApiResponse.success(r)))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/{id}/revisions/{revision}/restore")
+    public ResponseEntity<ApiResponse<NoteDto>> restoreRevision(@PathVariable UUID id,
+                                                               @PathVariable int revision,
+                                                               @RequestParam UUID userId) {
+        try {
+            NoteDto restoredNote = noteService.restoreRevision(id, userId, revision);
+            return ResponseEntity.ok(ApiResponse.success("Revision " + revision + " restored", restoredNote));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     @GetMapping
     public ResponseEntity<ApiResponse<Page<NoteDto>>> getNotes(
             @RequestParam(required = false) UUID userId,
             @RequestParam(required = false) String visibility,
             @RequestParam(required = false) String language,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<NoteDto> notes;
         
         if (userId != null) {
-            notes = noteService.getUserNotes(userId, pageable);
-        } else {
-            notes = noteService.getPublicNotes(pageable);
+            // Tagged before loading, so a change in between only costs the client one extra download
+            String eTag = noteService.getUserNotesETag(userId, pageable);
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+            Page<NoteDto> notes = noteService.getUserNotes(userId, pageable);
+            return ResponseEntity.ok().eTag(eTag).body(ApiResponse.success(notes));
         }
         
-        return ResponseEntity.ok(ApiResponse.success(notes));
+        Page<NoteDto> notes = noteService.getPublicNotes(pageable);
+        return ResponseEntity.ok().eTag(NoteETags.of(notes)).body(ApiResponse.success(notes));
     }
     
     @GetMapping("/search")
@@ -130,6 +209,19 @@ public class NoteController {
         return ResponseEntity.ok(ApiResponse.success(notes));
     }
     
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<NoteChangesDto>> getChanges(
+            @RequestParam UUID userId,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(noteChangeFeed.changesSince(userId, since, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/languages")
     public ResponseEntity<ApiResponse<List<String>>> getAvailableLanguages() {
         List<String> languages = noteService.getAvailableCodeLanguages();
@@ -0,0 +1,86 @@
+package com.scrib.noteservice.enrichment;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Best-effort guess of a note's code language. The editor tags code blocks with
+ * {@code class="language-xxx"}, which wins when present; otherwise a few strong syntax signals
+ * are counted over the plain text. Returns null rather than guessing on weak evidence.
+ */
+final class LanguageDetector {
+
+    private static final Pattern CODE_BLOCK_CLASS = Pattern.compile("class=\"(?:language|lang)-([A-Za-z0-9+#-]{1,30})\"");
+    private static final int MIN_SCORE = 3;
+    // Signals are looked for in the first part of the text only
+    private static final int MAX_SCANNED_CHARS = 64 * 1024;
+
+    private static final Map<String, List<Pattern>> SIGNALS = Map.of(
+            "java", patterns("\\bpublic\\s+(?:static\\s+)?(?:class|void|final)\\b", "\\bSystem\\.out\\.print", "\\bimport\\s+java\\.",
+                    "@Override\\b", "\\bprivate\\s+final\\s+\\w+"),
+            "javascript", patterns("\\bconst\\s+\\w+\\s*=", "\\bconsole\\.log\\(", "=>\\s*\\{", "\\bfunction\\s+\\w+\\s*\\(",
+                    "\\brequire\\(['\"]"),
+            "typescript", patterns("\\binterface\\s+\\w+\\s*\\{", ":\\s*(?:string|number|boolean)\\b", "\\bexport\\s+type\\b",
+                    "\\bimplements\\s+\\w+"),
+            "python", patterns("^\\s*def\\s+\\w+\\(.*\\):", "^\\s*(?:from\\s+\\S+\\s+)?import\\s+\\w+", "\\bself\\.", "\\belif\\b",
+                    "^\\s*print\\("),
+            "sql", patterns("(?i)\\bselect\\b.+\\bfrom\\b", "(?i)\\binsert\\s+into\\b", "(?i)\\bcreate\\s+table\\b",
+                    "(?i)\\bwhere\\b.+=", "(?i)\\bjoin\\b.+\\bon\\b"),
+            "go", patterns("\\bfunc\\s+(?:\\(\\w+\\s+\\*?\\w+\\)\\s*)?\\w+\\(", "^package\\s+\\w+", ":=", "\\bfmt\\.Print"),
+            "rust", patterns("\\bfn\\s+\\w+\\(", "\\blet\\s+mut\\b", "\\bimpl\\b", "\\bprintln!\\(", "->\\s*Result<"));
+
+    private LanguageDetector() {}
+
+    static String detect(String html, String plainText) {
+        if (html != null) {
+            Map<String, Integer> tagged = new HashMap<>();
+            Matcher matcher = CODE_BLOCK_CLASS.matcher(html);
+            while (matcher.find()) {
+                tagged.merge(matcher.group(1).toLowerCase(Locale.ROOT), 1, Integer::sum);
+            }
+            String mostTagged = best(tagged, 1);
+            if (mostTagged != null) {
+                return mostTagged;
+            }
+        }
+        if (plainText == null || plainText.isBlank()) {
+            return null;
+        }
+        String sample = plainText.length() > MAX_SCANNED_CHARS ? plainText.substring(0, MAX_SCANNED_CHARS) : plainText;
+        Map<String, Integer> scores = new HashMap<>();
+        SIGNALS.forEach((language, patterns) -> {
+            int score = 0;
+            for (Pattern pattern : patterns) {
+                Matcher matcher = pattern.matcher(sample);
+                for (int hits = 0; hits < 3 && matcher.find(); hits++) {
+                    score++;
+                }
+            }
+            scores.put(language, score);
+        });
+        return best(scores, MIN_SCORE);
+    }
+
+    private static String best(Map<String, Integer> scores, int minimum) {
+        String best = null;
+        int bestScore = minimum - 1;
+        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+            if (entry.getValue() > bestScore) {
+                best = entry.getKey();
+                bestScore = entry.getValue();
+            }
+        }
+        return best;
+    }
+
+    private static List<Pattern> patterns(String... regexes) {
+        return Arrays.stream(regexes)
+                .map(regex -> Pattern.compile(regex, Pattern.MULTILINE))
+                .toList();
+    }
+}
@@ -0,0 +1,24 @@
+package com.scrib.noteservice.enrichment;
+
+import java.util.UUID;
+
+// Published inside the writing transaction; enrichment picks it up after commit, on the same shard
+public class NoteContentChangedEvent {
+
+    private final UUID noteId;
+    private final String shard;
+
+    public NoteContentChangedEvent(UUID noteId, String shard) {
+        this.noteId = noteId;
+        this.shard = shard;
+    }
+
+    public UUID getNoteId() {
+        return noteId;
+    }
+
+    // Null when unsharded
+    public String getShard() {
+        return shard;
+    }
+}
@@ -0,0 +1,63 @@
+package com.scrib.noteservice.enrichment;
+
+import com.scrib.common.text.HtmlText;
+import com.scrib.noteservice.entity.Note;
+import com.scrib.noteservice.repository.NoteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Service
+public class NoteEnricher {
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    /**
+     * Computes plain text, size, line count and (for notes without a code language)
+     * a detected language, and stores them without touching updated_at. The write only lands if
+     * the note is still at the version that was read, so a concurrent edit is never overwritten
+     * with metadata of older content. Returns true when the row was updated.
+     */
+    @Transactional
+    public boolean enrich(UUID noteId) {
+        Note note = noteRepository.findById(noteId).orElse(null);
+        if (note == null || note.isDeleted()) {
+            return false;
+        }
+        // Content updates clear enriched_at, so a set value means the metadata is current
+        if (note.getEnrichedAt() != null) {
+            return false;
+        }
+        String content = note.getContent() != null ? note.getContent() : "";
+        
+        String plainText = HtmlText.toPlainText(content);
+        String detectedLanguage = note.getCodeLanguage() == null
+                ? LanguageDetector.detect(content, plainText) : null;
+        
+        return noteRepository.saveEnrichment(
+                noteId,
+                note.getUpdatedAt(),
+                plainText,
+                content.length(),
+                lineCount(plainText),
+                detectedLanguage,
+                LocalDateTime.now()) == 1;
+    }
+    
+    private static int lineCount(String text) {
+        if (text.isEmpty()) {
+            return 0;
+        }
+        int lines = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,71 @@
+package com.scrib.noteservice.enrichment;
+
+import com.scrib.common.shard.ShardContext;
+import com.scrib.common.shard.ShardRouter;
+import com.scrib.noteservice.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class NoteEnrichmentListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NoteEnrichmentListener.class);
+    
+    @Autowired
+    private NoteEnricher noteEnricher;
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Value("${scrib.notes.enrichment.sweep-batch-size:500}")
+    private int sweepBatchSize;
+    
+    @Async("noteEnrichmentExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onContentChanged(NoteContentChangedEvent event) {
+        try {
+            ShardContext.runOn(event.getShard(), () -> noteEnricher.enrich(event.getNoteId()));
+        } catch (RuntimeException e) {
+            // Left with enriched_at NULL, so the sweep retries it
+            logger.warn("Enrichment of note {} failed: {}", event.getNoteId(), e.getMessage());
+        }
+    }
+    
+    // Catches up rows whose task was dropped or failed, and backfills rows written before enrichment existed
+    @Scheduled(fixedDelayString = "${scrib.notes.enrichment.sweep-interval:60000}",
+               initialDelayString = "${scrib.notes.enrichment.sweep-initial-delay:30000}")
+    public void sweep() {
+        shardRouter.forEachShard(this::sweepShard);
+    }
+    
+    private void sweepShard() {
+        List<UUID> pending = noteRepository.findUnenrichedIds(PageRequest.of(0, sweepBatchSize));
+        int enriched = 0;
+        for (UUID noteId : pending) {
+            try {
+                if (noteEnricher.enrich(noteId)) {
+                    enriched++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Enrichment of note {} failed: {}", noteId, e.getMessage());
+            }
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Enrichment sweep: {} of {} pending notes enriched", enriched, pending.size());
+        }
+    }
+}
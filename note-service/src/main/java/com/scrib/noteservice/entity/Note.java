@@ -28,7 +28,20 @@ public class Note {
     @Column(name = "title", length = 255)
     private String title;
 
+    // Key into note_contents; the body itself is only loaded when getContent() is called
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_hash", referencedColumnName = "hash", insertable = false, updatable = false)
+    private NoteContent body;
+
+    // Inline body of rows written before the content store existed; moved out by NoteContentMigrationJob
     @Column(name = "content", columnDefinition = "TEXT")
+    private String legacyContent;
+
+    // Body written in this session, so a freshly saved note never re-reads its own blob
+    @Transient
     private String content;
 
     @Convert(converter = VisibilityConverter.class)
@@ -49,6 +62,19 @@ public class Note {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    // Derived from content by the enrichment stage; null until it has run for the current content
+    @Column(name = "content_length")
+    private Integer contentLength;
+
+    @Column(name = "line_count")
+    private Integer lineCount;
+
+    @Column(name = "detected_language", length = 50)
+    private String detectedLanguage;
+
+    @Column(name = "enriched_at")
+    private LocalDateTime enrichedAt;
+
     public enum Visibility {
         PUBLIC, PRIVATE
     }
@@ -56,10 +82,9 @@ public class Note {
     // Constructors
     public Note() {}
 
-    public Note(UUID userId, String title, String content, Visibility visibility, String codeLanguage) {
+    public Note(UUID userId, String title, Visibility visibility, String codeLanguage) {
         this.userId = userId;
         this.title = title;
-        this.content = content;
         this.visibility = visibility;
         this.codeLanguage = codeLanguage;
     }
@@ -90,11 +115,29 @@ public class Note {
     }
 
     public String getContent() {
-        return content;
+        if (content != null) {
+            return content;
+        }
+        if (legacyContent != null) {
+            return legacyContent;
+        }
+        return body != null ? body.getText() : null;
     }
 
-    public void setContent(String content) {
+    // body must already be stored under its hash (see NoteContentStore)
+    public void replaceContent(String content, NoteContent body) {
         this.content = content;
+        this.body = body;
+        this.contentHash = body.getHash();
+        this.legacyContent = null;
+    }
+
+    public NoteContent getBody() {
+        return body;
+    }
+
+    public String getLegacyContent() {
+        return legacyContent;
     }
 
     public Visibility getVisibility() {
@@ -137,6 +180,42 @@ public class Note {
         this.deletedAt = deletedAt;
     }
 
+    public Integer getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Integer contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public Integer getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(Integer lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public String getDetectedLanguage() {
+        return detectedLanguage;
+    }
+
+    public void setDetectedLanguage(String detectedLanguage) {
+        this.detectedLanguage = detectedLanguage;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public LocalDateTime getEnrichedAt() {
+        return enrichedAt;
+    }
+
+    public void setEnrichedAt(LocalDateTime enrichedAt) {
+        this.enrichedAt = enrichedAt;
+    }
+
     public boolean isDeleted() {
         return deletedAt != null;
     }
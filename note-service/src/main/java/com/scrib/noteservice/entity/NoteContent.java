@@ -0,0 +1,73 @@
+package com.scrib.noteservice.entity;
+
+import com.scrib.common.content.ContentCodec;
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A note body in the content-addressed store, shared by every note (and fork) with identical
+ * content. Rows are written through {@code NoteContentRepository.insertIfAbsent} and never updated.
+ */
+@Entity
+@Immutable
+@BatchSize(size = 50)
+@Table(name = "note_contents")
+public class NoteContent {
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "encoding", nullable = false, length = 16)
+    private String encoding;
+
+    // UTF-8 bytes before compression
+    @Column(name = "raw_length", nullable = false)
+    private int rawLength;
+
+    @Column(name = "body", nullable = false, length = 64 * 1024 * 1024)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDateTime lastUsedAt;
+
+    @Transient
+    private String text;
+
+    // Constructors
+    public NoteContent() {}
+
+    // Decoded once per loaded instance
+    public String getText() {
+        if (text == null) {
+            text = ContentCodec.decode(encoding, rawLength, body);
+        }
+        return text;
+    }
+
+    // Getters
+    public String getHash() {
+        return hash;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public int getRawLength() {
+        return rawLength;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+}
@@ -0,0 +1,75 @@
+package com.scrib.noteservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outbox row for a note change, written in the same transaction as the change itself and
+ * published to the note-events Redis stream by {@code NoteEventRelay}. The id doubles as the
+ * event's position for consumers.
+ */
+@Entity
+@Table(name = "note_events")
+public class NoteEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "note_id", nullable = false)
+    private UUID noteId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 16)
+    private Type type;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    // NULL until the relay has added it to the stream
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    // Constructors
+    public NoteEvent() {}
+
+    public NoteEvent(UUID noteId, UUID userId, Type type, LocalDateTime occurredAt) {
+        this.noteId = noteId;
+        this.userId = userId;
+        this.type = type;
+        this.occurredAt = occurredAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getNoteId() {
+        return noteId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+}
@@ -0,0 +1,202 @@
+package com.scrib.noteservice.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One saved state of a note. A SNAPSHOT points at the full body in note_contents; a DELTA holds
+ * the edit from the previous revision (see {@code TextDelta}) and is rebuilt by replaying the
+ * chain from {@code baseRevision}, its nearest snapshot.
+ */
+@Entity
+@Table(name = "note_revisions",
+       uniqueConstraints = @UniqueConstraint(name = "uk_note_revisions_note_revision",
+                                             columnNames = {"note_id", "revision_number"}))
+public class NoteRevision {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "note_id", nullable = false)
+    private UUID noteId;
+
+    @Column(name = "revision_number", nullable = false)
+    private int revisionNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 16)
+    private Kind kind;
+
+    @Column(name = "base_revision", nullable = false)
+    private int baseRevision;
+
+    // Deltas since baseRevision, and the chars they insert; both bound the work to rebuild this revision
+    @Column(name = "chain_length", nullable = false)
+    private int chainLength;
+
+    @Column(name = "chain_chars", nullable = false)
+    private int chainChars;
+
+    @Column(name = "title", length = 255)
+    private String title;
+
+    @Column(name = "code_language", length = 50)
+    private String codeLanguage;
+
+    // Length in chars of the full text at this revision
+    @Column(name = "content_length", nullable = false)
+    private int contentLength;
+
+    // SNAPSHOT only
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_hash", referencedColumnName = "hash", insertable = false, updatable = false)
+    private NoteContent body;
+
+    // DELTA only
+    @Column(name = "prefix_length")
+    private Integer prefixLength;
+
+    @Column(name = "suffix_length")
+    private Integer suffixLength;
+
+    @Column(name = "inserted", columnDefinition = "TEXT")
+    private String inserted;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Moves forward while auto-saves are coalesced into this revision
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Kind {
+        SNAPSHOT, DELTA
+    }
+
+    // Constructors
+    public NoteRevision() {}
+
+    public NoteRevision(UUID noteId, int revisionNumber, LocalDateTime createdAt) {
+        this.noteId = noteId;
+        this.revisionNumber = revisionNumber;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    public void makeSnapshot(String contentHash, NoteContent body, int contentLength) {
+        this.kind = Kind.SNAPSHOT;
+        this.baseRevision = revisionNumber;
+        this.chainLength = 0;
+        this.chainChars = 0;
+        this.contentHash = contentHash;
+        this.body = body;
+        this.contentLength = contentLength;
+        this.prefixLength = null;
+        this.suffixLength = null;
+        this.inserted = null;
+    }
+
+    public void makeDelta(int baseRevision, int chainLength, int chainChars, int prefixLength,
+                          int suffixLength, String inserted, int contentLength) {
+        this.kind = Kind.DELTA;
+        this.baseRevision = baseRevision;
+        this.chainLength = chainLength;
+        this.chainChars = chainChars;
+        this.prefixLength = prefixLength;
+        this.suffixLength = suffixLength;
+        this.inserted = inserted;
+        this.contentLength = contentLength;
+        this.contentHash = null;
+        this.body = null;
+    }
+
+    public boolean isSnapshot() {
+        return kind == Kind.SNAPSHOT;
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getNoteId() {
+        return noteId;
+    }
+
+    public int getRevisionNumber() {
+        return revisionNumber;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getBaseRevision() {
+        return baseRevision;
+    }
+
+    public int getChainLength() {
+        return chainLength;
+    }
+
+    public int getChainChars() {
+        return chainChars;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getCodeLanguage() {
+        return codeLanguage;
+    }
+
+    public void setCodeLanguage(String codeLanguage) {
+        this.codeLanguage = codeLanguage;
+    }
+
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public NoteContent getBody() {
+        return body;
+    }
+
+    public Integer getPrefixLength() {
+        return prefixLength;
+    }
+
+    public Integer getSuffixLength() {
+        return suffixLength;
+    }
+
+    public String getInserted() {
+        return inserted;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,30 @@
+package com.scrib.noteservice.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.util.UUID;
+
+// Read-only view of notes.plain_text for search predicates, kept off Note so loading a note never drags it along
+@Entity
+@Immutable
+@Table(name = "notes")
+public class NoteSearchText {
+    @Id
+    private UUID id;
+
+    @Column(name = "plain_text", columnDefinition = "TEXT")
+    private String plainText;
+
+    // Constructors
+    public NoteSearchText() {}
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public String getPlainText() {
+        return plainText;
+    }
+}
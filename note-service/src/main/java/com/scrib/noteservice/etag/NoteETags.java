@@ -0,0 +1,62 @@
+package com.scrib.noteservice.etag;
+
+import com.scrib.common.dto.NoteDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * ETags for note responses. A single note's tag is strong and changes with {@code updated_at} and
+ * the enrichment columns, so it can be checked against {@link NoteVersion} without loading the body.
+ * List pages get weak tags.
+ */
+public final class NoteETags {
+
+    private NoteETags() {
+    }
+
+    public static String of(NoteDto note) {
+        return strong(note.getUpdatedAt(), note.getContentLength(), note.getLineCount(), note.getDetectedLanguage());
+    }
+
+    public static String of(NoteVersion version) {
+        return strong(version.getUpdatedAt(), version.getContentLength(), version.getLineCount(),
+                version.getDetectedLanguage());
+    }
+
+    // Covers every page of the user's list, so it is checked before the page is loaded
+    public static String of(NoteListVersion version, Pageable pageable) {
+        return weak(version.getRowCount(), micros(version.getLastUpdatedAt()), micros(version.getLastEnrichedAt()),
+                pageable.getPageNumber(), pageable.getPageSize());
+    }
+
+    // Built from the page as loaded; only saves the transfer, not the query
+    public static String of(Page<NoteDto> page) {
+        int hash = Objects.hash(page.getTotalElements(), page.getNumber(), page.getSize());
+        for (NoteDto note : page.getContent()) {
+            hash = 31 * hash + Objects.hash(note.getId(), of(note));
+        }
+        return "W/\"" + Integer.toHexString(hash) + "\"";
+    }
+
+    // Database timestamps have microsecond precision, so the tag never depends on finer digits
+    private static String strong(LocalDateTime updatedAt, Integer contentLength, Integer lineCount,
+                                 String detectedLanguage) {
+        return "\"" + Long.toHexString(micros(updatedAt)) + "-"
+                + Integer.toHexString(Objects.hash(contentLength, lineCount, detectedLanguage)) + "\"";
+    }
+
+    private static String weak(Object... parts) {
+        return "W/\"" + Integer.toHexString(Objects.hash(parts)) + "\"";
+    }
+
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return 0;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,29 @@
+package com.scrib.noteservice.etag;
+
+import java.time.LocalDateTime;
+
+// Summary of all of a user's note rows, deleted ones included: any create, edit, delete or enrichment changes it
+public class NoteListVersion {
+
+    private final Long rowCount;
+    private final LocalDateTime lastUpdatedAt;
+    private final LocalDateTime lastEnrichedAt;
+
+    public NoteListVersion(Long rowCount, LocalDateTime lastUpdatedAt, LocalDateTime lastEnrichedAt) {
+        this.rowCount = rowCount;
+        this.lastUpdatedAt = lastUpdatedAt;
+        this.lastEnrichedAt = lastEnrichedAt;
+    }
+
+    public Long getRowCount() {
+        return rowCount;
+    }
+
+    public LocalDateTime getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+
+    public LocalDateTime getLastEnrichedAt() {
+        return lastEnrichedAt;
+    }
+}
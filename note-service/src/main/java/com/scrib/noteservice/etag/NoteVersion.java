@@ -0,0 +1,35 @@
+package com.scrib.noteservice.etag;
+
+import java.time.LocalDateTime;
+
+// The columns a single-note ETag is built from; loaded without touching the body
+public class NoteVersion {
+
+    private final LocalDateTime updatedAt;
+    private final Integer contentLength;
+    private final Integer lineCount;
+    private final String detectedLanguage;
+
+    public NoteVersion(LocalDateTime updatedAt, Integer contentLength, Integer lineCount, String detectedLanguage) {
+        this.updatedAt = updatedAt;
+        this.contentLength = contentLength;
+        this.lineCount = lineCount;
+        this.detectedLanguage = detectedLanguage;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Integer getContentLength() {
+        return contentLength;
+    }
+
+    public Integer getLineCount() {
+        return lineCount;
+    }
+
+    public String getDetectedLanguage() {
+        return detectedLanguage;
+    }
+}
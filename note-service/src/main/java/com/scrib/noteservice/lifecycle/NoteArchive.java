@@ -0,0 +1,83 @@
+package com.scrib.noteservice.lifecycle;
+
+import com.scrib.common.datasource.ReplicaRoutingContext;
+import com.scrib.noteservice.repository.NoteRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Read side of {@code notes_archive} (see {@link NoteArchiveJob}). An archived live note is moved
+ * back into {@code notes} when it is asked for, in a transaction of its own on the primary, so the
+ * caller's read-only transaction may stay on a replica. Soft-deleted notes stay archived.
+ */
+@Service
+public class NoteArchive {
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Live notes only reach the archive when cold archiving is on; until then lists skip the lookup
+    @Value("${scrib.notes.archive.cold-after:0s}")
+    private Duration coldAfter;
+    
+    private TransactionTemplate restoreTransaction;
+    private TransactionTemplate lookupTransaction;
+    
+    @PostConstruct
+    void init() {
+        restoreTransaction = new TransactionTemplate(transactionManager);
+        restoreTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        lookupTransaction = new TransactionTemplate(transactionManager);
+        lookupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        lookupTransaction.setReadOnly(true);
+    }
+    
+    // Runs in the caller's transaction: a miss only pays for a restore when the note really is archived
+    public List<UUID> archivedAmong(Collection<UUID> ids) {
+        return noteRepository.findArchivedIds(ids);
+    }
+    
+    /**
+     * Moves the archived live notes among {@code ids} back, then runs {@code read} in the same
+     * transaction, where it sees them even if the caller's transaction reads from a lagging replica.
+     */
+    public <T> T restore(Collection<UUID> ids, Supplier<T> read) {
+        return restoreTransaction.execute(status -> {
+            noteRepository.suppressTouchTriggers();
+            noteRepository.copyFromArchive(ids);
+            noteRepository.markRestored(ids, LocalDateTime.now());
+            return read.get();
+        });
+    }
+    
+    /**
+     * Moves all of a user's archived live notes back before one of their lists is read. Call it
+     * before the caller's transaction runs its first statement: when anything came back, that
+     * transaction is pinned to the primary so the list includes it.
+     */
+    public void restoreNotesOf(UUID userId) {
+        if (coldAfter.isZero()) {
+            return;
+        }
+        List<UUID> archived = lookupTransaction.execute(status -> noteRepository.findArchivedIdsByUserId(userId));
+        if (!archived.isEmpty()) {
+            restore(archived, () -> null);
+            ReplicaRoutingContext.forcePrimaryForCurrentTransaction();
+        }
+    }
+}
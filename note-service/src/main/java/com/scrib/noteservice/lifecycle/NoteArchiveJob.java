@@ -0,0 +1,138 @@
+package com.scrib.noteservice.lifecycle;
+
+import com.scrib.common.shard.ShardRouter;
+import com.scrib.noteservice.repository.NoteRepository;
+import com.scrib.noteservice.repository.NoteRevisionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps {@code notes} (and its GIN/trigram indexes) down to the rows that are read: notes
+ * soft-deleted more than {@code deleted-retention} ago, and with {@code cold-after} set notes
+ * nobody has updated for that long, are moved to {@code notes_archive} in small batches with a
+ * pause between them. Purged notes lose their revisions; cold ones keep them and come back
+ * through {@link NoteArchive} when they are next asked for. Revisions left behind by notes that
+ * went away without being purged here (a deleted user's) are dropped on the same run.
+ */
+@Component
+@ConditionalOnProperty(name = "scrib.notes.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class NoteArchiveJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NoteArchiveJob.class);
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private NoteRevisionRepository noteRevisionRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Value("${scrib.notes.archive.deleted-retention:P30D}")
+    private Duration deletedRetention;
+    
+    // Zero keeps live notes in notes however old they are
+    @Value("${scrib.notes.archive.cold-after:0s}")
+    private Duration coldAfter;
+    
+    @Value("${scrib.notes.archive.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${scrib.notes.archive.batch-pause:200ms}")
+    private Duration batchPause;
+    
+    // Whatever is left over waits for the next run
+    @Value("${scrib.notes.archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+    
+    @Scheduled(cron = "${scrib.notes.archive.cron:0 37 4 * * *}")
+    public void archive() {
+        shardRouter.forEachShard(this::archiveShard);
+    }
+    
+    private void archiveShard() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime deletedBefore = now.minus(deletedRetention);
+        int purged = moveInBatches(limit -> noteRepository.lockDeletedBefore(deletedBefore, limit), true);
+        int cold = 0;
+        if (!coldAfter.isZero()) {
+            LocalDateTime updatedBefore = now.minus(coldAfter);
+            cold = moveInBatches(limit -> noteRepository.lockUpdatedBefore(updatedBefore, limit), false);
+        }
+        if (purged + cold > 0) {
+            logger.info("Note archive: moved {} soft-deleted and {} cold notes out of notes", purged, cold);
+        }
+        int orphaned = dropOrphanedRevisions();
+        if (orphaned > 0) {
+            logger.info("Note archive: dropped the revisions of {} notes that no longer exist", orphaned);
+        }
+    }
+    
+    private int moveInBatches(IntFunction<List<UUID>> lockBatch, boolean dropRevisions) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int moved = transactionTemplate.execute(status -> {
+                List<UUID> ids = lockBatch.apply(batchSize);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                noteRepository.deleteRestoreMarkers(ids);
+                noteRepository.copyToArchive(ids, LocalDateTime.now());
+                if (dropRevisions) {
+                    noteRevisionRepository.deleteByNoteIds(ids);
+                }
+                return noteRepository.deleteArchivedRows(ids);
+            });
+            total += moved;
+            if (moved < batchSize || !pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+    
+    private int dropOrphanedRevisions() {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int notes = transactionTemplate.execute(status -> {
+                List<UUID> noteIds = noteRevisionRepository.findOrphanedNoteIds(batchSize);
+                if (!noteIds.isEmpty()) {
+                    noteRevisionRepository.deleteByNoteIds(noteIds);
+                }
+                return noteIds.size();
+            });
+            total += notes;
+            if (notes < batchSize || !pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+    
+    // Leaves room for foreground writes (and replicas) between batches
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
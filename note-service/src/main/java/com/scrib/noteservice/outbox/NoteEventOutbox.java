@@ -0,0 +1,24 @@
+package com.scrib.noteservice.outbox;
+
+import com.scrib.noteservice.entity.Note;
+import com.scrib.noteservice.entity.NoteEvent;
+import com.scrib.noteservice.repository.NoteEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+public class NoteEventOutbox {
+    
+    @Autowired
+    private NoteEventRepository noteEventRepository;
+    
+    // Commits or rolls back with the note change that caused it
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Note note, NoteEvent.Type type) {
+        noteEventRepository.save(new NoteEvent(note.getId(), note.getUserId(), type, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.scrib.noteservice.outbox;
+
+import com.scrib.common.shard.ShardRouter;
+import com.scrib.noteservice.entity.NoteEvent;
+import com.scrib.noteservice.repository.NoteEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes outbox rows to the note-events Redis stream in id order. A batch is marked published
+ * in the transaction that locked it, only after every XADD succeeded, so a failure or crash
+ * re-sends the batch: delivery is at-least-once and consumers de-duplicate on {@code eventId}.
+ * Sharded, each shard's outbox is relayed in turn, so ids are only ordered within a shard.
+ */
+@Component
+@ConditionalOnProperty(name = "scrib.notes.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class NoteEventRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NoteEventRelay.class);
+    
+    @Autowired
+    private NoteEventRepository noteEventRepository;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Value("${scrib.notes.outbox.stream-key:scrib:note-events}")
+    private String streamKey;
+    
+    @Value("${scrib.notes.outbox.relay.batch-size:200}")
+    private int batchSize;
+    
+    // Approximate; consumers further behind than this fall back to their own catch-up
+    @Value("${scrib.notes.outbox.stream-max-length:100000}")
+    private long streamMaxLength;
+    
+    @Value("${scrib.notes.outbox.retention:P1D}")
+    private Duration retention;
+    
+    @Value("${scrib.notes.outbox.cleanup-batch-size:5000}")
+    private int cleanupBatchSize;
+    
+    @Scheduled(fixedDelayString = "${scrib.notes.outbox.relay.interval:250}")
+    public void relay() {
+        shardRouter.forEachShard(this::relayShard);
+    }
+    
+    private void relayShard() {
+        try {
+            int published;
+            int total = 0;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+                total += published;
+            } while (published == batchSize);
+            if (total > 0) {
+                redisTemplate.opsForStream().trim(streamKey, streamMaxLength, true);
+            }
+        } catch (RuntimeException e) {
+            // Nothing was marked published; the same rows are retried on the next run
+            logger.warn("Relaying note events to {} failed: {}", streamKey, e.getMessage());
+        }
+    }
+    
+    private int publishBatch() {
+        List<NoteEvent> batch = noteEventRepository.lockUnpublished(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        for (NoteEvent event : batch) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            fields.put("eventId", event.getId().toString());
+            fields.put("type", event.getType().name());
+            fields.put("noteId", event.getNoteId().toString());
+            fields.put("userId", event.getUserId().toString());
+            fields.put("occurredAt", event.getOccurredAt().toString());
+            redisTemplate.opsForStream().add(StreamRecords.mapBacked(fields).withStreamKey(streamKey));
+        }
+        noteEventRepository.markPublished(batch.stream().map(NoteEvent::getId).toList(), LocalDateTime.now());
+        return batch.size();
+    }
+    
+    @Scheduled(cron = "${scrib.notes.outbox.cleanup-cron:0 47 * * * *}")
+    public void deletePublished() {
+        shardRouter.forEachShard(this::deletePublishedBatches);
+    }
+    
+    private void deletePublishedBatches() {
+        LocalDateTime publishedBefore = LocalDateTime.now().minus(retention);
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    noteEventRepository.deletePublishedBefore(publishedBefore, cleanupBatchSize));
+        } while (deleted == cleanupBatchSize);
+    }
+}
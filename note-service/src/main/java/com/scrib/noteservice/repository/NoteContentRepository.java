@@ -0,0 +1,39 @@
+package com.scrib.noteservice.repository;
+
+import com.scrib.noteservice.entity.NoteContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface NoteContentRepository extends JpaRepository<NoteContent, String> {
+    
+    // Identical bodies are stored once; a concurrent insert of the same hash is a no-op
+    @Modifying
+    @Query(value = "INSERT INTO note_contents (hash, encoding, raw_length, body, created_at, last_used_at) " +
+                   "VALUES (:hash, :encoding, :rawLength, :body, :now, :now) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash,
+                       @Param("encoding") String encoding,
+                       @Param("rawLength") int rawLength,
+                       @Param("body") byte[] body,
+                       @Param("now") LocalDateTime now);
+    
+    // Keeps a reused body out of garbage collection; throttled so hot bodies aren't rewritten on every save
+    @Modifying
+    @Query(value = "UPDATE note_contents SET last_used_at = :now WHERE hash = :hash AND last_used_at < :staleBefore",
+           nativeQuery = true)
+    int touch(@Param("hash") String hash, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+    
+    @Modifying
+    @Query(value = "DELETE FROM note_contents c WHERE c.hash IN (" +
+                   "SELECT u.hash FROM note_contents u WHERE u.last_used_at < :unusedSince " +
+                   "AND NOT EXISTS (SELECT 1 FROM notes n WHERE n.content_hash = u.hash) " +
+                   "AND NOT EXISTS (SELECT 1 FROM note_revisions r WHERE r.content_hash = u.hash) " +
+                   "AND NOT EXISTS (SELECT 1 FROM notes_archive a WHERE a.content_hash = u.hash) LIMIT :limit)",
+           nativeQuery = true)
+    int deleteUnreferenced(@Param("unusedSince") LocalDateTime unusedSince, @Param("limit") int limit);
+}
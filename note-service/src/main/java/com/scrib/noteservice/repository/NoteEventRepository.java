@@ -0,0 +1,29 @@
+package com.scrib.noteservice.repository;
+
+import com.scrib.noteservice.entity.NoteEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NoteEventRepository extends JpaRepository<NoteEvent, Long> {
+    
+    // Row locks let several note-service instances relay side by side without publishing the same batch
+    @Query(value = "SELECT * FROM note_events WHERE published_at IS NULL ORDER BY id LIMIT :limit " +
+                   "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NoteEvent> lockUnpublished(@Param("limit") int limit);
+    
+    @Modifying
+    @Query("UPDATE NoteEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+    
+    @Modifying
+    @Query(value = "DELETE FROM note_events WHERE id IN (SELECT id FROM note_events " +
+                   "WHERE published_at < :publishedBefore LIMIT :limit)", nativeQuery = true)
+    int deletePublishedBefore(@Param("publishedBefore") LocalDateTime publishedBefore, @Param("limit") int limit);
+}
@@ -1,13 +1,18 @@
 package com.scrib.noteservice.repository;
 
 import com.scrib.noteservice.entity.Note;
+import com.scrib.noteservice.etag.NoteListVersion;
+import com.scrib.noteservice.etag.NoteVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,6 +20,10 @@ import java.util.UUID;
 @Repository
 public interface NoteRepository extends JpaRepository<Note, UUID> {
     
+    // Every notes column; notes_archive has the same ones plus archived_at
+    String ARCHIVE_COLUMNS = "id, user_id, title, content, visibility, code_language, created_at, updated_at, " +
+            "deleted_at, plain_text, content_length, line_count, detected_language, enriched_at, content_hash";
+    
     @Query("SELECT n FROM Note n WHERE n.id = :id AND n.deletedAt IS NULL")
     Optional<Note> findByIdAndNotDeleted(@Param("id") UUID id);
     
@@ -24,23 +33,49 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
     @Query("SELECT n FROM Note n WHERE n.id = :id AND n.userId = :userId AND n.deletedAt IS NULL")
     Optional<Note> findByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
     
+    // What getNote would return for this caller (their own note or a public one), without the body
+    @Query("SELECT new com.scrib.noteservice.etag.NoteVersion(n.updatedAt, n.contentLength, n.lineCount, n.detectedLanguage) " +
+           "FROM Note n WHERE n.id = :id AND n.deletedAt IS NULL AND (n.visibility = 'PUBLIC' OR n.userId = :userId)")
+    Optional<NoteVersion> findVersion(@Param("id") UUID id, @Param("userId") UUID userId);
+    
+    // Batch form of the getNote lookups, bodies fetched in the same query
+    @Query("SELECT n FROM Note n LEFT JOIN FETCH n.body WHERE n.id IN :ids AND n.deletedAt IS NULL " +
+           "AND (n.visibility = 'PUBLIC' OR n.userId = :userId)")
+    List<Note> findVisibleByIds(@Param("ids") Collection<UUID> ids, @Param("userId") UUID userId);
+    
+    @Query("SELECT new com.scrib.noteservice.etag.NoteListVersion(COUNT(n), MAX(n.updatedAt), MAX(n.enrichedAt)) " +
+           "FROM Note n WHERE n.userId = :userId")
+    NoteListVersion findListVersion(@Param("userId") UUID userId);
+    
     @Query("SELECT n FROM Note n WHERE n.visibility = 'PUBLIC' AND n.deletedAt IS NULL")
     Page<Note> findPublicNotes(Pageable pageable);
     
     @Query("SELECT n FROM Note n WHERE n.userId = :userId AND n.deletedAt IS NULL")
     Page<Note> findByUserId(@Param("userId") UUID userId, Pageable pageable);
     
+    // Changes feed: soft-deleted rows included, walked along idx_notes_user_changes
+    @Query("SELECT n FROM Note n WHERE n.userId = :userId AND n.updatedAt < :until AND " +
+           "(n.updatedAt > :since OR (n.updatedAt = :since AND n.id > :sinceId)) " +
+           "ORDER BY n.updatedAt, n.id")
+    List<Note> findChangesSince(@Param("userId") UUID userId,
+                                @Param("since") LocalDateTime since,
+                                @Param("sinceId") UUID sinceId,
+                                @Param("until") LocalDateTime until,
+                                Pageable pageable);
+    
     @Query("SELECT n FROM Note n WHERE n.visibility = :visibility AND n.deletedAt IS NULL")
     Page<Note> findByVisibility(@Param("visibility") Note.Visibility visibility, Pageable pageable);
     
-    @Query("SELECT n FROM Note n WHERE n.codeLanguage = :language AND n.deletedAt IS NULL")
+    // Notes without an explicit language match on the one detected from their content
+    @Query("SELECT n FROM Note n WHERE COALESCE(n.codeLanguage, n.detectedLanguage) = :language AND n.deletedAt IS NULL")
     Page<Note> findByCodeLanguage(@Param("language") String language, Pageable pageable);
     
     @Query("SELECT n FROM Note n WHERE " +
            "(:title IS NULL OR LOWER(n.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
-           "(:content IS NULL OR LOWER(n.content) LIKE LOWER(CONCAT('%', :content, '%'))) AND " +
+           "(:content IS NULL OR n.id IN (SELECT t.id FROM NoteSearchText t " +
+           "    WHERE LOWER(t.plainText) LIKE LOWER(CONCAT('%', :content, '%')))) AND " +
            "(:visibility IS NULL OR n.visibility = :visibility) AND " +
-           "(:language IS NULL OR n.codeLanguage = :language) AND " +
+           "(:language IS NULL OR COALESCE(n.codeLanguage, n.detectedLanguage) = :language) AND " +
            "n.deletedAt IS NULL")
     Page<Note> searchNotes(@Param("title") String title, 
                            @Param("content") String content,
@@ -51,9 +86,10 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
     @Query("SELECT n FROM Note n WHERE " +
            "n.userId = :userId AND " +
            "(:title IS NULL OR LOWER(n.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
-           "(:content IS NULL OR LOWER(n.content) LIKE LOWER(CONCAT('%', :content, '%'))) AND " +
+           "(:content IS NULL OR n.id IN (SELECT t.id FROM NoteSearchText t " +
+           "    WHERE LOWER(t.plainText) LIKE LOWER(CONCAT('%', :content, '%')))) AND " +
            "(:visibility IS NULL OR n.visibility = :visibility) AND " +
-           "(:language IS NULL OR n.codeLanguage = :language) AND " +
+           "(:language IS NULL OR COALESCE(n.codeLanguage, n.detectedLanguage) = :language) AND " +
            "n.deletedAt IS NULL")
     Page<Note> searchUserNotes(@Param("userId") UUID userId,
                                @Param("title") String title, 
@@ -62,6 +98,90 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
                                @Param("language") String language,
                                Pageable pageable);
     
-    @Query("SELECT DISTINCT n.codeLanguage FROM Note n WHERE n.codeLanguage IS NOT NULL AND n.deletedAt IS NULL")
+    @Query("SELECT DISTINCT COALESCE(n.codeLanguage, n.detectedLanguage) FROM Note n " +
+           "WHERE COALESCE(n.codeLanguage, n.detectedLanguage) IS NOT NULL AND n.deletedAt IS NULL")
     List<String> findDistinctCodeLanguages();
+    
+    @Query("SELECT n.id FROM Note n WHERE n.enrichedAt IS NULL AND n.deletedAt IS NULL ORDER BY n.updatedAt")
+    List<UUID> findUnenrichedIds(Pageable pageable);
+    
+    // Native so plain_text (not mapped here) can be written; the update trigger ignores these columns
+    @Modifying
+    @Query(value = "UPDATE notes SET plain_text = :plainText, content_length = :contentLength, " +
+                   "line_count = :lineCount, detected_language = :detectedLanguage, enriched_at = :enrichedAt " +
+                   "WHERE id = :id AND updated_at = :updatedAt", nativeQuery = true)
+    int saveEnrichment(@Param("id") UUID id,
+                       @Param("updatedAt") LocalDateTime updatedAt,
+                       @Param("plainText") String plainText,
+                       @Param("contentLength") int contentLength,
+                       @Param("lineCount") int lineCount,
+                       @Param("detectedLanguage") String detectedLanguage,
+                       @Param("enrichedAt") LocalDateTime enrichedAt);
+    
+    @Query(value = "SELECT id FROM notes WHERE content IS NOT NULL LIMIT :limit", nativeQuery = true)
+    List<UUID> findIdsWithInlineContent(@Param("limit") int limit);
+    
+    // Transaction-local; the notes triggers skip updated_at and user activity while it is set
+    @Query(value = "SELECT set_config('scrib.suppress_touch', 'on', true)", nativeQuery = true)
+    String suppressTouchTriggers();
+    
+    @Modifying
+    @Query(value = "UPDATE notes SET content = NULL, content_hash = :contentHash " +
+                   "WHERE id = :id AND updated_at = :updatedAt AND content IS NOT NULL", nativeQuery = true)
+    int moveContentToStore(@Param("id") UUID id,
+                           @Param("updatedAt") LocalDateTime updatedAt,
+                           @Param("contentHash") String contentHash);
+    
+    // Archive job: oldest first, row-locked so an edit racing the move waits for it (and other instances skip it)
+    @Query(value = "SELECT id FROM notes WHERE deleted_at < :deletedBefore ORDER BY deleted_at " +
+                   "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockDeletedBefore(@Param("deletedBefore") LocalDateTime deletedBefore, @Param("limit") int limit);
+    
+    // Notes restored since updatedBefore stay, so a note that is read but never edited doesn't bounce every run
+    @Query(value = "SELECT n.id FROM notes n WHERE n.deleted_at IS NULL AND n.updated_at < :updatedBefore " +
+                   "AND NOT EXISTS (SELECT 1 FROM notes_archive a WHERE a.id = n.id AND a.restored_at >= :updatedBefore) " +
+                   "ORDER BY n.updated_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockUpdatedBefore(@Param("updatedBefore") LocalDateTime updatedBefore, @Param("limit") int limit);
+    
+    // Leftovers of earlier restores, replaced by the copy
+    @Modifying
+    @Query(value = "DELETE FROM notes_archive WHERE id IN (:ids) AND restored_at IS NOT NULL", nativeQuery = true)
+    int deleteRestoreMarkers(@Param("ids") Collection<UUID> ids);
+    
+    @Modifying
+    @Query(value = "INSERT INTO notes_archive (" + ARCHIVE_COLUMNS + ", archived_at) " +
+                   "SELECT " + ARCHIVE_COLUMNS + ", :archivedAt FROM notes WHERE id IN (:ids)", nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<UUID> ids, @Param("archivedAt") LocalDateTime archivedAt);
+    
+    @Modifying
+    @Query(value = "DELETE FROM notes WHERE id IN (:ids)", nativeQuery = true)
+    int deleteArchivedRows(@Param("ids") Collection<UUID> ids);
+    
+    // Only live notes come back; soft-deleted ones stay archived
+    @Query(value = "SELECT id FROM notes_archive WHERE id IN (:ids) AND deleted_at IS NULL AND restored_at IS NULL",
+           nativeQuery = true)
+    List<UUID> findArchivedIds(@Param("ids") Collection<UUID> ids);
+    
+    @Query(value = "SELECT id FROM notes_archive WHERE user_id = :userId AND deleted_at IS NULL AND restored_at IS NULL",
+           nativeQuery = true)
+    List<UUID> findArchivedIdsByUserId(@Param("userId") UUID userId);
+    
+    // Changes feed: a client whose token is behind an archived tombstone can no longer catch up incrementally
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM notes_archive WHERE user_id = :userId " +
+                   "AND deleted_at IS NOT NULL AND updated_at > :since)", nativeQuery = true)
+    boolean existsArchivedDeletionSince(@Param("userId") UUID userId, @Param("since") LocalDateTime since);
+    
+    // A concurrent restore of the same note is a no-op
+    @Modifying
+    @Query(value = "INSERT INTO notes (" + ARCHIVE_COLUMNS + ") SELECT " + ARCHIVE_COLUMNS + " FROM notes_archive " +
+                   "WHERE id IN (:ids) AND deleted_at IS NULL AND restored_at IS NULL ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int copyFromArchive(@Param("ids") Collection<UUID> ids);
+    
+    // The archived copy is emptied rather than deleted: restored_at is what lockUpdatedBefore checks
+    @Modifying
+    @Query(value = "UPDATE notes_archive SET restored_at = :restoredAt, content = NULL, plain_text = NULL, " +
+                   "content_hash = NULL WHERE id IN (:ids) AND deleted_at IS NULL AND restored_at IS NULL",
+           nativeQuery = true)
+    int markRestored(@Param("ids") Collection<UUID> ids, @Param("restoredAt") LocalDateTime restoredAt);
 }
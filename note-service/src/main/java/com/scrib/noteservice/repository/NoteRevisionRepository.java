@@ -0,0 +1,44 @@
+package com.scrib.noteservice.repository;
+
+import com.scrib.noteservice.entity.NoteRevision;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface NoteRevisionRepository extends JpaRepository<NoteRevision, UUID> {
+    
+    Optional<NoteRevision> findFirstByNoteIdOrderByRevisionNumberDesc(UUID noteId);
+    
+    Optional<NoteRevision> findByNoteIdAndRevisionNumber(UUID noteId, int revisionNumber);
+    
+    Page<NoteRevision> findByNoteIdOrderByRevisionNumberDesc(UUID noteId, Pageable pageable);
+    
+    // Snapshot first, then the deltas to replay on it
+    @Query("SELECT r FROM NoteRevision r WHERE r.noteId = :noteId " +
+           "AND r.revisionNumber BETWEEN :fromRevision AND :toRevision ORDER BY r.revisionNumber")
+    List<NoteRevision> findChain(@Param("noteId") UUID noteId,
+                                 @Param("fromRevision") int fromRevision,
+                                 @Param("toRevision") int toRevision);
+    
+    // Notes gone from both notes and notes_archive, e.g. through the cascade of a user delete
+    @Query(value = "SELECT DISTINCT r.note_id FROM note_revisions r " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM notes n WHERE n.id = r.note_id) " +
+                   "AND NOT EXISTS (SELECT 1 FROM notes_archive a WHERE a.id = r.note_id) " +
+                   "LIMIT :limit", nativeQuery = true)
+    List<UUID> findOrphanedNoteIds(@Param("limit") int limit);
+    
+    // No FK cascade from notes (revisions of archived notes are kept), so purged notes drop theirs here
+    @Modifying
+    @Query(value = "DELETE FROM note_revisions WHERE note_id IN (:noteIds)", nativeQuery = true)
+    int deleteByNoteIds(@Param("noteIds") Collection<UUID> noteIds);
+}
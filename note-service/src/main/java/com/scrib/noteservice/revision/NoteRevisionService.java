@@ -0,0 +1,195 @@
+package com.scrib.noteservice.revision;
+
+import com.scrib.common.dto.NoteRevisionDto;
+import com.scrib.noteservice.content.NoteContentStore;
+import com.scrib.noteservice.entity.Note;
+import com.scrib.noteservice.entity.NoteContent;
+import com.scrib.noteservice.entity.NoteRevision;
+import com.scrib.noteservice.repository.NoteRevisionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Revision history of notes. Each save becomes a DELTA against the previous revision until the
+ * deltas since the last SNAPSHOT would insert more text than the note holds (or the chain gets
+ * too long); then a snapshot, which shares its body with the note in the content store, starts a
+ * new chain. Storage per edit therefore stays proportional to the edit, and rebuilding any revision
+ * reads one snapshot plus at most {@code max-chain-length} deltas no larger than the note.
+ *
+ * <p>Saves within {@code coalesce-window} of the latest revision are folded into it, so an
+ * auto-save burst produces one revision, but never for longer than {@code max-coalesce-span}.
+ */
+@Service
+public class NoteRevisionService {
+    
+    @Autowired
+    private NoteRevisionRepository noteRevisionRepository;
+    
+    @Autowired
+    private NoteContentStore noteContentStore;
+    
+    @Value("${scrib.notes.revisions.coalesce-window:60s}")
+    private Duration coalesceWindow;
+    
+    @Value("${scrib.notes.revisions.max-coalesce-span:10m}")
+    private Duration maxCoalesceSpan;
+    
+    @Value("${scrib.notes.revisions.max-chain-length:50}")
+    private int maxChainLength;
+    
+    // Called once the new note has its body in the content store
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Note note) {
+        NoteRevision revision = new NoteRevision(note.getId(), 1, LocalDateTime.now());
+        describe(revision, note);
+        revision.makeSnapshot(note.getContentHash(), note.getBody(), length(note.getContent()));
+        noteRevisionRepository.save(revision);
+    }
+    
+    /**
+     * Latest revision of a note about to be edited. Notes from before revisions existed get a
+     * snapshot of their current state first, dated when that state was saved, so the edit
+     * neither loses it nor is coalesced into it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public NoteRevision latestBeforeEdit(Note note) {
+        return noteRevisionRepository.findFirstByNoteIdOrderByRevisionNumberDesc(note.getId())
+                .orElseGet(() -> {
+                    String content = note.getContent();
+                    String hash = note.getContentHash();
+                    NoteContent body = note.getBody();
+                    if (hash == null) {
+                        body = noteContentStore.store(content);
+                        hash = body.getHash();
+                    }
+                    LocalDateTime savedAt = note.getUpdatedAt() != null ? note.getUpdatedAt() : LocalDateTime.now();
+                    NoteRevision baseline = new NoteRevision(note.getId(), 1, savedAt);
+                    describe(baseline, note);
+                    baseline.makeSnapshot(hash, body, length(content));
+                    return noteRevisionRepository.save(baseline);
+                });
+    }
+    
+    /**
+     * Records the edited note on top of {@code latest}. {@code previousContent} is the body before
+     * the edit and is only read when {@code bodyChanged}; an explicit restore passes
+     * {@code coalesce = false} so the state it replaces stays recoverable.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordEdit(Note note, NoteRevision latest, String previousContent,
+                           boolean bodyChanged, boolean coalesce) {
+        LocalDateTime now = LocalDateTime.now();
+        String content = bodyChanged ? note.getContent() : null;
+        int contentLength = bodyChanged ? length(content) : latest.getContentLength();
+        TextDelta delta = bodyChanged
+                ? TextDelta.between(previousContent != null ? previousContent : "", content != null ? content : "")
+                : TextDelta.unchanged(contentLength);
+        
+        if (coalesce && isCoalescable(latest, now)) {
+            describe(latest, note);
+            latest.setUpdatedAt(now);
+            if (latest.isSnapshot()) {
+                if (bodyChanged) {
+                    latest.makeSnapshot(note.getContentHash(), note.getBody(), contentLength);
+                }
+            } else if (bodyChanged) {
+                TextDelta merged = delta(latest).then(delta, content != null ? content : "");
+                int chainChars = latest.getChainChars() - latest.getInserted().length() + merged.getInserted().length();
+                if (chainChars > contentLength) {
+                    latest.makeSnapshot(note.getContentHash(), note.getBody(), contentLength);
+                } else {
+                    latest.makeDelta(latest.getBaseRevision(), latest.getChainLength(), chainChars,
+                            merged.getPrefixLength(), merged.getSuffixLength(), merged.getInserted(), contentLength);
+                }
+            }
+            noteRevisionRepository.save(latest);
+            return;
+        }
+        
+        NoteRevision revision = new NoteRevision(note.getId(), latest.getRevisionNumber() + 1, now);
+        describe(revision, note);
+        int chainChars = latest.getChainChars() + delta.getInserted().length();
+        if (latest.getChainLength() + 1 > maxChainLength || chainChars > contentLength) {
+            revision.makeSnapshot(note.getContentHash(), note.getBody(), contentLength);
+        } else {
+            revision.makeDelta(latest.getBaseRevision(), latest.getChainLength() + 1, chainChars,
+                    delta.getPrefixLength(), delta.getSuffixLength(), delta.getInserted(), contentLength);
+        }
+        noteRevisionRepository.save(revision);
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<NoteRevisionDto> getRevisions(UUID noteId, Pageable pageable) {
+        return noteRevisionRepository.findByNoteIdOrderByRevisionNumberDesc(noteId, pageable)
+                .map(this::convertToDto);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<NoteRevisionDto> getRevision(UUID noteId, int revisionNumber) {
+        return noteRevisionRepository.findByNoteIdAndRevisionNumber(noteId, revisionNumber)
+                .map(revision -> {
+                    NoteRevisionDto dto = convertToDto(revision);
+                    dto.setContent(reconstruct(revision));
+                    return dto;
+                });
+    }
+    
+    private String reconstruct(NoteRevision revision) {
+        List<NoteRevision> chain = noteRevisionRepository.findChain(
+                revision.getNoteId(), revision.getBaseRevision(), revision.getRevisionNumber());
+        if (chain.isEmpty() || !chain.get(0).isSnapshot()) {
+            throw new IllegalStateException("Revision " + revision.getRevisionNumber() + " of note "
+                    + revision.getNoteId() + " has no base snapshot");
+        }
+        String text = chain.get(0).getBody().getText();
+        for (NoteRevision step : chain.subList(1, chain.size())) {
+            text = delta(step).apply(text);
+        }
+        if (text.length() != revision.getContentLength()) {
+            throw new IllegalStateException("Revision " + revision.getRevisionNumber() + " of note "
+                    + revision.getNoteId() + " rebuilt to an unexpected length");
+        }
+        return text;
+    }
+    
+    private boolean isCoalescable(NoteRevision latest, LocalDateTime now) {
+        return latest.getUpdatedAt().isAfter(now.minus(coalesceWindow))
+                && latest.getCreatedAt().isAfter(now.minus(maxCoalesceSpan));
+    }
+    
+    private static void describe(NoteRevision revision, Note note) {
+        revision.setTitle(note.getTitle());
+        revision.setCodeLanguage(note.getCodeLanguage());
+    }
+    
+    private static TextDelta delta(NoteRevision revision) {
+        return new TextDelta(revision.getPrefixLength(), revision.getSuffixLength(), revision.getInserted());
+    }
+    
+    private static int length(String content) {
+        return content != null ? content.length() : 0;
+    }
+    
+    private NoteRevisionDto convertToDto(NoteRevision revision) {
+        return new NoteRevisionDto(
+                revision.getNoteId(),
+                revision.getRevisionNumber(),
+                revision.getTitle(),
+                revision.getCodeLanguage(),
+                revision.getContentLength(),
+                revision.getCreatedAt(),
+                revision.getUpdatedAt()
+        );
+    }
+}
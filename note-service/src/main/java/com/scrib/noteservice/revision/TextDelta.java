@@ -0,0 +1,73 @@
+package com.scrib.noteservice.revision;
+
+/**
+ * Edit between two texts as "keep the first {@code prefixLength} chars, then {@code inserted},
+ * then the last {@code suffixLength} chars". An editor save usually touches one region, so the
+ * delta is about the size of that region rather than of the note.
+ */
+final class TextDelta {
+
+    private final int prefixLength;
+    private final int suffixLength;
+    private final String inserted;
+
+    TextDelta(int prefixLength, int suffixLength, String inserted) {
+        this.prefixLength = prefixLength;
+        this.suffixLength = suffixLength;
+        this.inserted = inserted;
+    }
+
+    static TextDelta between(String from, String to) {
+        int max = Math.min(from.length(), to.length());
+        int prefix = 0;
+        while (prefix < max && from.charAt(prefix) == to.charAt(prefix)) {
+            prefix++;
+        }
+        // Never split a surrogate pair across the kept and replaced parts
+        if (prefix > 0 && prefix < max && Character.isHighSurrogate(to.charAt(prefix - 1))) {
+            prefix--;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+                && from.charAt(from.length() - 1 - suffix) == to.charAt(to.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (suffix > 0 && suffix < max - prefix && Character.isLowSurrogate(to.charAt(to.length() - suffix))) {
+            suffix--;
+        }
+        return new TextDelta(prefix, suffix, to.substring(prefix, to.length() - suffix));
+    }
+
+    static TextDelta unchanged(int length) {
+        return new TextDelta(length, 0, "");
+    }
+
+    String apply(String base) {
+        if (prefixLength + suffixLength > base.length()) {
+            throw new IllegalStateException("Delta does not fit a base of " + base.length() + " chars");
+        }
+        return base.substring(0, prefixLength) + inserted + base.substring(base.length() - suffixLength);
+    }
+
+    /**
+     * Delta equivalent to applying this one and then {@code next}, where {@code result} is the
+     * text after both. Whatever both kept is still shared by the first base and the result.
+     */
+    TextDelta then(TextDelta next, String result) {
+        int prefix = Math.min(prefixLength, next.prefixLength);
+        int suffix = Math.min(suffixLength, next.suffixLength);
+        return new TextDelta(prefix, suffix, result.substring(prefix, result.length() - suffix));
+    }
+
+    int getPrefixLength() {
+        return prefixLength;
+    }
+
+    int getSuffixLength() {
+        return suffixLength;
+    }
+
+    String getInserted() {
+        return inserted;
+    }
+}
@@ -1,111 +1,374 @@
 package com.scrib.noteservice.service;
 
+import com.scrib.common.datasource.ReadYourWritesTracker;
+import com.scrib.common.datasource.ReplicaRoutingContext;
 import com.scrib.common.dto.NoteDto;
+import com.scrib.common.dto.NoteRevisionDto;
+import com.scrib.common.shard.ShardContext;
+import com.scrib.common.shard.ShardRouter;
+import com.scrib.common.user.UserDirectory;
+import com.scrib.noteservice.cache.PublicNoteCache;
+import com.scrib.noteservice.content.NoteContentStore;
+import com.scrib.noteservice.enrichment.NoteContentChangedEvent;
+import com.scrib.noteservice.etag.NoteETags;
+import com.scrib.noteservice.lifecycle.NoteArchive;
+import com.scrib.noteservice.outbox.NoteEventOutbox;
 import com.scrib.noteservice.entity.Note;
+import com.scrib.noteservice.entity.NoteEvent;
+import com.scrib.noteservice.entity.NoteRevision;
 import com.scrib.noteservice.repository.NoteRepository;
+import com.scrib.noteservice.revision.NoteRevisionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 @Transactional
 public class NoteService {
     
+    // Order of merged pages across shards when the caller asks for none
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+    // The public feed's order, same as search-service's PublicTimeline
+    private static final Sort PUBLIC_FEED_ORDER = NEWEST_FIRST.and(Sort.by("id"));
+    
     @Autowired
     private NoteRepository noteRepository;
     
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    
+    @Autowired
+    private NoteContentStore noteContentStore;
+    
+    @Autowired
+    private NoteRevisionService noteRevisionService;
+    
+    @Autowired
+    private NoteEventOutbox noteEventOutbox;
+    
+    @Autowired
+    private UserDirectory userDirectory;
+    
+    @Autowired
+    private PublicNoteCache publicNoteCache;
+    
+    @Autowired
+    private NoteArchive noteArchive;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${scrib.notes.batch-get.max-ids:100}")
+    private int maxBatchGetIds;
+    
     public NoteDto createNote(NoteDto noteDto) {
+        shardRouter.routeTo(noteDto.getUserId());
         Note note = new Note(
                 noteDto.getUserId(),
                 noteDto.getTitle(),
-                noteDto.getContent(),
                 Note.Visibility.valueOf(noteDto.getVisibility().name()),
                 noteDto.getCodeLanguage()
         );
+        note.replaceContent(noteDto.getContent(), noteContentStore.store(noteDto.getContent()));
         
         Note savedNote = noteRepository.save(note);
+        noteRevisionService.recordCreated(savedNote);
+        noteEventOutbox.record(savedNote, NoteEvent.Type.CREATED);
+        readYourWritesTracker.recordWrite(savedNote.getUserId());
+        eventPublisher.publishEvent(new NoteContentChangedEvent(savedNote.getId(), ShardContext.current()));
         return convertToDto(savedNote);
     }
     
-    @CacheEvict(value = "notes", key = "#id")
+    @Caching(evict = {@CacheEvict(value = "notes", key = "#id"), @CacheEvict(value = "publicNotes", key = "#id")})
     public NoteDto updateNote(UUID id, NoteDto noteDto) {
-        Note note = noteRepository.findByIdAndUserId(id, noteDto.getUserId())
-                .orElseThrow(() -> new IllegalArgumentException("Note not found or access denied"));
+        shardRouter.routeTo(noteDto.getUserId());
+        Note note = findOwnNote(id, noteDto.getUserId());
+        return applyUpdate(note, noteDto, true);
+    }
+    
+    // Restoring starts a new revision rather than folding into the one being replaced
+    @Caching(evict = {@CacheEvict(value = "notes", key = "#id"), @CacheEvict(value = "publicNotes", key = "#id")})
+    public NoteDto restoreRevision(UUID id, UUID userId, int revisionNumber) {
+        shardRouter.routeTo(userId);
+        Note note = findOwnNote(id, userId);
+        NoteRevisionDto revision = noteRevisionService.getRevision(id, revisionNumber)
+                .orElseThrow(() -> new IllegalArgumentException("Revision not found"));
+        
+        NoteDto noteDto = convertToDto(note);
+        noteDto.setTitle(revision.getTitle());
+        noteDto.setContent(revision.getContent());
+        noteDto.setCodeLanguage(revision.getCodeLanguage());
+        return applyUpdate(note, noteDto, false);
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<NoteRevisionDto> getRevisions(UUID id, UUID userId, Pageable pageable) {
+        shardRouter.routeTo(userId);
+        requireOwnNote(id, userId);
+        return noteRevisionService.getRevisions(id, pageable);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<NoteRevisionDto> getRevision(UUID id, UUID userId, int revisionNumber) {
+        shardRouter.routeTo(userId);
+        requireOwnNote(id, userId);
+        return noteRevisionService.getRevision(id, revisionNumber);
+    }
+    
+    private NoteDto applyUpdate(Note note, NoteDto noteDto, boolean coalesceRevision) {
+        // Compared by hash so an update never loads the stored body
+        boolean bodyChanged = !NoteContentStore.hash(noteDto.getContent()).equals(note.getContentHash());
+        boolean contentChanged = bodyChanged
+                || !Objects.equals(note.getCodeLanguage(), noteDto.getCodeLanguage());
+        boolean revisionChanged = contentChanged || !Objects.equals(note.getTitle(), noteDto.getTitle());
+        boolean changed = revisionChanged || !note.getVisibility().name().equals(noteDto.getVisibility().name());
+        
+        // Taken before the edit: the previous body is only read when the delta needs it
+        NoteRevision latestRevision = revisionChanged ? noteRevisionService.latestBeforeEdit(note) : null;
+        String previousContent = revisionChanged && bodyChanged ? note.getContent() : null;
         
         note.setTitle(noteDto.getTitle());
-        note.setContent(noteDto.getContent());
+        if (bodyChanged) {
+            note.replaceContent(noteDto.getContent(), noteContentStore.store(noteDto.getContent()));
+        }
         note.setVisibility(Note.Visibility.valueOf(noteDto.getVisibility().name()));
         note.setCodeLanguage(noteDto.getCodeLanguage());
+        if (contentChanged) {
+            // Derived columns describe the old body until enrichment catches up
+            note.setEnrichedAt(null);
+            note.setContentLength(null);
+            note.setLineCount(null);
+            note.setDetectedLanguage(null);
+        }
         
         Note updatedNote = noteRepository.save(note);
+        if (revisionChanged) {
+            noteRevisionService.recordEdit(updatedNote, latestRevision, previousContent, bodyChanged, coalesceRevision);
+        }
+        if (changed) {
+            noteEventOutbox.record(updatedNote, NoteEvent.Type.UPDATED);
+        }
+        readYourWritesTracker.recordWrite(updatedNote.getUserId());
+        if (contentChanged) {
+            eventPublisher.publishEvent(new NoteContentChangedEvent(updatedNote.getId(), ShardContext.current()));
+        }
         return convertToDto(updatedNote);
     }
     
-    @CacheEvict(value = "notes", key = "#id")
+    @Caching(evict = {@CacheEvict(value = "notes", key = "#id"), @CacheEvict(value = "publicNotes", key = "#id")})
     public void deleteNote(UUID id, UUID userId) {
-        Note note = noteRepository.findByIdAndUserId(id, userId)
-                .orElseThrow(() -> new IllegalArgumentException("Note not found or access denied"));
+        shardRouter.routeTo(userId);
+        Note note = findOwnNote(id, userId);
         
         note.setDeletedAt(LocalDateTime.now());
         noteRepository.save(note);
+        noteEventOutbox.record(note, NoteEvent.Type.DELETED);
+        readYourWritesTracker.recordWrite(userId);
     }
     
-    @Cacheable(value = "notes", key = "#id")
+    @Cacheable(value = "notes", key = "#id", sync = true)
+    @Transactional(readOnly = true)
     public Optional<NoteDto> getNoteById(UUID id) {
-        return noteRepository.findByIdAndNotDeleted(id)
-                .map(this::convertToDto);
+        return shardRouter.findFirst(() ->
+                findOrRestore(id, () -> noteRepository.findByIdAndNotDeleted(id), this::convertToDto));
     }
     
-    @Cacheable(value = "publicNotes", key = "#id")
+    @Cacheable(value = "publicNotes", key = "#id", sync = true)
+    @Transactional(readOnly = true)
     public Optional<NoteDto> getPublicNoteById(UUID id) {
-        return noteRepository.findPublicById(id)
-                .map(this::convertToDto);
+        return shardRouter.findFirst(() ->
+                findOrRestore(id, () -> noteRepository.findPublicById(id), this::convertToDto));
     }
     
+    @Transactional(readOnly = true)
     public Optional<NoteDto> getUserNoteById(UUID id, UUID userId) {
-        return noteRepository.findByIdAndUserId(id, userId)
-                .map(this::convertToDto);
+        shardRouter.routeTo(userId);
+        pinToPrimaryAfterRecentWrite(userId);
+        return findOrRestore(id, () -> noteRepository.findByIdAndUserId(id, userId), this::convertToDto);
+    }
+    
+    /**
+     * Notes among {@code ids} that getNote would return to this caller, in request order; unknown,
+     * deleted and other users' private notes are left out. Public notes come from the cache where it
+     * has them, everything else from one query (and archived notes among the rest from a restore).
+     */
+    @Transactional(readOnly = true)
+    public List<NoteDto> getNotesByIds(Collection<UUID> ids, UUID userId) {
+        Set<UUID> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > maxBatchGetIds) {
+            throw new IllegalArgumentException("At most " + maxBatchGetIds + " ids per request");
+        }
+        if (userId != null) {
+            pinToPrimaryAfterRecentWrite(userId);
+        }
+        
+        Map<UUID, NoteDto> found = publicNoteCache.getAll(requested);
+        Set<UUID> misses = new LinkedHashSet<>(requested);
+        misses.removeAll(found.keySet());
+        if (!misses.isEmpty()) {
+            for (List<NoteDto> loaded : shardRouter.onEveryShard(() -> findVisible(misses, userId))) {
+                for (NoteDto dto : loaded) {
+                    found.put(dto.getId(), dto);
+                    if (dto.getVisibility() == NoteDto.Visibility.PUBLIC) {
+                        publicNoteCache.put(dto);
+                    }
+                }
+            }
+        }
+        
+        List<NoteDto> notes = new ArrayList<>(found.size());
+        for (UUID id : requested) {
+            NoteDto note = found.get(id);
+            if (note != null) {
+                notes.add(note);
+            }
+        }
+        userDirectory.fillUsernames(notes);
+        return notes;
+    }
+    
+    // Tag of the note getNote would return, from metadata only; empty when there is none
+    @Transactional(readOnly = true)
+    public Optional<String> getNoteETag(UUID id, UUID userId) {
+        if (userId != null) {
+            pinToPrimaryAfterRecentWrite(userId);
+        }
+        return shardRouter.findFirst(() -> noteRepository.findVersion(id, userId))
+                .map(NoteETags::of);
     }
     
+    @Transactional(readOnly = true)
+    public String getUserNotesETag(UUID userId, Pageable pageable) {
+        shardRouter.routeTo(userId);
+        pinToPrimaryAfterRecentWrite(userId);
+        return NoteETags.of(noteRepository.findListVersion(userId), pageable);
+    }
+    
+    @Transactional(readOnly = true)
     public Page<NoteDto> getPublicNotes(Pageable pageable) {
-        return noteRepository.findPublicNotes(pageable)
-                .map(this::convertToDto);
+        Pageable ordered = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), PUBLIC_FEED_ORDER);
+        return withAuthors(shardRouter.mergedPage(ordered, PUBLIC_FEED_ORDER, page ->
+                noteRepository.findPublicNotes(page).map(this::convertToDto)));
     }
     
+    @Transactional(readOnly = true)
     public Page<NoteDto> getUserNotes(UUID userId, Pageable pageable) {
-        return noteRepository.findByUserId(userId, pageable)
-                .map(this::convertToDto);
+        shardRouter.routeTo(userId);
+        noteArchive.restoreNotesOf(userId);
+        pinToPrimaryAfterRecentWrite(userId);
+        return withAuthors(noteRepository.findByUserId(userId, pageable)
+                .map(this::convertToDto));
     }
     
+    @Transactional(readOnly = true)
     public Page<NoteDto> searchNotes(String title, String content, 
                                    Note.Visibility visibility, String language, 
                                    Pageable pageable) {
-        return noteRepository.searchNotes(title, content, visibility, language, pageable)
-                .map(this::convertToDto);
+        return withAuthors(shardRouter.mergedPage(pageable, NEWEST_FIRST, page ->
+                noteRepository.searchNotes(title, content, visibility, language, page).map(this::convertToDto)));
     }
     
+    @Transactional(readOnly = true)
     public Page<NoteDto> searchUserNotes(UUID userId, String title, String content,
                                        Note.Visibility visibility, String language,
                                        Pageable pageable) {
-        return noteRepository.searchUserNotes(userId, title, content, visibility, language, pageable)
-                .map(this::convertToDto);
+        shardRouter.routeTo(userId);
+        noteArchive.restoreNotesOf(userId);
+        pinToPrimaryAfterRecentWrite(userId);
+        return withAuthors(noteRepository.searchUserNotes(userId, title, content, visibility, language, pageable)
+                .map(this::convertToDto));
     }
     
+    @Transactional(readOnly = true)
     public List<String> getAvailableCodeLanguages() {
-        return noteRepository.findDistinctCodeLanguages();
+        Set<String> languages = new LinkedHashSet<>();
+        shardRouter.onEveryShard(noteRepository::findDistinctCodeLanguages).forEach(languages::addAll);
+        return new ArrayList<>(languages);
+    }
+    
+    // Visible notes among ids on the current shard, moving back any the archive job moved out
+    private List<NoteDto> findVisible(Set<UUID> ids, UUID userId) {
+        List<NoteDto> loaded = new ArrayList<>();
+        noteRepository.findVisibleByIds(ids, userId).forEach(note -> loaded.add(convertToDto(note)));
+        Set<UUID> missing = new LinkedHashSet<>(ids);
+        loaded.forEach(dto -> missing.remove(dto.getId()));
+        List<UUID> archived = missing.isEmpty() ? List.of() : noteArchive.archivedAmong(missing);
+        if (!archived.isEmpty()) {
+            loaded.addAll(noteArchive.restore(archived, () -> noteRepository.findVisibleByIds(archived, userId)
+                    .stream().map(this::convertToDto).toList()));
+        }
+        return loaded;
+    }
+    
+    // Note the caller is about to edit, loaded into this (read-write, so primary) transaction
+    private Note findOwnNote(UUID id, UUID userId) {
+        Supplier<Optional<Note>> lookup = () -> noteRepository.findByIdAndUserId(id, userId);
+        return lookup.get()
+                .or(() -> restoreArchived(id, lookup, Note::getId).flatMap(restored -> lookup.get()))
+                .orElseThrow(() -> new IllegalArgumentException("Note not found or access denied"));
+    }
+    
+    private void requireOwnNote(UUID id, UUID userId) {
+        findOrRestore(id, () -> noteRepository.findByIdAndUserId(id, userId), Note::getId)
+                .orElseThrow(() -> new IllegalArgumentException("Note not found or access denied"));
+    }
+    
+    private <T> Optional<T> findOrRestore(UUID id, Supplier<Optional<Note>> lookup, Function<Note, T> mapper) {
+        return lookup.get()
+                .map(mapper)
+                .or(() -> restoreArchived(id, lookup, mapper));
+    }
+    
+    // A miss may be a note the archive job moved out: it is moved back and looked up again in the
+    // restoring transaction, which is on the primary even when this one reads from a replica
+    private <T> Optional<T> restoreArchived(UUID id, Supplier<Optional<Note>> lookup, Function<Note, T> mapper) {
+        if (noteArchive.archivedAmong(List.of(id)).isEmpty()) {
+            return Optional.empty();
+        }
+        return noteArchive.restore(List.of(id), () -> lookup.get().map(mapper));
+    }
+    
+    // Author names for a page of notes cost one users query at most
+    private Page<NoteDto> withAuthors(Page<NoteDto> page) {
+        userDirectory.fillUsernames(page.getContent());
+        return page;
+    }
+    
+    // Read-only transactions normally go to a replica; a user who just wrote reads their own notes from the primary
+    private void pinToPrimaryAfterRecentWrite(UUID userId) {
+        if (readYourWritesTracker.requiresPrimary(userId)) {
+            ReplicaRoutingContext.forcePrimaryForCurrentTransaction();
+        }
     }
     
     private NoteDto convertToDto(Note note) {
-        return new NoteDto(
+        NoteDto dto = new NoteDto(
                 note.getId(),
                 note.getUserId(),
                 note.getTitle(),
@@ -116,5 +379,9 @@ public class NoteService {
                 note.getUpdatedAt(),
                 note.getDeletedAt()
         );
+        dto.setContentLength(note.getContentLength());
+        dto.setLineCount(note.getLineCount());
+        dto.setDetectedLanguage(note.getDetectedLanguage());
+        return dto;
     }
 }
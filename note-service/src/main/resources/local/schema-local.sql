@@ -0,0 +1,23 @@
+-- H2 stand-in for the Postgres-only types referenced by the JPA mappings
+CREATE DOMAIN IF NOT EXISTS visibility_enum AS VARCHAR(20);
+
+-- Not mapped by JPA, so ddl-auto doesn't create it; restore-on-access reads it
+CREATE TABLE IF NOT EXISTS notes_archive (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    title VARCHAR(255),
+    content TEXT,
+    visibility visibility_enum NOT NULL,
+    code_language VARCHAR(50),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    deleted_at TIMESTAMP,
+    plain_text TEXT,
+    content_length INTEGER,
+    line_count INTEGER,
+    detected_language VARCHAR(50),
+    enriched_at TIMESTAMP,
+    content_hash VARCHAR(64),
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    restored_at TIMESTAMP
+);
@@ -0,0 +1,79 @@
+-- Note tables for an extra H2 shard (application-local-sharded.yml). ddl-auto only sees the home
+-- database, so shards get their tables here; users stay in the home database, hence no user FKs
+CREATE DOMAIN IF NOT EXISTS visibility_enum AS VARCHAR(20);
+
+CREATE TABLE IF NOT EXISTS note_contents (
+    hash VARCHAR(64) PRIMARY KEY,
+    encoding VARCHAR(16) NOT NULL,
+    raw_length INTEGER NOT NULL,
+    body VARBINARY(67108864) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    last_used_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS notes (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    title VARCHAR(255),
+    content TEXT,
+    visibility visibility_enum NOT NULL,
+    code_language VARCHAR(50),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    deleted_at TIMESTAMP,
+    plain_text TEXT,
+    content_length INTEGER,
+    line_count INTEGER,
+    detected_language VARCHAR(50),
+    enriched_at TIMESTAMP,
+    content_hash VARCHAR(64)
+);
+
+CREATE TABLE IF NOT EXISTS note_revisions (
+    id UUID PRIMARY KEY,
+    note_id UUID NOT NULL,
+    revision_number INTEGER NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    base_revision INTEGER NOT NULL,
+    chain_length INTEGER NOT NULL,
+    chain_chars INTEGER NOT NULL,
+    title VARCHAR(255),
+    code_language VARCHAR(50),
+    content_length INTEGER NOT NULL,
+    content_hash VARCHAR(64),
+    prefix_length INTEGER,
+    suffix_length INTEGER,
+    inserted TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    UNIQUE (note_id, revision_number)
+);
+
+CREATE TABLE IF NOT EXISTS note_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    note_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    occurred_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS notes_archive (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    title VARCHAR(255),
+    content TEXT,
+    visibility visibility_enum NOT NULL,
+    code_language VARCHAR(50),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    deleted_at TIMESTAMP,
+    plain_text TEXT,
+    content_length INTEGER,
+    line_count INTEGER,
+    detected_language VARCHAR(50),
+    enriched_at TIMESTAMP,
+    content_hash VARCHAR(64),
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    restored_at TIMESTAMP
+);
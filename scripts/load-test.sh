@@ -0,0 +1,88 @@
+#!/bin/bash
+
+# Scrib Backend Load Test Script
+# Starts every service on the offline "local" profile (H2 + in-process cache, no Redis),
+# drives the gateway with the load-test module and prints p50/p95/p99 per operation.
+#
+# Usage: ./scripts/load-test.sh [--duration=60s] [--warmup=10s] [--scenarios=feed:8,search:4,autosave:2,signup:1]
+# Any arguments are passed straight to the load test driver. PROFILES=local,local-sharded runs
+# note-service and search-service on two H2 shards.
+
+set -e
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+PROJECT_ROOT="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+RUN_DIR="$PROJECT_ROOT/target/load-test"
+DATA_DIR="$RUN_DIR/data"
+LOG_DIR="$RUN_DIR/logs"
+REPORT_FILE="$RUN_DIR/report.json"
+MVN_FLAGS="${MVN_FLAGS:--o -q}"
+PROFILES="${PROFILES:-local}"
+
+SERVICES=("user-service:9201" "note-service:9202" "search-service:9203" "gateway-service:9200")
+PIDS=()
+
+print_status() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+print_success() {
+    echo -e "${GREEN}[SUCCESS]${NC} $1"
+}
+
+print_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+stop_all() {
+    # Each service runs in its own process group so the forked JVM goes down with Maven
+    for pid in "${PIDS[@]}"; do
+        kill -- "-$pid" 2>/dev/null || true
+    done
+    wait 2>/dev/null || true
+}
+trap stop_all EXIT
+
+wait_for_port() {
+    local name=$1
+    local port=$2
+    for _ in $(seq 1 60); do
+        if (echo > "/dev/tcp/127.0.0.1/$port") 2>/dev/null; then
+            print_success "$name is listening on $port"
+            return 0
+        fi
+        sleep 2
+    done
+    print_error "$name did not start, see $LOG_DIR/$name.log"
+    return 1
+}
+
+rm -rf "$DATA_DIR"
+mkdir -p "$DATA_DIR" "$LOG_DIR"
+
+print_status "Building modules (MVN_FLAGS=$MVN_FLAGS)..."
+(cd "$PROJECT_ROOT" && mvn $MVN_FLAGS install -DskipTests)
+
+for entry in "${SERVICES[@]}"; do
+    name="${entry%%:*}"
+    port="${entry##*:}"
+    print_status "Starting $name on profiles $PROFILES..."
+    (cd "$PROJECT_ROOT/$name" && setsid mvn $MVN_FLAGS spring-boot:run \
+        -Dspring-boot.run.profiles="$PROFILES" \
+        -Dspring-boot.run.jvmArguments="-Dscrib.local.data-dir=$DATA_DIR") > "$LOG_DIR/$name.log" 2>&1 &
+    PIDS+=($!)
+    wait_for_port "$name" "$port"
+done
+
+print_status "Running load test..."
+java -jar "$PROJECT_ROOT/load-test/target/load-test-1.0.0.jar" \
+    --base-url=http://localhost:9200 \
+    --report="$REPORT_FILE" \
+    "$@"
+
+print_success "Report written to $REPORT_FILE"
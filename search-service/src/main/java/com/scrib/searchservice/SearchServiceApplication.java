@@ -1,11 +1,23 @@
 package com.scrib.searchservice;
 
+import com.scrib.common.cache.CacheConfig;
+import com.scrib.common.datasource.ReplicaDataSourceConfig;
+import com.scrib.common.limit.ConcurrencyLimitConfig;
+import com.scrib.common.shard.ShardDataSourceConfig;
+import com.scrib.common.user.UserDirectoryConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableCaching
+// Cache lookups wrap the transaction, so hits never open one and background refreshes start their own
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableScheduling
+@Import({CacheConfig.class, ConcurrencyLimitConfig.class, ReplicaDataSourceConfig.class, ShardDataSourceConfig.class,
+        UserDirectoryConfig.class})
 public class SearchServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(SearchServiceApplication.class, args);
@@ -3,6 +3,7 @@ package com.scrib.searchservice.controller;
 import com.scrib.common.dto.ApiResponse;
 import com.scrib.common.dto.NoteDto;
 import com.scrib.common.dto.SearchRequest;
+import com.scrib.common.dto.SuggestionDto;
 import com.scrib.searchservice.service.SearchService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,6 +35,15 @@ public class SearchController {
         return ResponseEntity.ok(ApiResponse.success(results));
     }
     
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<SuggestionDto>>> suggest(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "userId", required = false) UUID userId,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        List<SuggestionDto> suggestions = searchService.suggest(prefix, userId, limit);
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
+    }
+    
     @GetMapping("/notes/public")
     public ResponseEntity<ApiResponse<Page<NoteDto>>> getPublicNotes(
             @RequestParam(value = "page", defaultValue = "0") int page,
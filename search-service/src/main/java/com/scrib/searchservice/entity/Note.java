@@ -28,8 +28,13 @@ public class Note {
     @Column(name = "title", length = 255)
     private String title;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_hash", referencedColumnName = "hash", insertable = false, updatable = false)
+    private NoteContent body;
+
+    // Inline body of rows not yet moved to note_contents by note-service
     @Column(name = "content", columnDefinition = "TEXT")
-    private String content;
+    private String legacyContent;
 
     @Convert(converter = VisibilityConverter.class)
     @Column(name = "visibility", nullable = false, columnDefinition = "visibility_enum")
@@ -49,6 +54,19 @@ public class Note {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    // Derived from content by the enrichment stage; null until it has run for the current content
+    @Column(name = "content_length")
+    private Integer contentLength;
+
+    @Column(name = "line_count")
+    private Integer lineCount;
+
+    @Column(name = "detected_language", length = 50)
+    private String detectedLanguage;
+
+    @Column(name = "enriched_at")
+    private LocalDateTime enrichedAt;
+
     public enum Visibility {
         PUBLIC, PRIVATE
     }
@@ -81,12 +99,12 @@ public class Note {
         this.title = title;
     }
 
+    // Loads the body from the content store unless the row still holds it inline
     public String getContent() {
-        return content;
-    }
-
-    public void setContent(String content) {
-        this.content = content;
+        if (legacyContent != null) {
+            return legacyContent;
+        }
+        return body != null ? body.getText() : null;
     }
 
     public Visibility getVisibility() {
@@ -128,4 +146,36 @@ public class Note {
     public void setDeletedAt(LocalDateTime deletedAt) {
         this.deletedAt = deletedAt;
     }
+
+    public Integer getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Integer contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public Integer getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(Integer lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public String getDetectedLanguage() {
+        return detectedLanguage;
+    }
+
+    public void setDetectedLanguage(String detectedLanguage) {
+        this.detectedLanguage = detectedLanguage;
+    }
+
+    public LocalDateTime getEnrichedAt() {
+        return enrichedAt;
+    }
+
+    public void setEnrichedAt(LocalDateTime enrichedAt) {
+        this.enrichedAt = enrichedAt;
+    }
 }
@@ -0,0 +1,31 @@
+package com.scrib.searchservice.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.util.UUID;
+
+// Read-only view of notes.plain_text for search predicates and highlights, kept off Note so feed and list
+// queries never drag it along
+@Entity
+@Immutable
+@Table(name = "notes")
+public class NoteSearchText {
+    @Id
+    private UUID id;
+
+    @Column(name = "plain_text", columnDefinition = "TEXT")
+    private String plainText;
+
+    // Constructors
+    public NoteSearchText() {}
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public String getPlainText() {
+        return plainText;
+    }
+}
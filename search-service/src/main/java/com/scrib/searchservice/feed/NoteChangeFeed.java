@@ -0,0 +1,167 @@
+package com.scrib.searchservice.feed;
+
+import com.scrib.common.shard.ShardContext;
+import com.scrib.common.shard.ShardRouter;
+import com.scrib.searchservice.entity.Note;
+import com.scrib.searchservice.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Polls the shared notes table for rows whose {@code updated_at} moved and hands them to every
+ * {@link NoteChangeListener}. Note-service stamps {@code updated_at} inside the writing transaction,
+ * so a row can become visible after a later-stamped one; each poll therefore re-reads the last
+ * {@code overlap} of history and relies on listeners ignoring versions they already hold.
+ *
+ * <p>{@link #nudge()} runs a poll right away instead of waiting for the next tick; the note-events
+ * stream consumer calls it so changes show up without shortening the poll interval.
+ *
+ * <p>Sharded, every shard is polled in turn with a cursor of its own, since one shard's clock
+ * and write rate say nothing about another's.
+ */
+@Component
+public class NoteChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteChangeFeed.class);
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Postgres orders uuids as unsigned bytes, so the nil uuid sorts first
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+    // Cursor key when unsharded (ShardContext.current() is null)
+    private static final String HOME = "";
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired(required = false)
+    private List<NoteChangeListener> listeners = List.of();
+
+    @Value("${scrib.search.feed.batch-size:500}")
+    private int batchSize;
+
+    @Value("${scrib.search.feed.overlap-seconds:5}")
+    private long overlapSeconds;
+
+    private volatile LocalDateTime startCursor;
+    private final Map<String, LocalDateTime> cursors = new ConcurrentHashMap<>();
+    private volatile boolean started;
+    private volatile boolean caughtUp;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // Set while a nudged poll is queued, so a burst of events costs one extra poll
+    private final AtomicBoolean nudgePending = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        startCursor = listeners.stream()
+                .map(NoteChangeListener::resumeFrom)
+                .map(from -> from == null ? BEGINNING : from)
+                .min(LocalDateTime::compareTo)
+                .orElse(BEGINNING);
+        started = true;
+        logger.info("Note change feed starting from {} for {} listener(s)", startCursor, listeners.size());
+    }
+
+    @Scheduled(fixedDelayString = "${scrib.search.feed.poll-interval:2000}")
+    public synchronized void poll() {
+        if (!started) {
+            return;
+        }
+        try {
+            shardRouter.forEachShard(this::pollShard);
+
+            if (!caughtUp) {
+                caughtUp = true;
+                listeners.forEach(NoteChangeListener::onCaughtUp);
+                logger.info("Note change feed caught up at {}", getCursor());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Note change feed poll failed, retrying on next tick: {}", e.getMessage());
+        }
+    }
+
+    private void pollShard() {
+        String shard = Objects.requireNonNullElse(ShardContext.current(), HOME);
+        LocalDateTime cursor = cursors.getOrDefault(shard, startCursor);
+        LocalDateTime since = cursor.minusSeconds(overlapSeconds);
+        UUID afterId = MIN_ID;
+        LocalDateTime newest = cursor;
+        List<Note> batch;
+        do {
+            LocalDateTime from = since;
+            UUID after = afterId;
+            // Listeners run inside the read so they can load note bodies from the content store
+            batch = readOnlyTransaction.execute(status -> {
+                List<Note> changed = noteRepository.findChangedAfter(from, after, PageRequest.of(0, batchSize));
+                for (NoteChangeListener listener : listeners) {
+                    listener.onNotesChanged(changed);
+                }
+                return changed;
+            });
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            Note last = batch.get(batch.size() - 1);
+            since = last.getUpdatedAt();
+            afterId = last.getId();
+            if (since.isAfter(newest)) {
+                newest = since;
+            }
+        } while (batch.size() == batchSize);
+        cursors.put(shard, newest);
+    }
+
+    public void nudge() {
+        if (started && nudgePending.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                nudgePending.set(false);
+                poll();
+            }, Instant.now());
+        }
+    }
+
+    public boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    // The least advanced shard's cursor
+    public LocalDateTime getCursor() {
+        return cursors.values().stream()
+                .min(LocalDateTime::compareTo)
+                .orElse(Objects.requireNonNullElse(startCursor, BEGINNING));
+    }
+}
@@ -0,0 +1,25 @@
+package com.scrib.searchservice.feed;
+
+import com.scrib.searchservice.entity.Note;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Receives note changes from {@link NoteChangeFeed} in {@code updated_at} order. Batches may repeat
+ * notes the listener has already seen (the feed re-reads a short overlap window), so implementations
+ * must treat an unchanged {@code updatedAt} as a no-op. Deleted notes arrive with {@code deletedAt} set.
+ */
+public interface NoteChangeListener {
+
+    // Where this listener's state is current up to; null asks for a full replay
+    default LocalDateTime resumeFrom() {
+        return null;
+    }
+
+    void onNotesChanged(List<Note> notes);
+
+    // Called once, after the first poll that reached the head of the table
+    default void onCaughtUp() {
+    }
+}
@@ -0,0 +1,75 @@
+package com.scrib.searchservice.feed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Tails note-service's note-events stream and nudges the {@link NoteChangeFeed}. Every replica
+ * keeps its own in-memory indexes, so every replica has to see every event: this is a plain
+ * {@code XREAD} from the end of the stream with the offset kept in this instance, not a consumer
+ * group (which would hand each event to one replica only). Events published while an instance is
+ * down are not replayed; the feed's catch-up poll covers them, so losing Redis only costs latency.
+ */
+@Component
+@ConditionalOnProperty(name = "scrib.search.feed.stream.enabled", havingValue = "true", matchIfMissing = true)
+public class NoteEventStreamConsumer implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoteEventStreamConsumer.class);
+
+    @Autowired
+    private NoteChangeFeed noteChangeFeed;
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Value("${scrib.search.feed.stream.key:scrib:note-events}")
+    private String streamKey;
+
+    @Value("${scrib.search.feed.stream.batch-size:100}")
+    private int batchSize;
+
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            container = StreamMessageListenerContainer.create(redisConnectionFactory,
+                    StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                            .batchSize(batchSize)
+                            .pollTimeout(Duration.ofSeconds(1))
+                            .build());
+            // Starts at "$", then follows the id of the last event read
+            container.register(StreamMessageListenerContainer.StreamReadRequest
+                            .builder(StreamOffset.create(streamKey, ReadOffset.latest()))
+                            .cancelOnError(error -> false)
+                            .errorHandler(error -> logger.debug("Reading {} failed: {}", streamKey, error.getMessage()))
+                            .build(),
+                    record -> noteChangeFeed.nudge());
+            container.start();
+            logger.info("Tailing {}", streamKey);
+        } catch (RuntimeException e) {
+            logger.warn("Note events stream unavailable, relying on polling only: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
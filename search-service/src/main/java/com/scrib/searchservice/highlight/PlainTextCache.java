@@ -0,0 +1,58 @@
+package com.scrib.searchservice.highlight;
+
+import com.scrib.common.text.HtmlText;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// LRU of stripped note bodies, bounded by total characters, so markup is not re-parsed per query
+@Component
+public class PlainTextCache {
+
+    private final Map<UUID, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalChars;
+
+    @Value("${scrib.search.highlight.cache-max-chars:16777216}")
+    private long maxChars;
+
+    // html is only asked for on a miss, so a cached note never has its body loaded
+    public String plainText(UUID noteId, LocalDateTime updatedAt, Supplier<String> html) {
+        synchronized (this) {
+            Entry entry = entries.get(noteId);
+            if (entry != null && Objects.equals(entry.updatedAt, updatedAt)) {
+                return entry.text;
+            }
+        }
+        String text = HtmlText.toPlainText(html.get());
+        synchronized (this) {
+            Entry previous = entries.put(noteId, new Entry(updatedAt, text));
+            if (previous != null) {
+                totalChars -= previous.text.length();
+            }
+            totalChars += text.length();
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (totalChars > maxChars && eldest.hasNext()) {
+                totalChars -= eldest.next().text.length();
+                eldest.remove();
+            }
+        }
+        return text;
+    }
+
+    private static final class Entry {
+        private final LocalDateTime updatedAt;
+        private final String text;
+
+        private Entry(LocalDateTime updatedAt, String text) {
+            this.updatedAt = updatedAt;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.scrib.searchservice.highlight;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cuts a few short fragments around query matches out of a note's plain text. Matching is a single
+ * case-insensitive left-to-right pass (longest term wins at a position) that stops once enough
+ * fragments are filled, so cost is bounded by where the matches are rather than by note size.
+ * Fragment text is HTML-escaped and matches are wrapped in {@code <mark>}.
+ */
+public class SnippetExtractor {
+
+    static final int MAX_FRAGMENTS = 3;
+    static final int FRAGMENT_LENGTH = 200;
+    static final int CONTEXT_BEFORE = 60;
+    private static final int BOUNDARY_SLACK = 20;
+    private static final String ELLIPSIS = "\u2026";
+
+    private SnippetExtractor() {}
+
+    public static List<String> extract(String text, List<String> terms) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> sortedTerms = new ArrayList<>();
+        for (String term : terms) {
+            if (term != null && !term.isBlank() && !sortedTerms.contains(term)) {
+                sortedTerms.add(term);
+            }
+        }
+        sortedTerms.sort(Comparator.comparingInt(String::length).reversed());
+
+        List<String> fragments = new ArrayList<>(MAX_FRAGMENTS);
+        List<int[]> matches = new ArrayList<>();
+        int position = 0;
+        while (fragments.size() < MAX_FRAGMENTS) {
+            int[] first = nextMatch(text, sortedTerms, position);
+            if (first == null) {
+                break;
+            }
+            int start = snapStart(text, Math.max(0, first[0] - CONTEXT_BEFORE));
+            int end = snapEnd(text, Math.min(text.length(), start + FRAGMENT_LENGTH));
+            end = Math.max(end, first[1]);
+
+            matches.clear();
+            matches.add(first);
+            int[] match = first;
+            while ((match = nextMatch(text, sortedTerms, match[1])) != null && match[1] <= end) {
+                matches.add(match);
+            }
+            fragments.add(render(text, start, end, matches));
+            position = end;
+        }
+        if (fragments.isEmpty()) {
+            // Matched on the title or fuzzily: show the opening of the note instead
+            fragments.add(render(text, 0, snapEnd(text, Math.min(text.length(), FRAGMENT_LENGTH)), List.of()));
+        }
+        return fragments;
+    }
+
+    private static int[] nextMatch(String text, List<String> terms, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            for (String term : terms) {
+                if (Character.toLowerCase(term.charAt(0)) == c
+                        && text.regionMatches(true, i, term, 0, term.length())) {
+                    return new int[] {i, i + term.length()};
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int snapStart(String text, int start) {
+        if (start == 0) {
+            return 0;
+        }
+        for (int i = start; i < Math.min(text.length(), start + BOUNDARY_SLACK); i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    private static int snapEnd(String text, int end) {
+        if (end >= text.length()) {
+            return text.length();
+        }
+        for (int i = end; i > Math.max(0, end - BOUNDARY_SLACK); i--) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static String render(String text, int start, int end, List<int[]> matches) {
+        StringBuilder out = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            out.append(ELLIPSIS);
+        }
+        int position = start;
+        for (int[] match : matches) {
+            escape(text, position, match[0], out);
+            out.append("<mark>");
+            escape(text, match[0], match[1], out);
+            out.append("</mark>");
+            position = match[1];
+        }
+        escape(text, position, end, out);
+        if (end < text.length()) {
+            out.append(ELLIPSIS);
+        }
+        return out.toString().strip();
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.scrib.searchservice.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over note titles and plain-text content, ranked with BM25.
+ *
+ * <p>Updates never rewrite postings: a changed note gets a fresh doc id and its previous doc is
+ * tombstoned in the {@link DocTable}. Tombstones are dropped when the index is written out with
+ * {@link #writeSnapshot(Path)}; {@link #load(Path, CodeTokenizer)} memory-maps such a snapshot and
+ * serves its posting lists straight from the mapping. Readers share a read lock, mutations take
+ * the write lock.
+ */
+public class CodeSearchIndex {
+
+    private static final int MAGIC = 0x53434958;
+    private static final int VERSION = 1;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2;
+
+    private final CodeTokenizer tokenizer;
+    private final DocTable docs;
+    private final Map<String, PostingList> postings;
+    private final Map<UUID, Integer> docByNote;
+    private final List<String> languages = new ArrayList<>();
+    private final Map<String, Short> languageIds = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int liveDocs;
+    private long liveLength;
+    private long maxUpdatedAtMicros = Long.MIN_VALUE;
+
+    public CodeSearchIndex(CodeTokenizer tokenizer) {
+        this(tokenizer, 1024);
+    }
+
+    private CodeSearchIndex(CodeTokenizer tokenizer, int expectedDocs) {
+        this.tokenizer = tokenizer;
+        this.docs = new DocTable(expectedDocs);
+        this.postings = new HashMap<>(Math.max(16, expectedDocs * 4));
+        this.docByNote = new HashMap<>(Math.max(16, expectedDocs * 2));
+        languageId("");
+    }
+
+    /**
+     * Indexes the document, replacing any older version of the same note. Returns false when the
+     * index already holds this or a newer version, which makes replays from the change feed harmless.
+     */
+    public boolean upsert(IndexDocument document) {
+        long updatedAt = toMicros(document.getUpdatedAt());
+        Map<String, int[]> termFrequencies = new HashMap<>();
+        tokenizer.tokenize(document.getTitle(), document.getCodeLanguage(),
+                (term, keyword) -> count(termFrequencies, term, keyword, TITLE_WEIGHT));
+        tokenizer.tokenize(document.getPlainText(), document.getCodeLanguage(),
+                (term, keyword) -> count(termFrequencies, term, keyword, 1));
+        int docLength = 0;
+        for (int[] frequency : termFrequencies.values()) {
+            docLength += frequency[0];
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByNote.get(document.getNoteId());
+            if (existing != null) {
+                if (docs.updatedAtMicros(existing) >= updatedAt) {
+                    return false;
+                }
+                tombstone(existing);
+            }
+            short language = languageId(normalizeLanguage(document.getCodeLanguage()));
+            int docId = docs.add(document.getNoteId(), document.getOwnerId(), document.isPublic(),
+                    language, docLength, updatedAt);
+            for (Map.Entry<String, int[]> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(docId, entry.getValue()[0]);
+            }
+            docByNote.put(document.getNoteId(), docId);
+            liveDocs++;
+            liveLength += docLength;
+            maxUpdatedAtMicros = Math.max(maxUpdatedAtMicros, updatedAt);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID noteId, LocalDateTime updatedAt) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByNote.remove(noteId);
+            if (existing != null) {
+                tombstone(existing);
+            }
+            if (updatedAt != null) {
+                maxUpdatedAtMicros = Math.max(maxUpdatedAtMicros, toMicros(updatedAt));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public IndexHits search(IndexQuery query) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenizer.tokenize(query.getText(), query.getCodeLanguage(), (term, keyword) -> terms.add(term));
+        if (terms.isEmpty()) {
+            return new IndexHits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return new IndexHits(List.of(), 0);
+            }
+            short languageFilter = -1;
+            if (query.getCodeLanguage() != null && !query.getCodeLanguage().isBlank()) {
+                Short id = languageIds.get(normalizeLanguage(query.getCodeLanguage()));
+                if (id == null) {
+                    return new IndexHits(List.of(), 0);
+                }
+                languageFilter = id;
+            }
+
+            double averageLength = Math.max(1.0, (double) liveLength / liveDocs);
+            ScoreAccumulator scores = new ScoreAccumulator(64);
+            for (String term : terms) {
+                PostingList postingList = postings.get(term);
+                if (postingList == null) {
+                    continue;
+                }
+                int documentFrequency = Math.min(postingList.documentFrequency(), liveDocs);
+                double idf = Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                PostingList.Cursor cursor = postingList.cursor();
+                while (cursor.next()) {
+                    int docId = cursor.docId();
+                    if (!matches(docId, query, languageFilter)) {
+                        continue;
+                    }
+                    int tf = cursor.termFrequency();
+                    double norm = K1 * (1 - B + B * docs.length(docId) / averageLength);
+                    scores.add(docId, (float) (idf * tf * (K1 + 1) / (tf + norm)));
+                }
+            }
+            return topHits(scores, query.getOffset(), query.getLimit());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private IndexHits topHits(ScoreAccumulator scores, int offset, int limit) {
+        // Scores are positive, so their IEEE bits sort like the floats; equal scores favour newer docs
+        long[] ranked = new long[scores.size()];
+        int count = 0;
+        for (int slot = 0; slot < scores.capacity(); slot++) {
+            int docId = scores.keyAt(slot);
+            if (docId >= 0) {
+                ranked[count++] = ((long) Float.floatToIntBits(scores.valueAt(slot)) << 32) | docId;
+            }
+        }
+        Arrays.sort(ranked);
+        List<UUID> noteIds = new ArrayList<>(Math.min(limit, count));
+        for (int i = count - 1 - offset; i >= 0 && noteIds.size() < limit; i--) {
+            noteIds.add(docs.noteId((int) ranked[i]));
+        }
+        return new IndexHits(noteIds, count);
+    }
+
+    private boolean matches(int docId, IndexQuery query, short languageFilter) {
+        if (!docs.isLive(docId)) {
+            return false;
+        }
+        if (query.getOwnerId() != null && !docs.isOwnedBy(docId, query.getOwnerId())) {
+            return false;
+        }
+        if (query.getPublicOnly() != null && docs.isPublic(docId) != query.getPublicOnly()) {
+            return false;
+        }
+        return languageFilter < 0 || docs.language(docId) == languageFilter;
+    }
+
+    private void tombstone(int docId) {
+        docs.kill(docId);
+        liveDocs--;
+        liveLength -= docs.length(docId);
+    }
+
+    private static void count(Map<String, int[]> termFrequencies, String term, boolean keyword, int weight) {
+        int[] frequency = termFrequencies.computeIfAbsent(term, t -> new int[1]);
+        // Keywords say which constructs a note uses, not what it is about, so they count once
+        frequency[0] = keyword ? 1 : frequency[0] + weight;
+    }
+
+    private short languageId(String language) {
+        Short id = languageIds.get(language);
+        if (id == null) {
+            id = (short) languages.size();
+            languages.add(language);
+            languageIds.put(language, id);
+        }
+        return id;
+    }
+
+    private static String normalizeLanguage(String language) {
+        return language == null ? "" : language.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Stats
+
+    public int liveDocCount() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int deadDocCount() {
+        lock.readLock().lock();
+        try {
+            return docs.size() - liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Newest note change applied to the index, or null while it is empty
+    public LocalDateTime watermark() {
+        lock.readLock().lock();
+        try {
+            return maxUpdatedAtMicros == Long.MIN_VALUE ? null : fromMicros(maxUpdatedAtMicros);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Snapshots
+
+    /**
+     * Writes live documents and their postings to {@code file}, renumbering doc ids densely so
+     * tombstones disappear. The file is written next to the target and atomically moved into place.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(maxUpdatedAtMicros);
+
+            out.writeInt(languages.size());
+            for (String language : languages) {
+                writeString(out, language);
+            }
+
+            int[] remap = new int[docs.size()];
+            int nextDocId = 0;
+            for (int docId = 0; docId < docs.size(); docId++) {
+                remap[docId] = docs.isLive(docId) ? nextDocId++ : -1;
+            }
+            out.writeInt(nextDocId);
+            for (int docId = 0; docId < docs.size(); docId++) {
+                if (remap[docId] < 0) {
+                    continue;
+                }
+                UUID noteId = docs.noteId(docId);
+                UUID ownerId = docs.ownerId(docId);
+                out.writeLong(noteId.getMostSignificantBits());
+                out.writeLong(noteId.getLeastSignificantBits());
+                out.writeLong(ownerId.getMostSignificantBits());
+                out.writeLong(ownerId.getLeastSignificantBits());
+                out.writeLong(docs.updatedAtMicros(docId));
+                out.writeInt(docs.length(docId));
+                out.writeShort(docs.language(docId));
+                out.writeByte(docs.flags(docId));
+            }
+
+            byte[] scratch = new byte[1024];
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                PostingList.Cursor cursor = entry.getValue().cursor();
+                int length = 0;
+                int count = 0;
+                int previous = -1;
+                while (cursor.next()) {
+                    int docId = remap[cursor.docId()];
+                    if (docId < 0) {
+                        continue;
+                    }
+                    if (scratch.length - length < 2 * VarInt.MAX_BYTES) {
+                        scratch = Arrays.copyOf(scratch, scratch.length * 2);
+                    }
+                    length = VarInt.write(scratch, length, docId - previous);
+                    length = VarInt.write(scratch, length, cursor.termFrequency());
+                    previous = docId;
+                    count++;
+                }
+                if (count == 0) {
+                    continue;
+                }
+                out.writeByte(1);
+                writeString(out, entry.getKey());
+                out.writeInt(count);
+                out.writeInt(previous);
+                out.writeInt(length);
+                out.write(scratch, 0, length);
+            }
+            out.writeByte(0);
+            out.flush();
+            channel.force(true);
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Opens a snapshot written by {@link #writeSnapshot(Path)}. The doc table and term dictionary are
+     * read onto the heap; posting lists stay in the memory-mapped file until the next snapshot.
+     */
+    public static CodeSearchIndex load(Path file, CodeTokenizer tokenizer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a code search index snapshot: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported code search index snapshot version " + version + ": " + file);
+        }
+        long watermark = buffer.getLong();
+
+        int languageCount = buffer.getInt();
+        List<String> snapshotLanguages = new ArrayList<>(languageCount);
+        for (int i = 0; i < languageCount; i++) {
+            snapshotLanguages.add(readString(buffer));
+        }
+
+        int docCount = buffer.getInt();
+        CodeSearchIndex index = new CodeSearchIndex(tokenizer, docCount);
+        index.languages.clear();
+        index.languageIds.clear();
+        for (String language : snapshotLanguages) {
+            index.languageId(language);
+        }
+        index.maxUpdatedAtMicros = watermark;
+        for (int i = 0; i < docCount; i++) {
+            UUID noteId = new UUID(buffer.getLong(), buffer.getLong());
+            UUID ownerId = new UUID(buffer.getLong(), buffer.getLong());
+            long updatedAt = buffer.getLong();
+            int length = buffer.getInt();
+            short language = buffer.getShort();
+            byte flags = buffer.get();
+            int docId = index.docs.add(noteId, ownerId, (flags & DocTable.PUBLIC) != 0, language, length, updatedAt);
+            index.docByNote.put(noteId, docId);
+            index.liveDocs++;
+            index.liveLength += length;
+        }
+
+        while (buffer.get() == 1) {
+            String term = readString(buffer);
+            int documentFrequency = buffer.getInt();
+            int lastDocId = buffer.getInt();
+            int length = buffer.getInt();
+            ByteBuffer slice = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            index.postings.put(term, new PostingList(slice, documentFrequency, lastDocId));
+        }
+        return index;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(EPOCH, time);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+}
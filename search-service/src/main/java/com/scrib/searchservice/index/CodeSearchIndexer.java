@@ -0,0 +1,162 @@
+package com.scrib.searchservice.index;
+
+import com.scrib.common.text.HtmlText;
+import com.scrib.searchservice.entity.Note;
+import com.scrib.searchservice.entity.NoteSearchText;
+import com.scrib.searchservice.feed.NoteChangeListener;
+import com.scrib.searchservice.repository.NoteSearchTextRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link CodeSearchIndex} in step with the notes table and persists it across restarts.
+ * Mutations and snapshots are serialized on this component; searches go straight to the current
+ * index, which is swapped for the freshly mapped snapshot after every compaction.
+ */
+@Component
+@ConditionalOnProperty(name = "scrib.search.index.enabled", havingValue = "true", matchIfMissing = true)
+public class CodeSearchIndexer implements NoteChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CodeSearchIndexer.class);
+
+    private static final String SNAPSHOT_FILE = "code-index.snap";
+
+    private final CodeTokenizer tokenizer = new CodeTokenizer();
+
+    @Autowired
+    private NoteSearchTextRepository noteSearchTextRepository;
+
+    @Value("${scrib.search.index.directory:${java.io.tmpdir}/scrib/search-index}")
+    private Path directory;
+
+    // Compact early once tombstones outnumber live docs (and there are enough to matter)
+    @Value("${scrib.search.index.compaction-min-dead-docs:10000}")
+    private int compactionMinDeadDocs;
+
+    private volatile CodeSearchIndex index;
+    private volatile boolean ready;
+    private boolean dirty;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            try {
+                index = CodeSearchIndex.load(snapshot, tokenizer);
+                logger.info("Loaded code search index snapshot: {} docs, {} terms, current to {}",
+                        index.liveDocCount(), index.termCount(), index.watermark());
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Discarding unreadable code search index snapshot {}: {}", snapshot, e.getMessage());
+            }
+        }
+        index = new CodeSearchIndex(tokenizer);
+    }
+
+    @Override
+    public LocalDateTime resumeFrom() {
+        return index.watermark();
+    }
+
+    @Override
+    public synchronized void onNotesChanged(List<Note> notes) {
+        Map<UUID, String> plainTexts = enrichedPlainTexts(notes);
+        for (Note note : notes) {
+            if (note.getDeletedAt() != null) {
+                index.remove(note.getId(), note.getUpdatedAt());
+                dirty = true;
+            } else if (index.upsert(toDocument(note, plainTexts.get(note.getId())))) {
+                dirty = true;
+            }
+        }
+        int dead = index.deadDocCount();
+        if (dead >= compactionMinDeadDocs && dead > index.liveDocCount()) {
+            snapshot();
+        }
+    }
+
+    @Override
+    public void onCaughtUp() {
+        ready = true;
+        logger.info("Code search index ready: {} docs, {} terms", index.liveDocCount(), index.termCount());
+    }
+
+    @Scheduled(fixedDelayString = "${scrib.search.index.snapshot-interval:600000}",
+               initialDelayString = "${scrib.search.index.snapshot-interval:600000}")
+    public synchronized void snapshot() {
+        if (!dirty) {
+            return;
+        }
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        try {
+            long start = System.nanoTime();
+            index.writeSnapshot(snapshot);
+            index = CodeSearchIndex.load(snapshot, tokenizer);
+            dirty = false;
+            logger.info("Wrote code search index snapshot: {} docs, {} terms in {} ms",
+                    index.liveDocCount(), index.termCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.error("Failed to write code search index snapshot {}", snapshot, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+
+    // Null until the first catch-up finishes, so callers can fall back to the database
+    public IndexHits search(IndexQuery query) {
+        return ready ? index.search(query) : null;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // note-service has already stripped enriched notes; one query per batch, inside the feed's read
+    private Map<UUID, String> enrichedPlainTexts(List<Note> notes) {
+        List<UUID> enriched = notes.stream()
+                .filter(note -> note.getDeletedAt() == null && note.getEnrichedAt() != null)
+                .map(Note::getId)
+                .toList();
+        Map<UUID, String> plainTexts = new HashMap<>();
+        if (!enriched.isEmpty()) {
+            for (NoteSearchText text : noteSearchTextRepository.findAllById(enriched)) {
+                if (text.getPlainText() != null) {
+                    plainTexts.put(text.getId(), text.getPlainText());
+                }
+            }
+        }
+        return plainTexts;
+    }
+
+    private IndexDocument toDocument(Note note, String plainText) {
+        return new IndexDocument(
+                note.getId(),
+                note.getUserId(),
+                note.getVisibility() == Note.Visibility.PUBLIC,
+                note.getCodeLanguage(),
+                note.getTitle(),
+                plainText != null ? plainText : HtmlText.toPlainText(note.getContent()),
+                note.getUpdatedAt()
+        );
+    }
+}
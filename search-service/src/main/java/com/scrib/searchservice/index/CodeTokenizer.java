@@ -0,0 +1,113 @@
+package com.scrib.searchservice.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenizer for plain text that mixes prose and source code. Identifiers are kept whole
+ * ({@code getuserbyid}) and additionally split on camelCase, snake_case, digits and {@code $}
+ * ({@code get}, {@code user}, {@code by}, {@code id}); no stemming is applied. Reserved words of the
+ * note's code language are reported as keywords and never split.
+ */
+public class CodeTokenizer {
+
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    public interface TokenSink {
+        void accept(String term, boolean keyword);
+    }
+
+    public List<String> tokenize(String text, String codeLanguage) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, codeLanguage, (term, keyword) -> terms.add(term));
+        return terms;
+    }
+
+    public void tokenize(String text, String codeLanguage, TokenSink sink) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        Set<String> keywords = LanguageKeywords.forLanguage(codeLanguage);
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !isTokenChar(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && isTokenChar(text.charAt(i))) {
+                i++;
+            }
+            if (i - start >= 2 && i - start <= MAX_TOKEN_LENGTH) {
+                emit(text.substring(start, i), keywords, sink);
+            }
+        }
+    }
+
+    private void emit(String token, Set<String> keywords, TokenSink sink) {
+        String whole = token.toLowerCase(Locale.ROOT);
+        if (keywords.contains(whole)) {
+            sink.accept(whole, true);
+            return;
+        }
+        sink.accept(whole, false);
+
+        List<String> parts = splitIdentifier(token);
+        if (parts.size() > 1) {
+            for (String part : parts) {
+                if (part.length() >= 2) {
+                    sink.accept(part.toLowerCase(Locale.ROOT), false);
+                }
+            }
+        }
+    }
+
+    // getUserById -> get, User, By, Id; HTTPServer2 -> HTTP, Server, 2; snake_case_name -> snake, case, name
+    static List<String> splitIdentifier(String token) {
+        List<String> parts = new ArrayList<>();
+        int length = token.length();
+        int start = 0;
+        for (int i = 1; i <= length; i++) {
+            if (i == length) {
+                addPart(token, start, i, parts);
+                break;
+            }
+            char previous = token.charAt(i - 1);
+            char current = token.charAt(i);
+            if (isSeparator(current)) {
+                addPart(token, start, i, parts);
+                start = i + 1;
+                continue;
+            }
+            if (isSeparator(previous)) {
+                continue;
+            }
+            boolean boundary = (Character.isLowerCase(previous) && Character.isUpperCase(current))
+                    || (Character.isLetter(previous) && Character.isDigit(current))
+                    || (Character.isDigit(previous) && Character.isLetter(current))
+                    || (Character.isUpperCase(previous) && Character.isUpperCase(current)
+                        && i + 1 < length && Character.isLowerCase(token.charAt(i + 1)));
+            if (boundary) {
+                addPart(token, start, i, parts);
+                start = i;
+            }
+        }
+        return parts;
+    }
+
+    private static void addPart(String token, int start, int end, List<String> parts) {
+        if (end > start) {
+            parts.add(token.substring(start, end));
+        }
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '_' || c == '$';
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
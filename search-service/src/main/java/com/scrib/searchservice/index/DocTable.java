@@ -0,0 +1,106 @@
+package com.scrib.searchservice.index;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+// Per-document columns kept in primitive arrays, indexed by doc id
+final class DocTable {
+
+    static final byte LIVE = 1;
+    static final byte PUBLIC = 2;
+
+    private long[] noteMostSig;
+    private long[] noteLeastSig;
+    private long[] ownerMostSig;
+    private long[] ownerLeastSig;
+    private long[] updatedAtMicros;
+    private int[] length;
+    private short[] language;
+    private byte[] flags;
+    private int size;
+
+    DocTable(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        noteMostSig = new long[capacity];
+        noteLeastSig = new long[capacity];
+        ownerMostSig = new long[capacity];
+        ownerLeastSig = new long[capacity];
+        updatedAtMicros = new long[capacity];
+        length = new int[capacity];
+        language = new short[capacity];
+        flags = new byte[capacity];
+    }
+
+    int add(UUID noteId, UUID ownerId, boolean isPublic, short languageId, int docLength, long updatedAt) {
+        if (size == flags.length) {
+            grow();
+        }
+        int docId = size++;
+        noteMostSig[docId] = noteId.getMostSignificantBits();
+        noteLeastSig[docId] = noteId.getLeastSignificantBits();
+        ownerMostSig[docId] = ownerId.getMostSignificantBits();
+        ownerLeastSig[docId] = ownerId.getLeastSignificantBits();
+        updatedAtMicros[docId] = updatedAt;
+        length[docId] = docLength;
+        language[docId] = languageId;
+        flags[docId] = (byte) (LIVE | (isPublic ? PUBLIC : 0));
+        return docId;
+    }
+
+    private void grow() {
+        int capacity = flags.length * 2;
+        noteMostSig = Arrays.copyOf(noteMostSig, capacity);
+        noteLeastSig = Arrays.copyOf(noteLeastSig, capacity);
+        ownerMostSig = Arrays.copyOf(ownerMostSig, capacity);
+        ownerLeastSig = Arrays.copyOf(ownerLeastSig, capacity);
+        updatedAtMicros = Arrays.copyOf(updatedAtMicros, capacity);
+        length = Arrays.copyOf(length, capacity);
+        language = Arrays.copyOf(language, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    void kill(int docId) {
+        flags[docId] &= ~LIVE;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isLive(int docId) {
+        return (flags[docId] & LIVE) != 0;
+    }
+
+    boolean isPublic(int docId) {
+        return (flags[docId] & PUBLIC) != 0;
+    }
+
+    byte flags(int docId) {
+        return flags[docId];
+    }
+
+    boolean isOwnedBy(int docId, UUID ownerId) {
+        return ownerMostSig[docId] == ownerId.getMostSignificantBits()
+                && ownerLeastSig[docId] == ownerId.getLeastSignificantBits();
+    }
+
+    UUID noteId(int docId) {
+        return new UUID(noteMostSig[docId], noteLeastSig[docId]);
+    }
+
+    UUID ownerId(int docId) {
+        return new UUID(ownerMostSig[docId], ownerLeastSig[docId]);
+    }
+
+    long updatedAtMicros(int docId) {
+        return updatedAtMicros[docId];
+    }
+
+    int length(int docId) {
+        return length[docId];
+    }
+
+    short language(int docId) {
+        return language[docId];
+    }
+}
@@ -0,0 +1,56 @@
+package com.scrib.searchservice.index;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A note as seen by the code index: markup already stripped from the content
+public class IndexDocument {
+
+    private final UUID noteId;
+    private final UUID ownerId;
+    private final boolean isPublic;
+    private final String codeLanguage;
+    private final String title;
+    private final String plainText;
+    private final LocalDateTime updatedAt;
+
+    public IndexDocument(UUID noteId, UUID ownerId, boolean isPublic, String codeLanguage,
+                         String title, String plainText, LocalDateTime updatedAt) {
+        this.noteId = noteId;
+        this.ownerId = ownerId;
+        this.isPublic = isPublic;
+        this.codeLanguage = codeLanguage;
+        this.title = title;
+        this.plainText = plainText;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters
+    public UUID getNoteId() {
+        return noteId;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    public String getCodeLanguage() {
+        return codeLanguage;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getPlainText() {
+        return plainText;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,25 @@
+package com.scrib.searchservice.index;
+
+import java.util.List;
+import java.util.UUID;
+
+// One page of ranked note ids plus the total number of matching notes
+public class IndexHits {
+
+    private final List<UUID> noteIds;
+    private final long totalHits;
+
+    public IndexHits(List<UUID> noteIds, long totalHits) {
+        this.noteIds = noteIds;
+        this.totalHits = totalHits;
+    }
+
+    // Getters
+    public List<UUID> getNoteIds() {
+        return noteIds;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+}
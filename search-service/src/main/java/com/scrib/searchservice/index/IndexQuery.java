@@ -0,0 +1,52 @@
+package com.scrib.searchservice.index;
+
+import java.util.UUID;
+
+/**
+ * Query against the code index. {@code ownerId} restricts results to one user's notes,
+ * {@code publicOnly} (when non-null) to public or private notes, and {@code codeLanguage}
+ * to one language (case-insensitive).
+ */
+public class IndexQuery {
+
+    private final String text;
+    private final UUID ownerId;
+    private final Boolean publicOnly;
+    private final String codeLanguage;
+    private final int offset;
+    private final int limit;
+
+    public IndexQuery(String text, UUID ownerId, Boolean publicOnly, String codeLanguage, int offset, int limit) {
+        this.text = text;
+        this.ownerId = ownerId;
+        this.publicOnly = publicOnly;
+        this.codeLanguage = codeLanguage;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    // Getters
+    public String getText() {
+        return text;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public Boolean getPublicOnly() {
+        return publicOnly;
+    }
+
+    public String getCodeLanguage() {
+        return codeLanguage;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,93 @@
+package com.scrib.searchservice.index;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Reserved words per code language; these are indexed whole and never split or boosted
+final class LanguageKeywords {
+
+    private static final Set<String> JAVA = Set.of(
+            "abstract", "boolean", "break", "byte", "case", "catch", "char", "class", "continue", "default",
+            "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "if", "implements",
+            "import", "instanceof", "int", "interface", "long", "new", "null", "package", "private",
+            "protected", "public", "return", "short", "static", "super", "switch", "this", "throw", "throws",
+            "true", "false", "try", "void", "while", "var", "record");
+
+    private static final Set<String> JAVASCRIPT = Set.of(
+            "async", "await", "break", "case", "catch", "class", "const", "continue", "default", "delete",
+            "do", "else", "export", "extends", "false", "finally", "for", "from", "function", "if", "import",
+            "in", "instanceof", "let", "new", "null", "return", "switch", "this", "throw", "true", "try",
+            "typeof", "undefined", "var", "void", "while", "yield");
+
+    private static final Set<String> TYPESCRIPT = union(JAVASCRIPT, Set.of(
+            "any", "as", "boolean", "declare", "enum", "implements", "interface", "keyof", "namespace",
+            "never", "number", "private", "protected", "public", "readonly", "string", "type", "unknown"));
+
+    private static final Set<String> PYTHON = Set.of(
+            "and", "as", "assert", "async", "await", "break", "class", "continue", "def", "del", "elif",
+            "else", "except", "false", "finally", "for", "from", "global", "if", "import", "in", "is",
+            "lambda", "none", "nonlocal", "not", "or", "pass", "raise", "return", "true", "try", "while",
+            "with", "yield", "self");
+
+    private static final Set<String> SQL = Set.of(
+            "select", "from", "where", "and", "or", "not", "insert", "into", "values", "update", "set",
+            "delete", "create", "table", "index", "drop", "alter", "join", "left", "right", "inner", "outer",
+            "on", "group", "by", "order", "having", "limit", "offset", "as", "distinct", "null", "is", "in",
+            "like", "between", "union", "all", "case", "when", "then", "else", "end", "asc", "desc");
+
+    private static final Set<String> GO = Set.of(
+            "break", "case", "chan", "const", "continue", "default", "defer", "else", "fallthrough", "for",
+            "func", "go", "goto", "if", "import", "interface", "map", "package", "range", "return", "select",
+            "struct", "switch", "type", "var", "nil", "true", "false");
+
+    private static final Set<String> RUST = Set.of(
+            "as", "async", "await", "break", "const", "continue", "crate", "else", "enum", "extern", "false",
+            "fn", "for", "if", "impl", "in", "let", "loop", "match", "mod", "move", "mut", "pub", "ref",
+            "return", "self", "static", "struct", "super", "trait", "true", "type", "unsafe", "use", "where",
+            "while");
+
+    private static final Set<String> CPP = Set.of(
+            "auto", "bool", "break", "case", "catch", "char", "class", "const", "continue", "default",
+            "delete", "do", "double", "else", "enum", "extern", "false", "float", "for", "if", "include",
+            "inline", "int", "long", "namespace", "new", "nullptr", "private", "protected", "public",
+            "return", "short", "sizeof", "static", "struct", "switch", "template", "this", "throw", "true",
+            "try", "typedef", "typename", "unsigned", "using", "virtual", "void", "while", "std");
+
+    private static final Map<String, Set<String>> BY_LANGUAGE = Map.ofEntries(
+            Map.entry("java", JAVA),
+            Map.entry("kotlin", JAVA),
+            Map.entry("javascript", JAVASCRIPT),
+            Map.entry("js", JAVASCRIPT),
+            Map.entry("jsx", JAVASCRIPT),
+            Map.entry("typescript", TYPESCRIPT),
+            Map.entry("ts", TYPESCRIPT),
+            Map.entry("tsx", TYPESCRIPT),
+            Map.entry("python", PYTHON),
+            Map.entry("py", PYTHON),
+            Map.entry("sql", SQL),
+            Map.entry("postgresql", SQL),
+            Map.entry("mysql", SQL),
+            Map.entry("go", GO),
+            Map.entry("golang", GO),
+            Map.entry("rust", RUST),
+            Map.entry("cpp", CPP),
+            Map.entry("c++", CPP),
+            Map.entry("c", CPP));
+
+    private LanguageKeywords() {}
+
+    static Set<String> forLanguage(String language) {
+        if (language == null) {
+            return Set.of();
+        }
+        return BY_LANGUAGE.getOrDefault(language.trim().toLowerCase(Locale.ROOT), Set.of());
+    }
+
+    private static Set<String> union(Set<String> first, Set<String> second) {
+        HashSet<String> all = new HashSet<>(first);
+        all.addAll(second);
+        return Set.copyOf(all);
+    }
+}
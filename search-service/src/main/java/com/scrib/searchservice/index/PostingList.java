@@ -0,0 +1,91 @@
+package com.scrib.searchservice.index;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Postings for one term: ascending doc ids stored as (delta, term frequency) varint pairs.
+ * The optional base segment is a read-only slice of a memory-mapped snapshot; postings added
+ * since the snapshot live in an on-heap tail. Doc ids must be appended in increasing order,
+ * which holds because the index only ever hands out new, larger doc ids.
+ */
+final class PostingList {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ByteBuffer base;
+    private byte[] tail = EMPTY;
+    private int tailLength;
+    private int documentFrequency;
+    private int lastDocId;
+
+    PostingList() {
+        this(null, 0, -1);
+    }
+
+    PostingList(ByteBuffer base, int documentFrequency, int lastDocId) {
+        this.base = base;
+        this.documentFrequency = documentFrequency;
+        this.lastDocId = lastDocId;
+    }
+
+    void add(int docId, int termFrequency) {
+        if (docId <= lastDocId) {
+            throw new IllegalStateException("Doc ids must be appended in increasing order: " + docId + " <= " + lastDocId);
+        }
+        if (tail.length - tailLength < 2 * VarInt.MAX_BYTES) {
+            tail = Arrays.copyOf(tail, Math.max(16, tail.length * 2));
+        }
+        tailLength = VarInt.write(tail, tailLength, docId - lastDocId);
+        tailLength = VarInt.write(tail, tailLength, termFrequency);
+        lastDocId = docId;
+        documentFrequency++;
+    }
+
+    // Counts postings of tombstoned docs too; they are dropped at the next snapshot
+    int documentFrequency() {
+        return documentFrequency;
+    }
+
+    int lastDocId() {
+        return lastDocId;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    final class Cursor {
+
+        private final int[] position = new int[1];
+        private boolean inTail = base == null;
+        private int docId = -1;
+        private int termFrequency;
+
+        boolean next() {
+            if (!inTail) {
+                if (position[0] < base.limit()) {
+                    docId += VarInt.read(base, position);
+                    termFrequency = VarInt.read(base, position);
+                    return true;
+                }
+                inTail = true;
+                position[0] = 0;
+            }
+            if (position[0] < tailLength) {
+                docId += VarInt.read(tail, position);
+                termFrequency = VarInt.read(tail, position);
+                return true;
+            }
+            return false;
+        }
+
+        int docId() {
+            return docId;
+        }
+
+        int termFrequency() {
+            return termFrequency;
+        }
+    }
+}
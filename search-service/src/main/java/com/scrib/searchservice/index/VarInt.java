@@ -0,0 +1,52 @@
+package com.scrib.searchservice.index;
+
+import java.nio.ByteBuffer;
+
+// LEB128-style unsigned variable length ints used by the posting lists
+final class VarInt {
+
+    static final int MAX_BYTES = 5;
+
+    private VarInt() {}
+
+    // Caller guarantees MAX_BYTES of room at position; returns the position after the value
+    static int write(byte[] buffer, int position, int value) {
+        int p = position;
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            buffer[p++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        buffer[p++] = (byte) remaining;
+        return p;
+    }
+
+    // Reads the value at position[0] and advances it
+    static int read(byte[] buffer, int[] position) {
+        int value = 0;
+        int shift = 0;
+        int p = position[0];
+        byte b;
+        do {
+            b = buffer[p++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        position[0] = p;
+        return value;
+    }
+
+    static int read(ByteBuffer buffer, int[] position) {
+        int value = 0;
+        int shift = 0;
+        int p = position[0];
+        byte b;
+        do {
+            b = buffer.get(p++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        position[0] = p;
+        return value;
+    }
+}
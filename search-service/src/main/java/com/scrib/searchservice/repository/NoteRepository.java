@@ -8,29 +8,45 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface NoteRepository extends JpaRepository<Note, UUID> {
+public interface NoteRepository extends JpaRepository<Note, UUID>, NoteTrigramSearchRepository {
     
     @Query("SELECT n FROM Note n WHERE n.visibility = 'PUBLIC' AND n.deletedAt IS NULL")
     Page<Note> findPublicNotes(Pageable pageable);
-    
+
+    // Keyset for feed pages past the in-memory timeline: public notes after (createdAt, id) in feed
+    // order, which the pageable's sort must be (created_at DESC, id); no count query
+    @Query("SELECT n FROM Note n WHERE n.visibility = 'PUBLIC' AND n.deletedAt IS NULL AND " +
+           "(n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id > :afterId))")
+    List<Note> findPublicNotesAfter(@Param("createdAt") LocalDateTime createdAt,
+                                    @Param("afterId") UUID afterId,
+                                    Pageable pageable);
+
+    // Bodies of one timeline page, with their content rows in the same query
+    @Query("SELECT n FROM Note n LEFT JOIN FETCH n.body WHERE n.id IN :ids")
+    List<Note> findWithBodies(@Param("ids") Collection<UUID> ids);
+
     @Query("SELECT n FROM Note n WHERE n.userId = :userId AND n.deletedAt IS NULL")
     Page<Note> findByUserId(@Param("userId") UUID userId, Pageable pageable);
     
     @Query("SELECT n FROM Note n WHERE n.visibility = :visibility AND n.deletedAt IS NULL")
     Page<Note> findByVisibility(@Param("visibility") Note.Visibility visibility, Pageable pageable);
     
-    @Query("SELECT n FROM Note n WHERE n.codeLanguage = :language AND n.deletedAt IS NULL")
+    // Notes without an explicit language match on the one detected from their content
+    @Query("SELECT n FROM Note n WHERE COALESCE(n.codeLanguage, n.detectedLanguage) = :language AND n.deletedAt IS NULL")
     Page<Note> findByCodeLanguage(@Param("language") String language, Pageable pageable);
     
     @Query("SELECT n FROM Note n WHERE " +
            "(:title IS NULL OR LOWER(n.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
-           "(:content IS NULL OR LOWER(n.content) LIKE LOWER(CONCAT('%', :content, '%'))) AND " +
+           "(:content IS NULL OR n.id IN (SELECT t.id FROM NoteSearchText t " +
+           "    WHERE LOWER(t.plainText) LIKE LOWER(CONCAT('%', :content, '%')))) AND " +
            "(:visibility IS NULL OR n.visibility = :visibility) AND " +
-           "(:language IS NULL OR n.codeLanguage = :language) AND " +
+           "(:language IS NULL OR COALESCE(n.codeLanguage, n.detectedLanguage) = :language) AND " +
            "n.deletedAt IS NULL")
     Page<Note> searchNotes(@Param("title") String title, 
                            @Param("content") String content,
@@ -41,9 +57,10 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
     @Query("SELECT n FROM Note n WHERE " +
            "n.userId = :userId AND " +
            "(:title IS NULL OR LOWER(n.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
-           "(:content IS NULL OR LOWER(n.content) LIKE LOWER(CONCAT('%', :content, '%'))) AND " +
+           "(:content IS NULL OR n.id IN (SELECT t.id FROM NoteSearchText t " +
+           "    WHERE LOWER(t.plainText) LIKE LOWER(CONCAT('%', :content, '%')))) AND " +
            "(:visibility IS NULL OR n.visibility = :visibility) AND " +
-           "(:language IS NULL OR n.codeLanguage = :language) AND " +
+           "(:language IS NULL OR COALESCE(n.codeLanguage, n.detectedLanguage) = :language) AND " +
            "n.deletedAt IS NULL")
     Page<Note> searchUserNotes(@Param("userId") UUID userId,
                                @Param("title") String title, 
@@ -52,6 +69,14 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
                                @Param("language") String language,
                                Pageable pageable);
     
-    @Query("SELECT DISTINCT n.codeLanguage FROM Note n WHERE n.codeLanguage IS NOT NULL AND n.deletedAt IS NULL")
+    // Keyset scan over every change (deleted and private notes included) for the change feed
+    @Query("SELECT n FROM Note n WHERE n.updatedAt > :since OR (n.updatedAt = :since AND n.id > :afterId) " +
+           "ORDER BY n.updatedAt, n.id")
+    List<Note> findChangedAfter(@Param("since") LocalDateTime since,
+                                @Param("afterId") UUID afterId,
+                                Pageable pageable);
+    
+    @Query("SELECT DISTINCT COALESCE(n.codeLanguage, n.detectedLanguage) FROM Note n " +
+           "WHERE COALESCE(n.codeLanguage, n.detectedLanguage) IS NOT NULL AND n.deletedAt IS NULL")
     List<String> findDistinctCodeLanguages();
 }
@@ -0,0 +1,11 @@
+package com.scrib.searchservice.repository;
+
+import com.scrib.searchservice.entity.NoteSearchText;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface NoteSearchTextRepository extends JpaRepository<NoteSearchText, UUID> {
+}
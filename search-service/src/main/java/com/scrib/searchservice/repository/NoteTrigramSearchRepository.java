@@ -0,0 +1,17 @@
+package com.scrib.searchservice.repository;
+
+import com.scrib.searchservice.entity.Note;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+// Postgres-specific searches served by the pg_trgm GIN indexes (idx_notes_title_trgm / idx_notes_plain_text_trgm)
+public interface NoteTrigramSearchRepository {
+
+    Page<Note> substringSearch(String query, UUID userId, Note.Visibility visibility, String language,
+                               Pageable pageable);
+
+    Page<Note> fuzzySearch(String query, double similarityThreshold, UUID userId, Note.Visibility visibility,
+                           String language, Pageable pageable);
+}
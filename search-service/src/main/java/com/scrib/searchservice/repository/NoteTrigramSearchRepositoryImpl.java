@@ -0,0 +1,100 @@
+package com.scrib.searchservice.repository;
+
+import com.scrib.searchservice.entity.Note;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class NoteTrigramSearchRepositoryImpl implements NoteTrigramSearchRepository {
+
+    // Note's columns only: plain_text is matched on but read by the highlight path alone (NoteSearchText)
+    private static final String NOTE_COLUMNS = "n.id, n.user_id, n.title, n.content_hash, n.content, n.visibility, "
+            + "n.code_language, n.created_at, n.updated_at, n.deleted_at, n.content_length, n.line_count, "
+            + "n.detected_language, n.enriched_at";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Note> substringSearch(String query, UUID userId, Note.Visibility visibility, String language,
+                                      Pageable pageable) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("pattern", "%" + escapeLikePattern(query) + "%");
+
+        // Bare columns (no LOWER()) so ILIKE can use the gin_trgm_ops indexes
+        String where = "(n.title ILIKE :pattern ESCAPE '\\' OR n.plain_text ILIKE :pattern ESCAPE '\\')"
+                + filters(userId, visibility, language, parameters);
+
+        return page(where, "n.updated_at DESC, n.id", parameters, pageable);
+    }
+
+    @Override
+    public Page<Note> fuzzySearch(String query, double similarityThreshold, UUID userId,
+                                  Note.Visibility visibility, String language, Pageable pageable) {
+        // Transaction-local thresholds for the % and <% operators, so pooled connections are not affected
+        entityManager.createNativeQuery("SELECT set_config('pg_trgm.similarity_threshold', :threshold, true), "
+                        + "set_config('pg_trgm.word_similarity_threshold', :threshold, true)")
+                .setParameter("threshold", String.valueOf(similarityThreshold))
+                .getSingleResult();
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("query", query);
+
+        // Titles are compared whole; bodies are long, so match the query against its best-matching word span
+        String where = "(n.title % :query OR :query <% n.plain_text)"
+                + filters(userId, visibility, language, parameters);
+        String orderBy = "GREATEST(similarity(n.title, :query), word_similarity(:query, n.plain_text)) DESC, "
+                + "n.updated_at DESC, n.id";
+
+        return page(where, orderBy, parameters, pageable);
+    }
+
+    private String filters(UUID userId, Note.Visibility visibility, String language,
+                           Map<String, Object> parameters) {
+        StringBuilder sql = new StringBuilder(" AND n.deleted_at IS NULL");
+        if (userId != null) {
+            sql.append(" AND n.user_id = :userId");
+            parameters.put("userId", userId);
+        }
+        if (visibility != null) {
+            sql.append(" AND n.visibility = CAST(:visibility AS visibility_enum)");
+            parameters.put("visibility", visibility.name());
+        }
+        if (language != null) {
+            sql.append(" AND COALESCE(n.code_language, n.detected_language) = :language");
+            parameters.put("language", language);
+        }
+        return sql.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<Note> page(String where, String orderBy, Map<String, Object> parameters, Pageable pageable) {
+        Query select = entityManager.createNativeQuery(
+                "SELECT " + NOTE_COLUMNS + " FROM notes n WHERE " + where + " ORDER BY " + orderBy, Note.class);
+        Query count = entityManager.createNativeQuery("SELECT COUNT(*) FROM notes n WHERE " + where);
+        parameters.forEach((name, value) -> {
+            select.setParameter(name, value);
+            count.setParameter(name, value);
+        });
+
+        select.setFirstResult((int) pageable.getOffset());
+        select.setMaxResults(pageable.getPageSize());
+        List<Note> notes = select.getResultList();
+        long total = ((Number) count.getSingleResult()).longValue();
+        return new PageImpl<>(notes, pageable, total);
+    }
+
+    static String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -1,102 +1,288 @@
 package com.scrib.searchservice.service;
 
+import com.scrib.common.datasource.ReadYourWritesTracker;
+import com.scrib.common.datasource.ReplicaRoutingContext;
 import com.scrib.common.dto.NoteDto;
 import com.scrib.common.dto.SearchRequest;
+import com.scrib.common.dto.SuggestionDto;
+import com.scrib.common.shard.ShardRouter;
+import com.scrib.common.user.UserDirectory;
 import com.scrib.searchservice.entity.Note;
+import com.scrib.searchservice.entity.NoteSearchText;
+import com.scrib.searchservice.highlight.PlainTextCache;
+import com.scrib.searchservice.highlight.SnippetExtractor;
+import com.scrib.searchservice.index.CodeTokenizer;
+import com.scrib.searchservice.index.CodeSearchIndexer;
+import com.scrib.searchservice.index.IndexHits;
+import com.scrib.searchservice.index.IndexQuery;
 import com.scrib.searchservice.repository.NoteRepository;
+import com.scrib.searchservice.repository.NoteSearchTextRepository;
+import com.scrib.searchservice.suggest.SuggestionIndex;
+import com.scrib.searchservice.timeline.PublicTimeline;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 @Transactional(readOnly = true)
 public class SearchService {
     
+    private static final double DEFAULT_SIMILARITY_THRESHOLD = 0.3;
+    private static final int MAX_SUGGESTIONS = 20;
+    
+    // Orders of pages merged across shards: the feed's, and substring search's (see NoteTrigramSearchRepositoryImpl)
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+    private static final Sort RECENTLY_UPDATED_FIRST = Sort.by(Sort.Direction.DESC, "updatedAt");
+    
     @Autowired
     private NoteRepository noteRepository;
     
-    @Cacheable(value = "searchResults", key = "#searchRequest.toString()")
+    @Autowired
+    private NoteSearchTextRepository noteSearchTextRepository;
+    
+    @Autowired(required = false)
+    private CodeSearchIndexer codeSearchIndexer;
+    
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+    
+    @Autowired
+    private PlainTextCache plainTextCache;
+    
+    @Autowired
+    private UserDirectory userDirectory;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Autowired
+    private PublicTimeline publicTimeline;
+    
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    
+    private final CodeTokenizer codeTokenizer = new CodeTokenizer();
+    
+    @Cacheable(value = "searchResults", key = "#searchRequest.toString()", sync = true)
     public Page<NoteDto> searchNotes(SearchRequest searchRequest) {
-        Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize());
-        
-        Note.Visibility visibility = searchRequest.getVisibility() != null ? 
-                Note.Visibility.valueOf(searchRequest.getVisibility().name()) : null;
-        
-        Page<Note> notes = noteRepository.searchNotes(
-                searchRequest.getQuery(),
-                searchRequest.getQuery(), // Search in both title and content
-                visibility,
-                searchRequest.getLanguage(),
-                pageable
-        );
-        
-        return notes.map(this::convertToDto);
+        return withAuthors(search(searchRequest, null));
     }
     
-    @Cacheable(value = "userSearchResults", key = "#userId + '_' + #searchRequest.toString()")
+    @Cacheable(value = "userSearchResults", key = "#userId + '_' + #searchRequest.toString()", sync = true)
     public Page<NoteDto> searchUserNotes(UUID userId, SearchRequest searchRequest) {
-        Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize());
-        
-        Note.Visibility visibility = searchRequest.getVisibility() != null ? 
-                Note.Visibility.valueOf(searchRequest.getVisibility().name()) : null;
-        
-        Page<Note> notes = noteRepository.searchUserNotes(
-                userId,
-                searchRequest.getQuery(),
-                searchRequest.getQuery(), // Search in both title and content
-                visibility,
-                searchRequest.getLanguage(),
-                pageable
-        );
-        
-        return notes.map(this::convertToDto);
+        shardRouter.routeTo(userId);
+        pinToPrimaryAfterRecentWrite(userId);
+        return withAuthors(search(searchRequest, userId));
     }
     
-    @Cacheable(value = "publicNotes", key = "#page + '_' + #size")
+    // The first pages come from memory, so no transaction here; the timeline opens one for the rest
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<NoteDto> getPublicNotes(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Note> notes = noteRepository.findPublicNotes(pageable);
-        return notes.map(this::convertToDto);
+        return publicTimeline.page(page, size);
     }
     
-    @Cacheable(value = "userNotes", key = "#userId + '_' + #page + '_' + #size")
+    @Cacheable(value = "userNotes", key = "#userId + '_' + #page + '_' + #size", sync = true)
     public Page<NoteDto> getUserNotes(UUID userId, int page, int size) {
+        shardRouter.routeTo(userId);
+        pinToPrimaryAfterRecentWrite(userId);
         Pageable pageable = PageRequest.of(page, size);
         Page<Note> notes = noteRepository.findByUserId(userId, pageable);
-        return notes.map(this::convertToDto);
+        return withAuthors(notes.map(this::convertToDto));
+    }
+    
+    // Served from memory on every keystroke, so deliberately not cached or transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SuggestionDto> suggest(String prefix, UUID userId, int limit) {
+        return suggestionIndex.suggest(prefix, userId, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
     }
     
-    @Cacheable(value = "codeLanguages")
+    @Cacheable(value = "codeLanguages", sync = true)
     public List<String> getAvailableCodeLanguages() {
-        return noteRepository.findDistinctCodeLanguages();
+        Set<String> languages = new LinkedHashSet<>();
+        shardRouter.onEveryShard(noteRepository::findDistinctCodeLanguages).forEach(languages::addAll);
+        return new ArrayList<>(languages);
     }
     
-    @Cacheable(value = "notesByLanguage", key = "#language + '_' + #page + '_' + #size")
+    @Cacheable(value = "notesByLanguage", key = "#language + '_' + #page + '_' + #size", sync = true)
     public Page<NoteDto> getNotesByLanguage(String language, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Note> notes = noteRepository.findByCodeLanguage(language, pageable);
-        return notes.map(this::convertToDto);
+        return withAuthors(shardRouter.mergedPage(pageable, NEWEST_FIRST, shardPage ->
+                noteRepository.findByCodeLanguage(language, shardPage).map(this::convertToDto)));
+    }
+    
+    // Results are converted on the shard that holds the notes, while their bodies can still be loaded
+    private Page<NoteDto> search(SearchRequest searchRequest, UUID userId) {
+        Pageable pageable = PageRequest.of(searchRequest.getPage(), searchRequest.getSize());
+        
+        Note.Visibility visibility = searchRequest.getVisibility() != null ? 
+                Note.Visibility.valueOf(searchRequest.getVisibility().name()) : null;
+        Function<Page<Note>, Page<NoteDto>> toResults = notes -> new PageImpl<>(
+                convertToSearchResults(notes.getContent(), searchRequest), notes.getPageable(),
+                notes.getTotalElements());
+        
+        if (isCodeSearch(searchRequest)) {
+            return codeSearch(searchRequest, userId, visibility, pageable);
+        }
+        if (isTrigramSearch(searchRequest)) {
+            if (searchRequest.getMode() == SearchRequest.Mode.FUZZY) {
+                double threshold = searchRequest.getSimilarityThreshold() != null
+                        ? searchRequest.getSimilarityThreshold() : DEFAULT_SIMILARITY_THRESHOLD;
+                // Similarity isn't on the rows, so shards' rankings are interleaved rather than merged
+                Function<Pageable, Page<NoteDto>> fuzzy = page -> toResults.apply(noteRepository.fuzzySearch(
+                        searchRequest.getQuery().trim(), threshold, userId, visibility, searchRequest.getLanguage(),
+                        page));
+                return userId != null ? fuzzy.apply(pageable) : shardRouter.interleavedPage(pageable, fuzzy);
+            }
+            return onShards(userId, pageable, RECENTLY_UPDATED_FIRST, page -> toResults.apply(
+                    noteRepository.substringSearch(searchRequest.getQuery(), userId, visibility,
+                            searchRequest.getLanguage(), page)));
+        }
+        return onShards(userId, pageable, NEWEST_FIRST, page -> toResults.apply(userId != null
+                ? noteRepository.searchUserNotes(userId, searchRequest.getQuery(), searchRequest.getQuery(),
+                        visibility, searchRequest.getLanguage(), page)
+                : noteRepository.searchNotes(searchRequest.getQuery(), searchRequest.getQuery(),
+                        visibility, searchRequest.getLanguage(), page)));
+    }
+    
+    // A user's own notes are all on the shard the transaction is routed to; anyone's are merged across shards
+    private Page<NoteDto> onShards(UUID userId, Pageable pageable, Sort defaultOrder,
+                                   Function<Pageable, Page<NoteDto>> query) {
+        return userId != null ? query.apply(pageable) : shardRouter.mergedPage(pageable, defaultOrder, query);
+    }
+    
+    // note-service marks each write, so a user's own listing and search reflect it even with replicas
+    private void pinToPrimaryAfterRecentWrite(UUID userId) {
+        if (readYourWritesTracker.requiresPrimary(userId)) {
+            ReplicaRoutingContext.forcePrimaryForCurrentTransaction();
+        }
+    }
+    
+    // One users query for the whole page, and none once its authors are cached
+    private Page<NoteDto> withAuthors(Page<NoteDto> page) {
+        userDirectory.fillUsernames(page.getContent());
+        return page;
+    }
+    
+    private boolean isCodeSearch(SearchRequest searchRequest) {
+        // Until the index has caught up after startup, CODE requests are served as DEFAULT
+        return searchRequest.getMode() == SearchRequest.Mode.CODE
+                && codeSearchIndexer != null
+                && codeSearchIndexer.isReady()
+                && searchRequest.getQuery() != null
+                && !searchRequest.getQuery().isBlank();
+    }
+    
+    private Page<NoteDto> codeSearch(SearchRequest searchRequest, UUID userId, Note.Visibility visibility,
+                                     Pageable pageable) {
+        Boolean publicOnly = visibility != null ? visibility == Note.Visibility.PUBLIC : null;
+        IndexHits hits = codeSearchIndexer.search(new IndexQuery(searchRequest.getQuery(), userId, publicOnly,
+                searchRequest.getLanguage(), (int) pageable.getOffset(), pageable.getPageSize()));
+        // The index trails the table slightly, so drop hits whose note was deleted in the meantime
+        Supplier<List<NoteDto>> load = () -> convertToSearchResults(noteRepository.findAllById(hits.getNoteIds())
+                .stream()
+                .filter(note -> note.getDeletedAt() == null)
+                .toList(), searchRequest);
+        Map<UUID, NoteDto> byId = new HashMap<>();
+        for (List<NoteDto> found : userId != null ? List.of(load.get()) : shardRouter.onEveryShard(load)) {
+            found.forEach(dto -> byId.put(dto.getId(), dto));
+        }
+        List<NoteDto> ranked = hits.getNoteIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(ranked, pageable, hits.getTotalHits());
+    }
+    
+    private boolean isTrigramSearch(SearchRequest searchRequest) {
+        return (searchRequest.getMode() == SearchRequest.Mode.SUBSTRING
+                        || searchRequest.getMode() == SearchRequest.Mode.FUZZY)
+                && searchRequest.getQuery() != null
+                && !searchRequest.getQuery().isBlank();
+    }
+    
+    // Search hits carry a few highlighted fragments; the full body only when explicitly requested.
+    // Enriched notes' stripped text is read here only, in one query for the page
+    private List<NoteDto> convertToSearchResults(List<Note> notes, SearchRequest searchRequest) {
+        List<UUID> enriched = notes.stream()
+                .filter(note -> note.getEnrichedAt() != null)
+                .map(Note::getId)
+                .toList();
+        Map<UUID, String> plainTexts = new HashMap<>();
+        if (!enriched.isEmpty()) {
+            for (NoteSearchText text : noteSearchTextRepository.findAllById(enriched)) {
+                if (text.getPlainText() != null) {
+                    plainTexts.put(text.getId(), text.getPlainText());
+                }
+            }
+        }
+        
+        List<String> terms = highlightTerms(searchRequest);
+        List<NoteDto> results = new ArrayList<>(notes.size());
+        for (Note note : notes) {
+            NoteDto dto = convertToDto(note, searchRequest.isIncludeContent());
+            String plainText = plainTexts.get(note.getId());
+            if (plainText == null) {
+                plainText = plainTextCache.plainText(note.getId(), note.getUpdatedAt(), note::getContent);
+            }
+            dto.setHighlights(SnippetExtractor.extract(plainText, terms));
+            results.add(dto);
+        }
+        return results;
+    }
+    
+    private List<String> highlightTerms(SearchRequest searchRequest) {
+        String query = searchRequest.getQuery();
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        if (searchRequest.getMode() == SearchRequest.Mode.CODE) {
+            return codeTokenizer.tokenize(query, searchRequest.getLanguage());
+        }
+        if (searchRequest.getMode() == SearchRequest.Mode.FUZZY) {
+            return Arrays.asList(query.trim().split("\\s+"));
+        }
+        return List.of(query.trim());
     }
     
     private NoteDto convertToDto(Note note) {
-        return new NoteDto(
+        return convertToDto(note, true);
+    }
+    
+    // Without content the body is never loaded from the content store
+    private NoteDto convertToDto(Note note, boolean withContent) {
+        NoteDto dto = new NoteDto(
                 note.getId(),
                 note.getUserId(),
                 note.getTitle(),
-                note.getContent(),
+                withContent ? note.getContent() : null,
                 NoteDto.Visibility.valueOf(note.getVisibility().name()),
                 note.getCodeLanguage(),
                 note.getCreatedAt(),
                 note.getUpdatedAt(),
                 note.getDeletedAt()
         );
+        dto.setContentLength(note.getContentLength());
+        dto.setLineCount(note.getLineCount());
+        dto.setDetectedLanguage(note.getDetectedLanguage());
+        return dto;
     }
 }
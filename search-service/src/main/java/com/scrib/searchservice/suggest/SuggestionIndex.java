@@ -0,0 +1,194 @@
+package com.scrib.searchservice.suggest;
+
+import com.scrib.common.dto.SuggestionDto;
+import com.scrib.searchservice.entity.Note;
+import com.scrib.searchservice.feed.NoteChangeListener;
+import com.scrib.searchservice.index.CodeTokenizer;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prefix lookup over note titles and code languages for search-as-you-type. Every title word
+ * (identifiers also by their camelCase/snake_case parts) is a key in a sorted map, so a prefix is a
+ * range scan. Public titles share one map and private titles get one map per owner, so a scan only
+ * walks titles the user may see; within a word the newest titles come first. Scans stop after
+ * {@code MAX_MATCHED} matches so short prefixes stay cheap. Kept current by the note change feed
+ * and never queries the database.
+ */
+@Component
+public class SuggestionIndex implements NoteChangeListener {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final int MAX_MATCHED = 2000;
+    private static final int MAX_LANGUAGES = 3;
+
+    private final CodeTokenizer tokenizer = new CodeTokenizer();
+
+    // "<word>\0<newest first><noteId>" -> entry; public titles, and private titles by owner
+    private final ConcurrentSkipListMap<String, TitleEntry> publicTitles = new ConcurrentSkipListMap<>();
+    private final Map<UUID, ConcurrentSkipListMap<String, TitleEntry>> privateTitles = new ConcurrentHashMap<>();
+    private final Map<UUID, TitleEntry> titlesByNote = new ConcurrentHashMap<>();
+    // Languages of live public notes, with how many use them
+    private final ConcurrentSkipListMap<String, AtomicInteger> publicLanguages = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void onNotesChanged(List<Note> notes) {
+        for (Note note : notes) {
+            TitleEntry existing = titlesByNote.get(note.getId());
+            if (existing != null && !note.getUpdatedAt().isAfter(existing.updatedAt)) {
+                continue;
+            }
+            if (existing != null) {
+                unlink(existing);
+            }
+            if (note.getDeletedAt() == null) {
+                link(new TitleEntry(note, titleWords(note.getTitle())));
+            }
+        }
+    }
+
+    public List<SuggestionDto> suggest(String prefix, UUID userId, int limit) {
+        String typed = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if (typed.isEmpty()) {
+            return List.of();
+        }
+        // Only the word being typed is range-scanned; earlier words must appear in the title
+        int lastSpace = typed.lastIndexOf(' ');
+        String word = typed.substring(lastSpace + 1);
+        String[] earlierWords = lastSpace < 0 ? new String[0] : typed.substring(0, lastSpace).trim().split("\\s+");
+
+        List<SuggestionDto> suggestions = new ArrayList<>();
+        if (lastSpace < 0) {
+            publicLanguages.subMap(word, true, word + Character.MAX_VALUE, false).entrySet().stream()
+                    .filter(entry -> entry.getValue().get() > 0)
+                    .sorted(Comparator.comparingInt(
+                            (Map.Entry<String, AtomicInteger> entry) -> entry.getValue().get()).reversed())
+                    .limit(Math.min(MAX_LANGUAGES, limit))
+                    .forEach(entry -> suggestions.add(new SuggestionDto(
+                            SuggestionDto.Type.LANGUAGE, entry.getKey(), null, entry.getKey())));
+        }
+
+        Map<UUID, TitleEntry> candidates = new LinkedHashMap<>();
+        collectMatches(publicTitles, word, earlierWords, candidates);
+        ConcurrentSkipListMap<String, TitleEntry> ownTitles = userId == null ? null : privateTitles.get(userId);
+        if (ownTitles != null) {
+            collectMatches(ownTitles, word, earlierWords, candidates);
+        }
+        candidates.values().stream()
+                .sorted(Comparator.comparing((TitleEntry entry) -> !entry.lowerTitle.startsWith(typed))
+                        .thenComparing(entry -> entry.updatedAt, Comparator.reverseOrder()))
+                .limit(Math.max(0, limit - suggestions.size()))
+                .forEach(entry -> suggestions.add(new SuggestionDto(
+                        SuggestionDto.Type.TITLE, entry.title, entry.noteId, entry.codeLanguage)));
+        return suggestions;
+    }
+
+    private void collectMatches(NavigableMap<String, TitleEntry> titles, String word, String[] earlierWords,
+                                Map<UUID, TitleEntry> candidates) {
+        int matched = 0;
+        for (TitleEntry entry : titles.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+            if (entry.containsAll(earlierWords) && candidates.putIfAbsent(entry.noteId, entry) == null
+                    && ++matched >= MAX_MATCHED) {
+                return;
+            }
+        }
+    }
+
+    private void link(TitleEntry entry) {
+        titlesByNote.put(entry.noteId, entry);
+        ConcurrentSkipListMap<String, TitleEntry> titles = entry.isPublic ? publicTitles
+                : privateTitles.computeIfAbsent(entry.ownerId, owner -> new ConcurrentSkipListMap<>());
+        for (String word : entry.words) {
+            titles.put(entry.key(word), entry);
+        }
+        if (entry.isPublic && entry.languageKey != null) {
+            publicLanguages.computeIfAbsent(entry.languageKey, language -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    private void unlink(TitleEntry entry) {
+        titlesByNote.remove(entry.noteId);
+        if (entry.isPublic) {
+            for (String word : entry.words) {
+                publicTitles.remove(entry.key(word));
+            }
+        } else {
+            privateTitles.computeIfPresent(entry.ownerId, (owner, titles) -> {
+                for (String word : entry.words) {
+                    titles.remove(entry.key(word));
+                }
+                return titles.isEmpty() ? null : titles;
+            });
+        }
+        if (entry.isPublic && entry.languageKey != null) {
+            AtomicInteger count = publicLanguages.get(entry.languageKey);
+            if (count != null && count.decrementAndGet() <= 0) {
+                publicLanguages.remove(entry.languageKey, count);
+            }
+        }
+    }
+
+    private String[] titleWords(String title) {
+        Set<String> words = new LinkedHashSet<>();
+        tokenizer.tokenize(title, null, (term, keyword) -> words.add(term));
+        return words.toArray(new String[0]);
+    }
+
+    private static final class TitleEntry {
+
+        private final UUID noteId;
+        private final UUID ownerId;
+        private final boolean isPublic;
+        private final String title;
+        private final String lowerTitle;
+        private final String codeLanguage;
+        private final String languageKey;
+        private final LocalDateTime updatedAt;
+        private final String[] words;
+        // Sorts newer titles of the same word first
+        private final String keySuffix;
+
+        private TitleEntry(Note note, String[] words) {
+            this.noteId = note.getId();
+            this.ownerId = note.getUserId();
+            this.isPublic = note.getVisibility() == Note.Visibility.PUBLIC;
+            this.title = note.getTitle() == null ? "" : note.getTitle();
+            this.lowerTitle = title.toLowerCase(Locale.ROOT);
+            this.codeLanguage = note.getCodeLanguage();
+            this.languageKey = codeLanguage == null || codeLanguage.isBlank()
+                    ? null : codeLanguage.trim().toLowerCase(Locale.ROOT);
+            this.updatedAt = note.getUpdatedAt();
+            this.words = words;
+            long updatedMillis = updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+            this.keySuffix = String.format("%019d", Long.MAX_VALUE - updatedMillis) + noteId;
+        }
+
+        private String key(String word) {
+            return word + KEY_SEPARATOR + keySuffix;
+        }
+
+        private boolean containsAll(String[] earlierWords) {
+            for (String word : earlierWords) {
+                if (!lowerTitle.contains(word)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
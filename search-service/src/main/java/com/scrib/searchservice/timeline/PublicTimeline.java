@@ -0,0 +1,373 @@
+package com.scrib.searchservice.timeline;
+
+import com.scrib.common.dto.NoteDto;
+import com.scrib.common.shard.ShardRouter;
+import com.scrib.common.user.UserDirectory;
+import com.scrib.searchservice.entity.Note;
+import com.scrib.searchservice.feed.NoteChangeListener;
+import com.scrib.searchservice.repository.NoteRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * The public feed in {@code (created_at DESC, id)} order. The newest {@code capacity} public notes
+ * are held in memory as summaries, everything but the body: loaded from the table once the change
+ * feed has caught up, then kept current by it. Pages inside them take their bodies from a
+ * {@link TimelineBodyCache} bounded by size, so pages read before are served without touching the
+ * database; bodies it lacks are loaded by id from their owners' shards. Deeper pages seek from the
+ * last note of the deepest page held with a keyset query.
+ * <p>
+ * The held notes are always every public note down to the oldest one held, so they lose their
+ * tail to newer notes and shrink on deletes, but never have gaps. Their count is exact; changes to
+ * older notes only reach the total at the next periodic rebuild, which also refills the timeline.
+ */
+@Component
+public class PublicTimeline implements NoteChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicTimeline.class);
+
+    public static final Sort ORDER = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by("id"));
+
+    // Same order as ORDER in Postgres, which compares uuids as unsigned bytes
+    private static final Comparator<Key> KEY_ORDER = Comparator
+            .comparing((Key key) -> key.createdAt, Comparator.reverseOrder())
+            .thenComparing(key -> key.id, PublicTimeline::compareUnsigned);
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TimelineBodyCache bodyCache;
+
+    @Value("${scrib.search.timeline.enabled:true}")
+    private boolean enabled;
+
+    // Sharded, at most scrib.datasource.shards.max-merge-window
+    @Value("${scrib.search.timeline.capacity:1000}")
+    private int capacity;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // Written by the feed thread under this lock; pages are cut from the published snapshot
+    private final TreeMap<Key, NoteDto> notes = new TreeMap<>(KEY_ORDER);
+    private final Map<UUID, Key> keys = new HashMap<>();
+    private long total;
+    // True when every public note is held, so nothing lies below the last one
+    private boolean complete;
+
+    private volatile Snapshot snapshot;
+    private volatile boolean rebuildRequested;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Loaded from the table when the feed catches up, so there is nothing to replay
+    @Override
+    public LocalDateTime resumeFrom() {
+        return LocalDateTime.now();
+    }
+
+    @Override
+    public void onCaughtUp() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    // Also called for empty batches on every poll, which is where requested rebuilds run: on the feed
+    // thread, between batches, so no batch read before a rebuild is applied after it
+    @Override
+    public synchronized void onNotesChanged(List<Note> changed) {
+        if (snapshot != null && !changed.isEmpty()) {
+            Set<UUID> authors = new LinkedHashSet<>();
+            changed.forEach(note -> authors.add(note.getUserId()));
+            Map<UUID, String> usernames = userDirectory.usernames(authors);
+            for (Note note : changed) {
+                apply(note, usernames.get(note.getUserId()));
+            }
+            if (!complete && notes.size() < capacity / 2) {
+                rebuildRequested = true;
+            }
+            publish();
+        }
+        if (rebuildRequested) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scrib.search.timeline.rebuild-interval:600000}",
+               initialDelayString = "${scrib.search.timeline.rebuild-interval:600000}")
+    public void requestRebuild() {
+        if (enabled) {
+            rebuildRequested = true;
+        }
+    }
+
+    /**
+     * A page of the public feed. Pages the timeline holds in full come from memory; the rest from
+     * the database, starting after the deepest page it holds.
+     */
+    public Page<NoteDto> page(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, ORDER);
+        Snapshot current = snapshot;
+        if (current == null) {
+            return fromTable(pageable);
+        }
+
+        int held = current.notes.size();
+        long end = pageable.getOffset() + size;
+        if (end <= held || current.complete) {
+            int from = (int) Math.min(pageable.getOffset(), held);
+            return new PageImpl<>(withBodies(current.notes, from, size), pageable, current.total);
+        }
+
+        int heldPages = held / size;
+        if (heldPages == 0) {
+            return fromTable(pageable);
+        }
+        NoteDto last = current.notes.get(heldPages * size - 1);
+        Pageable below = PageRequest.of(page - heldPages, size, ORDER);
+        Page<NoteDto> deep = readOnlyTransaction.execute(status -> withAuthors(shardRouter.mergedPage(below, ORDER,
+                shardPage -> new PageImpl<>(noteRepository.findPublicNotesAfter(last.getCreatedAt(), last.getId(),
+                        shardPage).stream().map(PublicTimeline::toDto).toList()))));
+        return new PageImpl<>(deep.getContent(), pageable, current.total);
+    }
+
+    // Before the first build, or with the timeline disabled: the page with its count, from the table
+    private Page<NoteDto> fromTable(Pageable pageable) {
+        return fromTable(pageable, PublicTimeline::toDto);
+    }
+
+    private Page<NoteDto> fromTable(Pageable pageable, Function<Note, NoteDto> mapper) {
+        return readOnlyTransaction.execute(status -> withAuthors(shardRouter.mergedPage(pageable, ORDER,
+                shardPage -> noteRepository.findPublicNotes(shardPage).map(mapper))));
+    }
+
+    // Cut from the held summaries; notes that turn out to have left the feed since are skipped and
+    // the page is filled up from the summaries after it
+    private List<NoteDto> withBodies(List<NoteDto> held, int from, int size) {
+        List<NoteDto> page = new ArrayList<>(size);
+        int next = from;
+        while (page.size() < size && next < held.size()) {
+            List<NoteDto> window = held.subList(next, Math.min(held.size(), next + size - page.size()));
+            next += window.size();
+            page.addAll(withBodies(window));
+        }
+        return page;
+    }
+
+    // Bodies come from the cache; the ones it lacks are loaded from their owners' shards in one query each
+    private List<NoteDto> withBodies(List<NoteDto> summaries) {
+        Map<UUID, NoteDto> found = new HashMap<>();
+        List<NoteDto> missing = new ArrayList<>();
+        for (NoteDto summary : summaries) {
+            TimelineBodyCache.Entry body = bodyCache.get(summary.getId(), summary.getUpdatedAt());
+            if (body != null) {
+                found.put(summary.getId(), withContent(summary, body.getContent()));
+            } else {
+                missing.add(summary);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<NoteDto> loaded = readOnlyTransaction.execute(status -> shardRouter.onOwnerShards(missing,
+                    NoteDto::getUserId, batch -> loadListed(batch.stream().map(NoteDto::getId).toList())));
+            for (NoteDto dto : loaded) {
+                bodyCache.put(dto.getId(), dto.getUpdatedAt(), dto.getContent());
+                found.put(dto.getId(), dto);
+            }
+        }
+
+        List<NoteDto> page = new ArrayList<>(summaries.size());
+        for (NoteDto summary : summaries) {
+            NoteDto dto = found.get(summary.getId());
+            if (dto != null) {
+                dto.setUsername(summary.getUsername());
+                page.add(dto);
+            }
+        }
+        return page;
+    }
+
+    private List<NoteDto> loadListed(List<UUID> ids) {
+        return noteRepository.findWithBodies(ids).stream()
+                .filter(PublicTimeline::isListed)
+                .map(PublicTimeline::toDto)
+                .toList();
+    }
+
+    private void apply(Note note, String username) {
+        Key held = keys.get(note.getId());
+        NoteDto existing = held == null ? null : notes.get(held);
+        if (existing != null && !note.getUpdatedAt().isAfter(existing.getUpdatedAt())) {
+            return;
+        }
+        boolean listed = isListed(note);
+        if (existing != null) {
+            notes.remove(held);
+            keys.remove(note.getId());
+            if (!listed) {
+                total--;
+            }
+        }
+        if (!listed) {
+            return;
+        }
+
+        Key key = new Key(note.getCreatedAt(), note.getId());
+        // Below the oldest note held there may be public notes the timeline has never seen
+        if (existing == null && !complete && (notes.isEmpty() || KEY_ORDER.compare(key, notes.lastKey()) > 0)) {
+            return;
+        }
+        // Reading the body would load and decode it from the content store on the feed thread
+        NoteDto dto = toSummary(note);
+        dto.setUsername(username);
+        notes.put(key, dto);
+        keys.put(key.id, key);
+        if (existing == null) {
+            total++;
+        }
+        if (notes.size() > capacity) {
+            keys.remove(notes.pollLastEntry().getKey().id);
+            complete = false;
+        }
+    }
+
+    private synchronized void rebuild() {
+        rebuildRequested = false;
+        Page<NoteDto> newest;
+        try {
+            newest = fromTable(PageRequest.of(0, capacity, ORDER), PublicTimeline::toSummary);
+        } catch (RuntimeException e) {
+            // Pages keep coming from the current snapshot (or the database); retried on the next poll
+            logger.warn("Rebuilding the public timeline failed: {}", e.getMessage());
+            rebuildRequested = true;
+            return;
+        }
+        notes.clear();
+        keys.clear();
+        for (NoteDto dto : newest.getContent()) {
+            Key key = new Key(dto.getCreatedAt(), dto.getId());
+            notes.put(key, dto);
+            keys.put(key.id, key);
+        }
+        total = newest.getTotalElements();
+        complete = total <= capacity;
+        publish();
+        logger.debug("Public timeline rebuilt: {} of {} public notes held", notes.size(), total);
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(List.copyOf(notes.values()), Math.max(total, notes.size()), complete);
+    }
+
+    private Page<NoteDto> withAuthors(Page<NoteDto> page) {
+        userDirectory.fillUsernames(page.getContent());
+        return page;
+    }
+
+    private static boolean isListed(Note note) {
+        return note.getDeletedAt() == null && note.getVisibility() == Note.Visibility.PUBLIC;
+    }
+
+    // Same fields as the feed served before the timeline, content included
+    private static NoteDto toDto(Note note) {
+        NoteDto dto = toSummary(note);
+        dto.setContent(note.getContent());
+        return dto;
+    }
+
+    // Summaries are shared by every page served from the snapshot, so bodies go on a copy
+    private static NoteDto withContent(NoteDto summary, String content) {
+        NoteDto dto = new NoteDto(summary.getId(), summary.getUserId(), summary.getTitle(), content,
+                summary.getVisibility(), summary.getCodeLanguage(), summary.getCreatedAt(), summary.getUpdatedAt(),
+                summary.getDeletedAt());
+        dto.setContentLength(summary.getContentLength());
+        dto.setLineCount(summary.getLineCount());
+        dto.setDetectedLanguage(summary.getDetectedLanguage());
+        return dto;
+    }
+
+    // What the timeline holds: contentLength tells how big the body left out is
+    private static NoteDto toSummary(Note note) {
+        NoteDto dto = new NoteDto(
+                note.getId(),
+                note.getUserId(),
+                note.getTitle(),
+                null,
+                NoteDto.Visibility.valueOf(note.getVisibility().name()),
+                note.getCodeLanguage(),
+                note.getCreatedAt(),
+                note.getUpdatedAt(),
+                note.getDeletedAt()
+        );
+        dto.setContentLength(note.getContentLength());
+        dto.setLineCount(note.getLineCount());
+        dto.setDetectedLanguage(note.getDetectedLanguage());
+        return dto;
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private static final class Key {
+
+        private final LocalDateTime createdAt;
+        private final UUID id;
+
+        private Key(LocalDateTime createdAt, UUID id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final List<NoteDto> notes;
+        private final long total;
+        private final boolean complete;
+
+        private Snapshot(List<NoteDto> notes, long total, boolean complete) {
+            this.notes = notes;
+            this.total = total;
+            this.complete = complete;
+        }
+    }
+}
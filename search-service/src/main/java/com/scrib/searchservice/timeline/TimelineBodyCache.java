@@ -0,0 +1,63 @@
+package com.scrib.searchservice.timeline;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// LRU of public note bodies, bounded by total characters, so timeline pages are served without the database
+@Component
+public class TimelineBodyCache {
+
+    private final Map<UUID, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalChars;
+
+    @Value("${scrib.search.timeline.body-cache-max-chars:33554432}")
+    private long maxChars;
+
+    // The body as of updatedAt or later, or null when it has to be loaded
+    public synchronized Entry get(UUID noteId, LocalDateTime updatedAt) {
+        Entry entry = entries.get(noteId);
+        return entry != null && !entry.updatedAt.isBefore(updatedAt) ? entry : null;
+    }
+
+    public synchronized void put(UUID noteId, LocalDateTime updatedAt, String content) {
+        Entry previous = entries.get(noteId);
+        if (previous != null && previous.updatedAt.isAfter(updatedAt)) {
+            return;
+        }
+        Entry entry = new Entry(updatedAt, content);
+        entries.put(noteId, entry);
+        if (previous != null) {
+            totalChars -= previous.length();
+        }
+        totalChars += entry.length();
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalChars > maxChars && eldest.hasNext()) {
+            totalChars -= eldest.next().length();
+            eldest.remove();
+        }
+    }
+
+    public static final class Entry {
+        private final LocalDateTime updatedAt;
+        private final String content;
+
+        private Entry(LocalDateTime updatedAt, String content) {
+            this.updatedAt = updatedAt;
+            this.content = content;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        private int length() {
+            return content == null ? 0 : content.length();
+        }
+    }
+}
@@ -0,0 +1,2 @@
+-- H2 stand-in for the Postgres-only types referenced by the JPA mappings
+CREATE DOMAIN IF NOT EXISTS visibility_enum AS VARCHAR(20);
@@ -0,0 +1,103 @@
+package com.scrib.userservice.activity;
+
+import com.scrib.userservice.cache.UserCaches;
+import com.scrib.userservice.repository.UserActivityWriter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the latest activity time per user in memory and writes them all every
+ * {@code flush-interval} in one batched update, so a user saving on every keystroke costs one
+ * {@code users} row update per interval instead of one per save. Activity recorded but not yet
+ * flushed is lost if the process dies; {@code last_activity_at} is advisory, so that trade is fine.
+ */
+@Component
+public class ActivityAggregator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ActivityAggregator.class);
+    
+    @Autowired
+    private UserActivityWriter userActivityWriter;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private UserCaches userCaches;
+    
+    // Callers know a user either by id (note events) or by username (the REST API)
+    private final ConcurrentMap<UUID, LocalDateTime> byUserId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LocalDateTime> byUsername = new ConcurrentHashMap<>();
+    
+    public void record(UUID userId, LocalDateTime at) {
+        byUserId.merge(userId, at, ActivityAggregator::latest);
+    }
+    
+    public void record(String username, LocalDateTime at) {
+        byUsername.merge(username, at, ActivityAggregator::latest);
+    }
+    
+    @Scheduled(fixedDelayString = "${scrib.users.activity.flush-interval:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Map.Entry<UUID, LocalDateTime>> ids = drain(byUserId);
+        List<Map.Entry<String, LocalDateTime>> usernames = drain(byUsername);
+        if (ids.isEmpty() && usernames.isEmpty()) {
+            return;
+        }
+        try {
+            Integer updated = transactionTemplate.execute(status ->
+                    userActivityWriter.updateById(ids) + userActivityWriter.updateByUsername(usernames));
+            // Cached users now carry an old lastActivityAt
+            userCaches.evict(keys(ids), keys(usernames));
+            logger.debug("Flushed activity for {} users ({} rows updated)", ids.size() + usernames.size(), updated);
+        } catch (RuntimeException e) {
+            // Put them back; anything newer recorded meanwhile wins the merge
+            ids.forEach(entry -> record(entry.getKey(), entry.getValue()));
+            usernames.forEach(entry -> record(entry.getKey(), entry.getValue()));
+            logger.warn("Flushing user activity failed, retrying on next flush: {}", e.getMessage());
+        }
+    }
+    
+    public int getPendingCount() {
+        return byUserId.size() + byUsername.size();
+    }
+    
+    // Sorted so concurrent flushes from several instances tend to touch users rows in the same order;
+    // a flush that still deadlocks is simply put back and retried
+    private static <K extends Comparable<K>> List<Map.Entry<K, LocalDateTime>> drain(
+            ConcurrentMap<K, LocalDateTime> pending) {
+        List<Map.Entry<K, LocalDateTime>> drained = new ArrayList<>(pending.size());
+        for (Map.Entry<K, LocalDateTime> entry : pending.entrySet()) {
+            K key = entry.getKey();
+            LocalDateTime at = entry.getValue();
+            // A newer timestamp recorded while draining stays behind for the next flush
+            if (pending.remove(key, at)) {
+                drained.add(Map.entry(key, at));
+            }
+        }
+        drained.sort(Map.Entry.comparingByKey());
+        return drained;
+    }
+    
+    private static <K> List<K> keys(List<Map.Entry<K, LocalDateTime>> entries) {
+        return entries.stream().map(Map.Entry::getKey).toList();
+    }
+    
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,161 @@
+package com.scrib.userservice.activity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds note writes from note-service's note-events stream into the {@link ActivityAggregator}
+ * (consumer group {@code user-service}). This is what keeps {@code last_activity_at} current once
+ * the {@code update_user_activity_on_note_change} trigger is switched off.
+ */
+@Component
+@ConditionalOnProperty(name = "scrib.users.activity.stream.enabled", havingValue = "true", matchIfMissing = true)
+public class NoteEventActivityConsumer implements DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NoteEventActivityConsumer.class);
+    
+    @Autowired
+    private ActivityAggregator activityAggregator;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+    
+    @Value("${scrib.users.activity.stream.key:scrib:note-events}")
+    private String streamKey;
+    
+    @Value("${scrib.users.activity.stream.group:user-service}")
+    private String group;
+    
+    // Stable per instance so pending events are found again after a restart
+    @Value("${scrib.users.activity.stream.consumer:${HOSTNAME:user-service}}")
+    private String consumerName;
+    
+    @Value("${scrib.users.activity.stream.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${scrib.users.activity.stream.retry-interval:30s}")
+    private Duration retryInterval;
+    
+    private ScheduledExecutorService executor;
+    private volatile StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+    
+    // Redis may still be down when the application is ready, so starting is retried until it succeeds
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "note-events-consumer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::tryStart);
+    }
+    
+    private void tryStart() {
+        try {
+            createGroupIfMissing();
+            Consumer consumer = Consumer.from(group, consumerName);
+            replayPending(consumer);
+            
+            StreamMessageListenerContainer<String, MapRecord<String, String, String>> started =
+                    StreamMessageListenerContainer.create(redisConnectionFactory,
+                            StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                                    .batchSize(batchSize)
+                                    .pollTimeout(Duration.ofSeconds(1))
+                                    .build());
+            started.register(StreamMessageListenerContainer.StreamReadRequest
+                            .builder(StreamOffset.create(streamKey, ReadOffset.lastConsumed()))
+                            .consumer(consumer)
+                            .autoAcknowledge(false)
+                            .cancelOnError(error -> false)
+                            .errorHandler(error -> logger.debug("Reading {} failed: {}", streamKey, error.getMessage()))
+                            .build(),
+                    this::onEvent);
+            started.start();
+            container = started;
+            logger.info("Consuming {} as {}/{}", streamKey, group, consumerName);
+        } catch (RuntimeException e) {
+            logger.warn("Note events stream unavailable, retrying in {}: {}", retryInterval, e.getMessage());
+            executor.schedule(this::tryStart, retryInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private void onEvent(MapRecord<String, ?, ?> record) {
+        try {
+            UUID userId = UUID.fromString(String.valueOf(record.getValue().get("userId")));
+            LocalDateTime occurredAt = LocalDateTime.parse(String.valueOf(record.getValue().get("occurredAt")));
+            activityAggregator.record(userId, occurredAt);
+        } catch (RuntimeException e) {
+            // Acknowledged anyway: a malformed entry would otherwise be replayed forever
+            logger.warn("Skipping malformed note event {}: {}", record.getId(), e.getMessage());
+        }
+        redisTemplate.opsForStream().acknowledge(streamKey, group, record.getId());
+    }
+    
+    // A new group starts at the end of the stream; older activity was written by the trigger
+    private void createGroupIfMissing() {
+        byte[] rawKey = streamKey.getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(rawKey, group, ReadOffset.latest(), true));
+        } catch (RuntimeException e) {
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (reason == null || !reason.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+    
+    private void replayPending(Consumer consumer) {
+        List<MapRecord<String, Object, Object>> pending;
+        do {
+            pending = redisTemplate.opsForStream().read(consumer,
+                    StreamReadOptions.empty().count(batchSize),
+                    StreamOffset.create(streamKey, ReadOffset.from("0-0")));
+            if (pending == null || pending.isEmpty()) {
+                return;
+            }
+            for (MapRecord<String, Object, Object> record : pending) {
+                onEvent(record);
+            }
+        } while (pending.size() == batchSize);
+    }
+    
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
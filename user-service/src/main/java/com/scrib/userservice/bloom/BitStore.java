@@ -0,0 +1,9 @@
+package com.scrib.userservice.bloom;
+
+// Backing bits of a Bloom filter; bits are only ever set, never cleared
+interface BitStore {
+    
+    void setAll(long[] positions);
+    
+    boolean allSet(long[] positions);
+}
@@ -0,0 +1,63 @@
+package com.scrib.userservice.bloom;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Size and hash count of a Bloom filter, and the bit positions a key maps to. Positions come from
+ * double hashing ({@code h1 + i * h2}) over a 64-bit FNV-1a hash run through two finalizers, so one
+ * pass over the key serves every hash function.
+ */
+final class BloomFilterSpec {
+    
+    private final long bitCount;
+    private final int hashCount;
+    
+    BloomFilterSpec(long bitCount, int hashCount) {
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+    
+    // Standard sizing: m = -n ln p / (ln 2)^2, k = m/n ln 2
+    static BloomFilterSpec forCapacity(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = Math.max(64, (bits + 63) / 64 * 64);
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        return new BloomFilterSpec(bits, hashes);
+    }
+    
+    long[] positions(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+        long[] positions = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            positions[i] = Math.floorMod(h1 + i * h2, bitCount);
+        }
+        return positions;
+    }
+    
+    long getBitCount() {
+        return bitCount;
+    }
+    
+    int getHashCount() {
+        return hashCount;
+    }
+    
+    // Identifies the layout, so bits written under another size are never read with this one
+    String signature() {
+        return bitCount + "x" + hashCount;
+    }
+    
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
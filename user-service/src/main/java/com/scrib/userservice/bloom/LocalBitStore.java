@@ -0,0 +1,40 @@
+package com.scrib.userservice.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class LocalBitStore implements BitStore {
+    
+    private final AtomicLongArray words;
+    
+    LocalBitStore(long bitCount) {
+        if (bitCount / 64 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter too large for one process: " + bitCount + " bits");
+        }
+        this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+    }
+    
+    @Override
+    public void setAll(long[] positions) {
+        for (long position : positions) {
+            int word = (int) (position >>> 6);
+            long mask = 1L << position;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+    
+    @Override
+    public boolean allSet(long[] positions) {
+        for (long position : positions) {
+            if ((words.get((int) (position >>> 6)) & (1L << position)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
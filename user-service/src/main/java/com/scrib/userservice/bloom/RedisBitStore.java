@@ -0,0 +1,70 @@
+package com.scrib.userservice.bloom;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Bits kept in a Redis bitmap shared by every user-service instance. Each call is one pipelined
+ * round trip of SETBIT/GETBIT commands, one per hash function. A missing bitmap (Redis restarted
+ * or evicted it) answers "maybe" rather than "never added".
+ */
+final class RedisBitStore implements BitStore {
+    
+    private final StringRedisTemplate redisTemplate;
+    private final byte[] key;
+    
+    RedisBitStore(StringRedisTemplate redisTemplate, String key) {
+        this.redisTemplate = redisTemplate;
+        this.key = key.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public void setAll(long[] positions) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (long position : positions) {
+                connection.stringCommands().setBit(key, position, true);
+            }
+            return null;
+        });
+    }
+    
+    // Writes a whole batch of keys' positions in one pipeline; used while rebuilding
+    void setAll(List<long[]> batch) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (long[] positions : batch) {
+                for (long position : positions) {
+                    connection.stringCommands().setBit(key, position, true);
+                }
+            }
+            return null;
+        });
+    }
+    
+    @Override
+    public boolean allSet(long[] positions) {
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().exists(key);
+            for (long position : positions) {
+                connection.stringCommands().getBit(key, position);
+            }
+            return null;
+        });
+        if (!Boolean.TRUE.equals(replies.get(0))) {
+            return true;
+        }
+        for (Object bit : replies.subList(1, replies.size())) {
+            if (!Boolean.TRUE.equals(bit)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    boolean exists() {
+        return Boolean.TRUE.equals(redisTemplate.execute(
+                (RedisCallback<Boolean>) connection -> connection.keyCommands().exists(key)));
+    }
+}
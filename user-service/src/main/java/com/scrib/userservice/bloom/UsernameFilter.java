@@ -0,0 +1,240 @@
+package com.scrib.userservice.bloom;
+
+import com.scrib.userservice.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over every username, so existence checks for names nobody has taken never reach
+ * Postgres. A negative answer is definite; a positive one only means "ask the database".
+ * <p>
+ * Until the filter has been built from the {@code users} table (and whenever the bits can't be
+ * read) it answers "maybe", so callers fall back to the database. In {@code local} mode each
+ * instance keeps its own bits and only sees users created through itself after startup, which is
+ * right for a single instance only. In {@code redis} mode the bits are a Redis bitmap shared by all
+ * instances: one instance builds it under a lock, the others wait for the ready marker, and every
+ * instance sets bits for the users it creates. If the bitmap or the marker disappears from Redis,
+ * the filter answers "maybe" again until it has been rebuilt.
+ */
+@Component
+public class UsernameFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UsernameFilter.class);
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Value("${scrib.users.bloom.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${scrib.users.bloom.mode:local}")
+    private String mode;
+    
+    @Value("${scrib.users.bloom.expected-usernames:1000000}")
+    private long expectedUsernames;
+    
+    @Value("${scrib.users.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${scrib.users.bloom.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+    
+    @Value("${scrib.users.bloom.check-interval:5s}")
+    private Duration checkInterval;
+    
+    @Value("${scrib.users.bloom.redis.key-prefix:scrib:users:bloom}")
+    private String keyPrefix;
+    
+    @Value("${scrib.users.bloom.redis.rebuild-lock-timeout:10m}")
+    private Duration rebuildLockTimeout;
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    
+    // Usernames whose bits could not be written yet; retried on every check
+    private final Queue<String> pendingAdds = new ConcurrentLinkedQueue<>();
+    
+    private BloomFilterSpec spec;
+    private BitStore store;
+    private String bitsKey;
+    private ScheduledExecutorService executor;
+    private volatile boolean ready;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        spec = BloomFilterSpec.forCapacity(expectedUsernames, falsePositiveRate);
+        if ("redis".equalsIgnoreCase(mode)) {
+            // The layout is part of the key, so resizing starts a fresh bitmap instead of misreading the old one
+            bitsKey = keyPrefix + ":" + spec.signature();
+            store = new RedisBitStore(redisTemplate, bitsKey);
+        } else {
+            store = new LocalBitStore(spec.getBitCount());
+        }
+        logger.info("Username filter: {} mode, {} bits, {} hashes", mode, spec.getBitCount(), spec.getHashCount());
+        
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "username-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::check, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+    
+    // False only when the username has definitely never been added
+    public boolean mightExist(String username) {
+        if (!ready) {
+            return true;
+        }
+        try {
+            return store.allSet(spec.positions(username));
+        } catch (RuntimeException e) {
+            logger.warn("Username filter unavailable, falling back to the database: {}", e.getMessage());
+            return true;
+        }
+    }
+    
+    // Bits are set even before the filter is ready, so users created during a rebuild are never missed
+    public void add(String username) {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.setAll(spec.positions(username));
+        } catch (RuntimeException e) {
+            pendingAdds.add(username);
+            logger.warn("Could not add '{}' to the username filter, will retry: {}", username, e.getMessage());
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    private void check() {
+        try {
+            retryPendingAdds();
+            if (store instanceof RedisBitStore redisStore) {
+                checkShared(redisStore);
+            } else if (!ready) {
+                rebuildLocal();
+                ready = true;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Username filter check failed, retrying in {}: {}", checkInterval, e.getMessage());
+        }
+    }
+    
+    // Checked on every tick: a Redis restart or eviction can take the bitmap or the marker at any time
+    private void checkShared(RedisBitStore redisStore) {
+        boolean built = Boolean.TRUE.equals(redisTemplate.hasKey(readyKey()));
+        if (built && !redisStore.exists()) {
+            // Bits added since the eviction would make a half-empty bitmap look complete
+            redisTemplate.delete(readyKey());
+            built = false;
+        }
+        if (!built && ready) {
+            ready = false;
+            logger.warn("Shared username filter {} is gone, rebuilding", bitsKey);
+        }
+        ready = built || rebuildShared(redisStore);
+    }
+    
+    private void retryPendingAdds() {
+        String username;
+        while ((username = pendingAdds.peek()) != null) {
+            store.setAll(spec.positions(username));
+            pendingAdds.remove();
+        }
+    }
+    
+    private void rebuildLocal() {
+        long added = streamUsernames(batch -> batch.forEach(username -> store.setAll(spec.positions(username))));
+        logger.info("Username filter built from {} users", added);
+    }
+    
+    // Only the lock holder streams the table; everyone else keeps answering "maybe" until the marker appears
+    private boolean rebuildShared(RedisBitStore redisStore) {
+        String lockKey = bitsKey + ":lock";
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, instanceId, rebuildLockTimeout))) {
+            return false;
+        }
+        try {
+            long added = streamUsernames(batch -> {
+                List<long[]> positions = new ArrayList<>(batch.size());
+                batch.forEach(username -> positions.add(spec.positions(username)));
+                redisStore.setAll(positions);
+            });
+            redisTemplate.opsForValue().set(readyKey(), String.valueOf(added));
+            logger.info("Shared username filter {} built from {} users", bitsKey, added);
+            return true;
+        } finally {
+            if (instanceId.equals(redisTemplate.opsForValue().get(lockKey))) {
+                redisTemplate.delete(lockKey);
+            }
+        }
+    }
+    
+    private long streamUsernames(Consumer<List<String>> sink) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Long added = readOnly.execute(status -> {
+            long count = 0;
+            List<String> batch = new ArrayList<>(rebuildBatchSize);
+            try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+                for (String username : (Iterable<String>) usernames::iterator) {
+                    batch.add(username);
+                    if (batch.size() == rebuildBatchSize) {
+                        sink.accept(batch);
+                        count += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                sink.accept(batch);
+            }
+            return count + batch.size();
+        });
+        return added == null ? 0 : added;
+    }
+    
+    private String readyKey() {
+        return bitsKey + ":ready";
+    }
+}
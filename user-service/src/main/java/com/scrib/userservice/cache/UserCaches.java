@@ -0,0 +1,65 @@
+package com.scrib.userservice.cache;
+
+import com.scrib.common.dto.UserDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * The two views of the in-process user cache: by username and by id. Both hold the same
+ * {@link UserDto}s, bounded by {@code spring.cache.caffeine.spec}. Only found users are cached, so a
+ * new user is never hidden behind a cached miss; the one field that changes is
+ * {@code lastActivityAt}, which is evicted whenever activity is flushed.
+ */
+@Component
+public class UserCaches {
+    
+    public static final String BY_USERNAME = "users";
+    public static final String BY_ID = "usersById";
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    public UserDto getByUsername(String username) {
+        return byUsername().get(username, UserDto.class);
+    }
+    
+    public UserDto getById(UUID id) {
+        return byId().get(id, UserDto.class);
+    }
+    
+    public void put(UserDto user) {
+        byUsername().put(user.getUsername(), user);
+        byId().put(user.getId(), user);
+    }
+    
+    // Evicts both views of each user; the other key is taken from whichever view is still cached
+    public void evict(Collection<UUID> ids, Collection<String> usernames) {
+        for (UUID id : ids) {
+            UserDto cached = getById(id);
+            byId().evict(id);
+            if (cached != null) {
+                byUsername().evict(cached.getUsername());
+            }
+        }
+        for (String username : usernames) {
+            UserDto cached = getByUsername(username);
+            byUsername().evict(username);
+            if (cached != null) {
+                byId().evict(cached.getId());
+            }
+        }
+    }
+    
+    private Cache byUsername() {
+        return cacheManager.getCache(BY_USERNAME);
+    }
+    
+    private Cache byId() {
+        return cacheManager.getCache(BY_ID);
+    }
+}
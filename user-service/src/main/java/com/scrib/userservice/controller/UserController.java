@@ -2,6 +2,7 @@ package com.scrib.userservice.controller;
 
 import com.scrib.common.dto.ApiResponse;
 import com.scrib.common.dto.UserDto;
+import com.scrib.common.dto.UserLookupRequest;
 import com.scrib.userservice.service.UserService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -10,6 +11,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/users")
 public class UserController {
@@ -29,6 +32,20 @@ public class UserController {
         }
     }
     
+    // Resolves many users at once (e.g. the authors of a result page); unknown ids and usernames are omitted
+    @PostMapping("/lookup")
+    public ResponseEntity<ApiResponse<List<UserDto>>> lookupUsers(@RequestBody UserLookupRequest request) {
+        try {
+            List<UserDto> users = userService.lookup(
+                    request.getIds() != null ? request.getIds() : List.of(),
+                    request.getUsernames() != null ? request.getUsernames() : List.of());
+            return ResponseEntity.ok(ApiResponse.success(users));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{username}/exists")
     public ResponseEntity<ApiResponse<Boolean>> checkUsernameExists(@PathVariable("username") String username) {
         boolean exists = userService.usernameExists(username);
@@ -0,0 +1,87 @@
+package com.scrib.userservice.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes aggregated activity timestamps with one statement per chunk. Timestamps only move forward,
+ * so a late or replayed flush never rewinds {@code last_activity_at}.
+ */
+@Repository
+public class UserActivityWriter {
+    
+    private static final int CHUNK_SIZE = 500;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private volatile Boolean postgres;
+    
+    // Must run inside a transaction (auto-commit is off)
+    public int updateById(List<Map.Entry<UUID, LocalDateTime>> activity) {
+        return update("id", "UUID", activity);
+    }
+    
+    public int updateByUsername(List<Map.Entry<String, LocalDateTime>> activity) {
+        return update("username", "VARCHAR", activity);
+    }
+    
+    private int update(String keyColumn, String keyType, List<? extends Map.Entry<?, LocalDateTime>> activity) {
+        int updated = 0;
+        for (int from = 0; from < activity.size(); from += CHUNK_SIZE) {
+            List<? extends Map.Entry<?, LocalDateTime>> chunk =
+                    activity.subList(from, Math.min(from + CHUNK_SIZE, activity.size()));
+            updated += isPostgres() ? updateJoined(keyColumn, keyType, chunk) : updateBatched(keyColumn, chunk);
+        }
+        return updated;
+    }
+    
+    private int updateJoined(String keyColumn, String keyType, List<? extends Map.Entry<?, LocalDateTime>> chunk) {
+        String values = String.join(", ",
+                Collections.nCopies(chunk.size(), "(CAST(? AS " + keyType + "), CAST(? AS TIMESTAMP))"));
+        List<Object> args = new ArrayList<>(chunk.size() * 2);
+        for (Map.Entry<?, LocalDateTime> entry : chunk) {
+            args.add(entry.getKey());
+            args.add(Timestamp.valueOf(entry.getValue()));
+        }
+        return jdbcTemplate.update(
+                "UPDATE users AS u SET last_activity_at = v.at " +
+                "FROM (VALUES " + values + ") AS v(key, at) " +
+                "WHERE u." + keyColumn + " = v.key AND (u.last_activity_at IS NULL OR u.last_activity_at < v.at)",
+                args.toArray());
+    }
+    
+    // H2 (local profile) has no UPDATE ... FROM
+    private int updateBatched(String keyColumn, List<? extends Map.Entry<?, LocalDateTime>> chunk) {
+        List<Object[]> args = new ArrayList<>(chunk.size());
+        for (Map.Entry<?, LocalDateTime> entry : chunk) {
+            Timestamp at = Timestamp.valueOf(entry.getValue());
+            args.add(new Object[]{at, entry.getKey(), at});
+        }
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(
+                "UPDATE users SET last_activity_at = ? WHERE " + keyColumn + " = ? " +
+                "AND (last_activity_at IS NULL OR last_activity_at < ?)", args)) {
+            updated += Math.max(count, 0);
+        }
+        return updated;
+    }
+    
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
@@ -1,13 +1,18 @@
 package com.scrib.userservice.repository;
 
 import com.scrib.userservice.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -16,6 +21,14 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     boolean existsByUsername(String username);
     
+    // An empty collection matches nothing, so either side may be empty
+    List<User> findByIdInOrUsernameIn(Collection<UUID> ids, Collection<String> usernames);
+    
     @Query("SELECT u FROM User u WHERE u.username = :username AND u.lastActivityAt IS NOT NULL")
     Optional<User> findByUsernameWithActivity(@Param("username") String username);
+    
+    // Fetched in pages by the driver so the whole table never sits in memory; needs an open transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT u.username FROM User u")
+    Stream<String> streamAllUsernames();
 }
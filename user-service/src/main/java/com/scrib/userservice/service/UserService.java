@@ -1,14 +1,28 @@
 package com.scrib.userservice.service;
 
 import com.scrib.common.dto.UserDto;
+import com.scrib.userservice.activity.ActivityAggregator;
+import com.scrib.userservice.bloom.UsernameFilter;
+import com.scrib.userservice.cache.UserCaches;
 import com.scrib.userservice.entity.User;
 import com.scrib.userservice.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 @Transactional
@@ -17,32 +31,97 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ActivityAggregator activityAggregator;
+    
+    @Autowired
+    private UsernameFilter usernameFilter;
+    
+    @Autowired
+    private UserCaches userCaches;
+    
+    @Value("${scrib.users.lookup.max-keys:500}")
+    private int maxLookupKeys;
+    
     public UserDto createUser(String username) {
-        if (userRepository.existsByUsername(username)) {
+        // The filter only lets us skip the lookup for names that were never taken; the unique
+        // constraint still has the final say, including for concurrent creates of the same name
+        if (usernameFilter.mightExist(username) && userRepository.existsByUsername(username)) {
             throw new IllegalArgumentException("Username already exists: " + username);
         }
         
         User user = new User(username);
         user.setLastActivityAt(LocalDateTime.now());
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Username already exists: " + username);
+        }
+        usernameFilter.add(username);
         
         return convertToDto(savedUser);
     }
     
+    // Definite negatives from the filter never reach the database
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean usernameExists(String username) {
-        return userRepository.existsByUsername(username);
+        return usernameFilter.mightExist(username) && userRepository.existsByUsername(username);
     }
     
+    @Transactional(readOnly = true)
     public Optional<UserDto> findByUsername(String username) {
-        return userRepository.findByUsername(username)
+        UserDto cached = userCaches.getByUsername(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<UserDto> user = userRepository.findByUsername(username)
                 .map(this::convertToDto);
+        user.ifPresent(userCaches::put);
+        return user;
+    }
+    
+    // Cached users are served from memory and the rest are fetched with one IN query; unknown keys are left out
+    @Transactional(readOnly = true)
+    public List<UserDto> lookup(Collection<UUID> ids, Collection<String> usernames) {
+        if (ids.size() + usernames.size() > maxLookupKeys) {
+            throw new IllegalArgumentException("At most " + maxLookupKeys + " ids and usernames per lookup");
+        }
+        
+        Map<UUID, UserDto> found = new LinkedHashMap<>();
+        Set<UUID> missingIds = new LinkedHashSet<>();
+        Set<String> missingUsernames = new LinkedHashSet<>();
+        for (UUID id : ids) {
+            UserDto cached = userCaches.getById(id);
+            if (cached != null) {
+                found.putIfAbsent(cached.getId(), cached);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        for (String username : usernames) {
+            UserDto cached = userCaches.getByUsername(username);
+            if (cached != null) {
+                found.putIfAbsent(cached.getId(), cached);
+            } else if (usernameFilter.mightExist(username)) {
+                missingUsernames.add(username);
+            }
+        }
+        
+        if (!missingIds.isEmpty() || !missingUsernames.isEmpty()) {
+            for (User user : userRepository.findByIdInOrUsernameIn(missingIds, missingUsernames)) {
+                UserDto dto = convertToDto(user);
+                userCaches.put(dto);
+                found.putIfAbsent(dto.getId(), dto);
+            }
+        }
+        return new ArrayList<>(found.values());
     }
     
+    // Buffered and written in batches by ActivityAggregator; unknown usernames simply match no row
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updateLastActivity(String username) {
-        userRepository.findByUsername(username).ifPresent(user -> {
-            user.setLastActivityAt(LocalDateTime.now());
-            userRepository.save(user);
-        });
+        activityAggregator.record(username, LocalDateTime.now());
     }
     
     private UserDto convertToDto(User user) {